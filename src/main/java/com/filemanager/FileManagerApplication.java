@@ -3,6 +3,7 @@ package com.filemanager;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import java.io.File;
@@ -13,6 +14,7 @@ import java.io.File;
 @SpringBootApplication
 @EnableTransactionManagement
 @EnableConfigurationProperties
+@EnableScheduling
 public class FileManagerApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,43 @@
+package com.filemanager.common;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 游标分页结果
+ * 下一页通过nextCursor定位，不使用OFFSET，翻到多深的页面开销都相同
+ */
+@Data
+@ApiModel(value = "游标分页结果", description = "基于游标（keyset）的分页结果")
+public class CursorPage<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 当前页数据
+     */
+    @ApiModelProperty(value = "当前页数据")
+    private List<T> records;
+
+    /**
+     * 下一页游标，没有更多数据时为null
+     */
+    @ApiModelProperty(value = "下一页游标，没有更多数据时为null")
+    private String nextCursor;
+
+    /**
+     * 是否还有更多数据
+     */
+    @ApiModelProperty(value = "是否还有更多数据", example = "true")
+    private Boolean hasMore;
+
+    /**
+     * 总记录数，仅在请求时统计，否则为null
+     */
+    @ApiModelProperty(value = "总记录数，仅在请求时统计", example = "100000")
+    private Long total;
+}
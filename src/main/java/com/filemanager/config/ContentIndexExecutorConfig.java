@@ -0,0 +1,46 @@
+package com.filemanager.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 内容索引线程池配置
+ * 文本提取和索引写入在独立的有界线程池中执行，队列即待索引文件的积压队列
+ */
+@Configuration
+public class ContentIndexExecutorConfig {
+
+    /**
+     * 内容索引线程池Bean名称
+     */
+    public static final String CONTENT_INDEX_EXECUTOR = "contentIndexExecutor";
+
+    @Value("${file.search.content.index-threads:1}")
+    private int indexThreads;
+
+    @Value("${file.search.content.queue-capacity:10000}")
+    private int queueCapacity;
+
+    /**
+     * 内容索引线程池
+     * 与存储IO线程池不同，队列满时直接拒绝：索引不能退回到上传请求线程中执行
+     *
+     * @return 线程池
+     */
+    @Bean(name = CONTENT_INDEX_EXECUTOR)
+    public ThreadPoolTaskExecutor contentIndexExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(indexThreads);
+        executor.setMaxPoolSize(indexThreads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("content-index-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+}
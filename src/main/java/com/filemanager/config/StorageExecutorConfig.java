@@ -0,0 +1,62 @@
+package com.filemanager.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 存储IO线程池配置
+ * 存储操作在独立的有界线程池中执行，不占用Tomcat请求线程
+ */
+@Configuration
+public class StorageExecutorConfig {
+
+    /**
+     * 存储IO线程池Bean名称
+     */
+    public static final String STORAGE_IO_EXECUTOR = "storageIoExecutor";
+
+    /**
+     * 存储IO线程名称前缀
+     */
+    private static final String THREAD_NAME_PREFIX = "storage-io-";
+
+    @Value("${file.storage.io-threads:8}")
+    private int ioThreads;
+
+    @Value("${file.storage.io-queue-capacity:1000}")
+    private int queueCapacity;
+
+    /**
+     * 存储IO线程池
+     * 队列满时由提交任务的线程自己执行，形成背压而不是丢弃任务
+     *
+     * @return 线程池
+     */
+    @Bean(name = STORAGE_IO_EXECUTOR)
+    public ThreadPoolTaskExecutor storageIoExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(ioThreads);
+        executor.setMaxPoolSize(ioThreads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(THREAD_NAME_PREFIX);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 当前线程是否为存储IO线程
+     * 存储IO线程中不能等待提交到同一线程池的任务：线程全部在等待时，被等待的任务无法执行
+     *
+     * @return 是否为存储IO线程
+     */
+    public static boolean isStorageIoThread() {
+        return Thread.currentThread().getName().startsWith(THREAD_NAME_PREFIX);
+    }
+}
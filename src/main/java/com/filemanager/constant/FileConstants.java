@@ -86,4 +86,59 @@ public class FileConstants {
      * 文件状态 - 已删除
      */
     public static final Integer FILE_STATUS_DELETED = 3;
-}
\ No newline at end of file
+
+    /**
+     * 文件夹状态 - 已删除
+     */
+    public static final Integer FOLDER_STATUS_DELETED = 0;
+
+    /**
+     * 文件夹状态 - 正常
+     */
+    public static final Integer FOLDER_STATUS_NORMAL = 1;
+
+    /**
+     * 顶级文件夹的父级ID
+     */
+    public static final Long FOLDER_ROOT_PARENT_ID = 0L;
+
+    /**
+     * 下载模式 - 缓冲区复制
+     */
+    public static final String DOWNLOAD_MODE_BUFFERED = "buffered";
+
+    /**
+     * 下载模式 - 零拷贝（sendfile/transferTo）
+     */
+    public static final String DOWNLOAD_MODE_ZERO_COPY = "zero-copy";
+
+    /**
+     * 本地复制模式 - 完整复制
+     */
+    public static final String COPY_MODE_COPY = "copy";
+
+    /**
+     * 本地复制模式 - 硬链接
+     */
+    public static final String COPY_MODE_HARDLINK = "hardlink";
+
+    /**
+     * 本地复制模式 - 写时复制（reflink），文件系统不支持时退化为完整复制
+     */
+    public static final String COPY_MODE_REFLINK = "reflink";
+
+    /**
+     * 本地存储目录布局 - 按日期分目录
+     */
+    public static final String STORAGE_LAYOUT_DATE = "date";
+
+    /**
+     * 本地存储目录布局 - 按哈希前缀分两级目录
+     */
+    public static final String STORAGE_LAYOUT_HASH = "hash";
+
+    /**
+     * 多行INSERT/UPDATE每批的最大行数
+     */
+    public static final int SQL_BATCH_SIZE = 500;
+}
@@ -2,31 +2,43 @@ package com.filemanager.controller;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.filemanager.common.CursorPage;
 import com.filemanager.common.Result;
+import com.filemanager.dto.ContentSearchHit;
+import com.filemanager.dto.FileCursorQuery;
+import com.filemanager.dto.FileListItem;
+import com.filemanager.dto.NameSuggestion;
+import com.filemanager.dto.BatchUploadResult;
 import com.filemanager.entity.FileInfo;
+import com.filemanager.service.AccessCounterService;
+import com.filemanager.service.ContentIndexService;
+import com.filemanager.service.FileBatchOperationService;
+import com.filemanager.service.FileBatchUploadService;
+import com.filemanager.service.FileDownloadService;
 import com.filemanager.service.FileInfoService;
-import com.filemanager.utils.FileUtils;
+import com.filemanager.service.FileNameIndexService;
+import com.filemanager.service.FileQueryService;
+import com.filemanager.service.NameSuggestService;
+import com.filemanager.service.ZipDownloadService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiImplicitParam;
 import io.swagger.annotations.ApiImplicitParams;
 import io.swagger.annotations.ApiOperation;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 /**
  * 文件控制器
@@ -40,6 +52,24 @@ public class FileController {
 
     private final FileInfoService fileInfoService;
 
+    private final FileDownloadService fileDownloadService;
+
+    private final FileBatchUploadService fileBatchUploadService;
+
+    private final FileBatchOperationService fileBatchOperationService;
+
+    private final FileQueryService fileQueryService;
+
+    private final FileNameIndexService fileNameIndexService;
+
+    private final NameSuggestService nameSuggestService;
+
+    private final ContentIndexService contentIndexService;
+
+    private final AccessCounterService accessCounterService;
+
+    private final ZipDownloadService zipDownloadService;
+
     /**
      * 获取当前登录用户ID
      *
@@ -53,6 +83,51 @@ public class FileController {
         return null;
     }
 
+    /**
+     * 判断请求是否从文件开头读取（无Range请求头或区间从0开始），用于下载和预览计数
+     *
+     * @param request HTTP请求对象
+     * @return 是否从文件开头读取
+     */
+    private boolean isFirstRange(HttpServletRequest request) {
+        String range = request.getHeader("Range");
+        return range == null || range.startsWith("bytes=0-");
+    }
+
+    /**
+     * 判断用户是否可以读取文件内容
+     *
+     * @param fileInfo 文件信息
+     * @param userId   用户ID
+     * @return 是否可以读取
+     */
+    private boolean canAccess(FileInfo fileInfo, Long userId) {
+        return Objects.equals(fileInfo.getCreateUserId(), userId)
+                || Objects.equals(fileInfo.getIsPublic(), 1);
+    }
+
+    /**
+     * 将新增、重命名或恢复的文件加入文件名索引和名称联想
+     *
+     * @param fileInfo 文件信息
+     */
+    private void addToIndexes(FileInfo fileInfo) {
+        List<FileInfo> files = Collections.singletonList(fileInfo);
+        fileNameIndexService.addFiles(files);
+        nameSuggestService.addFiles(files);
+    }
+
+    /**
+     * 从文件名索引和名称联想中移除文件
+     *
+     * @param userId  用户ID
+     * @param fileIds 文件ID列表
+     */
+    private void removeFromIndexes(Long userId, List<Long> fileIds) {
+        fileNameIndexService.removeFiles(userId, fileIds);
+        nameSuggestService.removeFiles(userId, fileIds);
+    }
+
     /**
      * 上传文件
      *
@@ -80,6 +155,8 @@ public class FileController {
             }
 
             FileInfo fileInfo = fileInfoService.uploadFile(file, folderId, userId);
+            addToIndexes(fileInfo);
+            contentIndexService.submitFiles(Collections.singletonList(fileInfo));
             return Result.success(fileInfo);
         } catch (Exception e) {
             log.error("文件上传失败", e);
@@ -92,15 +169,15 @@ public class FileController {
      *
      * @param files    文件列表
      * @param folderId 文件夹ID
-     * @return 文件信息列表
+     * @return 上传结果，包含成功的文件和每个失败文件的原因
      */
     @PostMapping("/batch-upload")
-    @ApiOperation(value = "批量上传文件", notes = "批量上传文件到指定文件夹")
+    @ApiOperation(value = "批量上传文件", notes = "批量上传文件到指定文件夹，单个文件失败不影响其他文件")
     @ApiImplicitParams({
             @ApiImplicitParam(name = "files", value = "文件列表", required = true, dataType = "__file", allowMultiple = true),
             @ApiImplicitParam(name = "folderId", value = "文件夹ID", defaultValue = "0")
     })
-    public Result<List<FileInfo>> batchUpload(
+    public Result<BatchUploadResult> batchUpload(
             @RequestParam("files") List<MultipartFile> files,
             @RequestParam(value = "folderId", required = false, defaultValue = "0") Long folderId) {
         if (files == null || files.isEmpty()) {
@@ -113,8 +190,8 @@ public class FileController {
                 return Result.error("未登录或登录已过期");
             }
 
-            List<FileInfo> fileInfoList = fileInfoService.batchUploadFiles(files, folderId, userId);
-            return Result.success(fileInfoList);
+            BatchUploadResult result = fileBatchUploadService.batchUpload(files, folderId, userId);
+            return Result.success(result);
         } catch (Exception e) {
             log.error("批量上传文件失败", e);
             return Result.error("批量上传文件失败: " + e.getMessage());
@@ -125,35 +202,66 @@ public class FileController {
      * 下载文件
      *
      * @param fileId   文件ID
+     * @param request  HTTP请求对象
      * @param response HTTP响应对象
-     * @return 文件内容
      */
     @GetMapping("/download/{fileId}")
-    @ApiOperation(value = "下载文件", notes = "根据文件ID下载文件")
+    @ApiOperation(value = "下载文件", notes = "根据文件ID下载文件，支持Range请求断点续传")
     @ApiImplicitParam(name = "fileId", value = "文件ID", required = true, dataType = "Long", paramType = "path")
-    public ResponseEntity<byte[]> download(@PathVariable Long fileId, HttpServletResponse response) {
+    public void download(@PathVariable Long fileId, HttpServletRequest request, HttpServletResponse response) {
         try {
             Long userId = getCurrentUserId();
             if (userId == null) {
-                return ResponseEntity.badRequest().build();
+                response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                return;
             }
 
             FileInfo fileInfo = fileInfoService.getById(fileId);
             if (fileInfo == null) {
-                return ResponseEntity.notFound().build();
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            if (!canAccess(fileInfo, userId)) {
+                response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+                return;
             }
 
-            byte[] fileData = fileInfoService.getFileBytes(fileId, userId);
-            String encodedFileName = URLEncoder.encode(fileInfo.getOriginalName(), StandardCharsets.UTF_8.name())
-                    .replaceAll("\\+", "%20");
-
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(FileUtils.getMimeType(fileInfo.getFileExt())))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + encodedFileName + "\"")
-                    .body(fileData);
+            fileDownloadService.download(fileInfo, request, response);
+            // 断点续传的后续区间请求不重复计数
+            if (isFirstRange(request)) {
+                accessCounterService.incrementDownloadCount(fileId);
+            }
         } catch (Exception e) {
             log.error("文件下载失败", e);
-            return ResponseEntity.notFound().build();
+            if (!response.isCommitted()) {
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            }
+        }
+    }
+
+    /**
+     * 打包下载多个文件
+     *
+     * @param fileIds  文件ID列表
+     * @param response HTTP响应对象
+     */
+    @GetMapping("/download/zip")
+    @ApiOperation(value = "打包下载文件", notes = "将选中的多个文件边读取边压缩为ZIP下载，无权读取的文件被忽略")
+    @ApiImplicitParam(name = "fileIds", value = "文件ID列表", required = true, allowMultiple = true, dataType = "Long")
+    public void downloadZip(@RequestParam("fileIds") List<Long> fileIds, HttpServletResponse response) {
+        try {
+            Long userId = getCurrentUserId();
+            if (userId == null) {
+                response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                return;
+            }
+
+            zipDownloadService.downloadFiles(fileIds, userId, response);
+        } catch (Exception e) {
+            log.error("打包下载文件失败", e);
+            if (!response.isCommitted()) {
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            }
         }
     }
 
@@ -161,12 +269,13 @@ public class FileController {
      * 预览文件
      *
      * @param fileId   文件ID
+     * @param request  HTTP请求对象
      * @param response HTTP响应对象
      */
     @GetMapping("/preview/{fileId}")
-    @ApiOperation(value = "预览文件", notes = "根据文件ID预览文件")
+    @ApiOperation(value = "预览文件", notes = "根据文件ID预览文件，支持Range请求用于音视频拖动")
     @ApiImplicitParam(name = "fileId", value = "文件ID", required = true, dataType = "Long", paramType = "path")
-    public void preview(@PathVariable Long fileId, HttpServletResponse response) {
+    public void preview(@PathVariable Long fileId, HttpServletRequest request, HttpServletResponse response) {
         try {
             Long userId = getCurrentUserId();
             if (userId == null) {
@@ -174,10 +283,25 @@ public class FileController {
                 return;
             }
 
-            fileInfoService.previewFile(fileId, userId, response);
+            FileInfo fileInfo = fileInfoService.getById(fileId);
+            if (fileInfo == null) {
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            if (!canAccess(fileInfo, userId)) {
+                response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+                return;
+            }
+
+            fileDownloadService.preview(fileInfo, request, response);
+            if (isFirstRange(request)) {
+                accessCounterService.incrementPreviewCount(fileId);
+            }
         } catch (Exception e) {
             log.error("文件预览失败", e);
-            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            if (!response.isCommitted()) {
+                response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
         }
     }
 
@@ -207,14 +331,14 @@ public class FileController {
     @GetMapping("/list")
     @ApiOperation(value = "获取文件列表", notes = "获取指定文件夹下的文件列表")
     @ApiImplicitParam(name = "folderId", value = "文件夹ID", defaultValue = "0")
-    public Result<List<FileInfo>> getList(@RequestParam(value = "folderId", required = false, defaultValue = "0") Long folderId) {
+    public Result<List<FileListItem>> getList(@RequestParam(value = "folderId", required = false, defaultValue = "0") Long folderId) {
         Long userId = getCurrentUserId();
         if (userId == null) {
             return Result.error("未登录或登录已过期");
         }
 
         try {
-            List<FileInfo> fileInfoList = fileInfoService.getFileListByFolder(folderId, userId);
+            List<FileListItem> fileInfoList = fileQueryService.listFolderItems(folderId, userId);
             return Result.success(fileInfoList);
         } catch (Exception e) {
             log.error("获取文件列表失败", e);
@@ -268,6 +392,63 @@ public class FileController {
         }
     }
 
+    /**
+     * 游标分页查询文件列表
+     *
+     * @param folderId  文件夹ID
+     * @param fileName  文件名关键词
+     * @param fileType  文件类型
+     * @param sortBy    排序字段
+     * @param order     排序方向
+     * @param cursor    上一页返回的游标
+     * @param size      每页大小
+     * @param withTotal 是否统计总记录数
+     * @return 游标分页结果
+     */
+    @GetMapping("/cursor-page")
+    @ApiOperation(value = "游标分页查询文件列表", notes = "按游标翻页，适用于文件很多的文件夹；首页不传cursor，之后传上一页返回的nextCursor")
+    @ApiImplicitParams({
+            @ApiImplicitParam(name = "folderId", value = "文件夹ID", defaultValue = "0"),
+            @ApiImplicitParam(name = "fileName", value = "文件名关键词"),
+            @ApiImplicitParam(name = "fileType", value = "文件类型", dataType = "Integer"),
+            @ApiImplicitParam(name = "sortBy", value = "排序字段（createTime/fileName/fileSize）", defaultValue = "createTime"),
+            @ApiImplicitParam(name = "order", value = "排序方向（asc/desc）", defaultValue = "desc"),
+            @ApiImplicitParam(name = "cursor", value = "上一页返回的游标"),
+            @ApiImplicitParam(name = "size", value = "每页大小", defaultValue = "50"),
+            @ApiImplicitParam(name = "withTotal", value = "是否统计总记录数", defaultValue = "false")
+    })
+    public Result<CursorPage<FileInfo>> cursorPage(
+            @RequestParam(value = "folderId", required = false, defaultValue = "0") Long folderId,
+            @RequestParam(value = "fileName", required = false) String fileName,
+            @RequestParam(value = "fileType", required = false) Integer fileType,
+            @RequestParam(value = "sortBy", required = false, defaultValue = "createTime") String sortBy,
+            @RequestParam(value = "order", required = false, defaultValue = "desc") String order,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false, defaultValue = "50") Integer size,
+            @RequestParam(value = "withTotal", required = false, defaultValue = "false") Boolean withTotal) {
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            return Result.error("未登录或登录已过期");
+        }
+
+        try {
+            FileCursorQuery query = new FileCursorQuery();
+            query.setUserId(userId);
+            query.setFolderId(folderId);
+            query.setFileName(fileName);
+            query.setFileType(fileType);
+            query.setSortBy(sortBy);
+            query.setOrder(order);
+            query.setCursor(cursor);
+            query.setSize(size);
+            query.setWithTotal(withTotal);
+            return Result.success(fileQueryService.cursorPage(query));
+        } catch (Exception e) {
+            log.error("游标分页查询文件列表失败", e);
+            return Result.error("游标分页查询文件列表失败: " + e.getMessage());
+        }
+    }
+
     /**
      * 删除文件
      *
@@ -285,7 +466,11 @@ public class FileController {
 
         try {
             boolean success = fileInfoService.deleteFile(fileId, userId);
-            return success ? Result.success(true) : Result.error("删除文件失败");
+            if (!success) {
+                return Result.error("删除文件失败");
+            }
+            removeFromIndexes(userId, Collections.singletonList(fileId));
+            return Result.success(true);
         } catch (Exception e) {
             log.error("删除文件失败", e);
             return Result.error("删除文件失败: " + e.getMessage());
@@ -296,12 +481,12 @@ public class FileController {
      * 批量删除文件
      *
      * @param fileIds 文件ID列表
-     * @return 操作结果
+     * @return 每个文件ID的处理结果
      */
     @DeleteMapping("/batch")
     @ApiOperation(value = "批量删除文件", notes = "批量删除文件（移入回收站）")
     @ApiImplicitParam(name = "fileIds", value = "文件ID列表", required = true, dataType = "List")
-    public Result<Boolean> batchDelete(@RequestBody List<Long> fileIds) {
+    public Result<Map<Long, Boolean>> batchDelete(@RequestBody List<Long> fileIds) {
         if (fileIds == null || fileIds.isEmpty()) {
             return Result.error("文件ID列表不能为空");
         }
@@ -312,8 +497,7 @@ public class FileController {
         }
 
         try {
-            boolean success = fileInfoService.batchDeleteFiles(fileIds, userId);
-            return success ? Result.success(true) : Result.error("批量删除文件失败");
+            return Result.success(fileBatchOperationService.batchDelete(fileIds, userId));
         } catch (Exception e) {
             log.error("批量删除文件失败", e);
             return Result.error("批量删除文件失败: " + e.getMessage());
@@ -337,7 +521,11 @@ public class FileController {
 
         try {
             boolean success = fileInfoService.restoreFile(fileId, userId);
-            return success ? Result.success(true) : Result.error("恢复文件失败");
+            if (!success) {
+                return Result.error("恢复文件失败");
+            }
+            addToIndexes(fileInfoService.getById(fileId));
+            return Result.success(true);
         } catch (Exception e) {
             log.error("恢复文件失败", e);
             return Result.error("恢复文件失败: " + e.getMessage());
@@ -348,12 +536,12 @@ public class FileController {
      * 批量恢复文件
      *
      * @param fileIds 文件ID列表
-     * @return 操作结果
+     * @return 每个文件ID的处理结果
      */
     @PutMapping("/restore/batch")
     @ApiOperation(value = "批量恢复文件", notes = "批量恢复文件（从回收站恢复）")
     @ApiImplicitParam(name = "fileIds", value = "文件ID列表", required = true, dataType = "List")
-    public Result<Boolean> batchRestore(@RequestBody List<Long> fileIds) {
+    public Result<Map<Long, Boolean>> batchRestore(@RequestBody List<Long> fileIds) {
         if (fileIds == null || fileIds.isEmpty()) {
             return Result.error("文件ID列表不能为空");
         }
@@ -364,8 +552,7 @@ public class FileController {
         }
 
         try {
-            boolean success = fileInfoService.batchRestoreFiles(fileIds, userId);
-            return success ? Result.success(true) : Result.error("批量恢复文件失败");
+            return Result.success(fileBatchOperationService.batchRestore(fileIds, userId));
         } catch (Exception e) {
             log.error("批量恢复文件失败", e);
             return Result.error("批量恢复文件失败: " + e.getMessage());
@@ -389,13 +576,45 @@ public class FileController {
 
         try {
             boolean success = fileInfoService.permanentDeleteFile(fileId, userId);
-            return success ? Result.success(true) : Result.error("永久删除文件失败");
+            if (!success) {
+                return Result.error("永久删除文件失败");
+            }
+            removeFromIndexes(userId, Collections.singletonList(fileId));
+            contentIndexService.removeFiles(Collections.singletonList(fileId));
+            return Result.success(true);
         } catch (Exception e) {
             log.error("永久删除文件失败", e);
             return Result.error("永久删除文件失败: " + e.getMessage());
         }
     }
 
+    /**
+     * 批量永久删除文件
+     *
+     * @param fileIds 文件ID列表
+     * @return 每个文件ID的处理结果
+     */
+    @DeleteMapping("/permanent/batch")
+    @ApiOperation(value = "批量永久删除文件", notes = "批量永久删除文件（物理删除）")
+    @ApiImplicitParam(name = "fileIds", value = "文件ID列表", required = true, dataType = "List")
+    public Result<Map<Long, Boolean>> batchPermanentDelete(@RequestBody List<Long> fileIds) {
+        if (fileIds == null || fileIds.isEmpty()) {
+            return Result.error("文件ID列表不能为空");
+        }
+
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            return Result.error("未登录或登录已过期");
+        }
+
+        try {
+            return Result.success(fileBatchOperationService.batchPermanentDelete(fileIds, userId));
+        } catch (Exception e) {
+            log.error("批量永久删除文件失败", e);
+            return Result.error("批量永久删除文件失败: " + e.getMessage());
+        }
+    }
+
     /**
      * 移动文件
      *
@@ -426,6 +645,72 @@ public class FileController {
         }
     }
 
+    /**
+     * 批量移动文件
+     *
+     * @param fileIds        文件ID列表
+     * @param targetFolderId 目标文件夹ID
+     * @return 每个文件ID的处理结果
+     */
+    @PutMapping("/move/batch")
+    @ApiOperation(value = "批量移动文件", notes = "批量移动文件到指定文件夹")
+    @ApiImplicitParams({
+            @ApiImplicitParam(name = "fileIds", value = "文件ID列表", required = true, dataType = "List"),
+            @ApiImplicitParam(name = "targetFolderId", value = "目标文件夹ID", required = true, dataType = "Long")
+    })
+    public Result<Map<Long, Boolean>> batchMove(
+            @RequestBody List<Long> fileIds,
+            @RequestParam("targetFolderId") Long targetFolderId) {
+        if (fileIds == null || fileIds.isEmpty()) {
+            return Result.error("文件ID列表不能为空");
+        }
+
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            return Result.error("未登录或登录已过期");
+        }
+
+        try {
+            return Result.success(fileBatchOperationService.batchMove(fileIds, targetFolderId, userId));
+        } catch (Exception e) {
+            log.error("批量移动文件失败", e);
+            return Result.error("批量移动文件失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 批量复制文件
+     *
+     * @param fileIds        文件ID列表
+     * @param targetFolderId 目标文件夹ID
+     * @return 每个文件ID的处理结果
+     */
+    @PostMapping("/copy/batch")
+    @ApiOperation(value = "批量复制文件", notes = "批量复制文件到指定文件夹，副本与源文件共享存储内容")
+    @ApiImplicitParams({
+            @ApiImplicitParam(name = "fileIds", value = "文件ID列表", required = true, dataType = "List"),
+            @ApiImplicitParam(name = "targetFolderId", value = "目标文件夹ID", required = true, dataType = "Long")
+    })
+    public Result<Map<Long, Boolean>> batchCopy(
+            @RequestBody List<Long> fileIds,
+            @RequestParam("targetFolderId") Long targetFolderId) {
+        if (fileIds == null || fileIds.isEmpty()) {
+            return Result.error("文件ID列表不能为空");
+        }
+
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            return Result.error("未登录或登录已过期");
+        }
+
+        try {
+            return Result.success(fileBatchOperationService.batchCopy(fileIds, targetFolderId, userId));
+        } catch (Exception e) {
+            log.error("批量复制文件失败", e);
+            return Result.error("批量复制文件失败: " + e.getMessage());
+        }
+    }
+
     /**
      * 重命名文件
      *
@@ -449,7 +734,11 @@ public class FileController {
 
         try {
             boolean success = fileInfoService.renameFile(fileId, newFileName, userId);
-            return success ? Result.success(true) : Result.error("重命名文件失败");
+            if (!success) {
+                return Result.error("重命名文件失败");
+            }
+            addToIndexes(fileInfoService.getById(fileId));
+            return Result.success(true);
         } catch (Exception e) {
             log.error("重命名文件失败", e);
             return Result.error("重命名文件失败: " + e.getMessage());
@@ -493,14 +782,14 @@ public class FileController {
      */
     @GetMapping("/trash")
     @ApiOperation(value = "获取回收站文件列表", notes = "获取当前用户回收站中的文件列表")
-    public Result<List<FileInfo>> getTrashFiles() {
+    public Result<List<FileListItem>> getTrashFiles() {
         Long userId = getCurrentUserId();
         if (userId == null) {
             return Result.error("未登录或登录已过期");
         }
 
         try {
-            List<FileInfo> fileInfoList = fileInfoService.getTrashFiles(userId);
+            List<FileListItem> fileInfoList = fileQueryService.listTrashItems(userId);
             return Result.success(fileInfoList);
         } catch (Exception e) {
             log.error("获取回收站文件列表失败", e);
@@ -522,8 +811,15 @@ public class FileController {
         }
 
         try {
+            // 回收站中的文件已不在文件名索引和名称联想中，清空后只需移除内容索引
+            List<Long> trashIds = fileQueryService.listTrashItems(userId).stream()
+                    .map(FileListItem::getId).collect(Collectors.toList());
             boolean success = fileInfoService.clearTrash(userId);
-            return success ? Result.success(true) : Result.error("清空回收站失败");
+            if (!success) {
+                return Result.error("清空回收站失败");
+            }
+            contentIndexService.removeFiles(trashIds);
+            return Result.success(true);
         } catch (Exception e) {
             log.error("清空回收站失败", e);
             return Result.error("清空回收站失败: " + e.getMessage());
@@ -537,14 +833,14 @@ public class FileController {
      */
     @GetMapping("/favorites")
     @ApiOperation(value = "获取收藏的文件列表", notes = "获取当前用户收藏的文件列表")
-    public Result<List<FileInfo>> getFavoriteFiles() {
+    public Result<List<FileListItem>> getFavoriteFiles() {
         Long userId = getCurrentUserId();
         if (userId == null) {
             return Result.error("未登录或登录已过期");
         }
 
         try {
-            List<FileInfo> fileInfoList = fileInfoService.getFavoriteFiles(userId);
+            List<FileListItem> fileInfoList = fileQueryService.listFavoriteItems(userId);
             return Result.success(fileInfoList);
         } catch (Exception e) {
             log.error("获取收藏的文件列表失败", e);
@@ -559,7 +855,7 @@ public class FileController {
      * @return 文件列表
      */
     @GetMapping("/search")
-    @ApiOperation(value = "搜索文件", notes = "根据关键词搜索文件")
+    @ApiOperation(value = "搜索文件", notes = "根据关键词搜索文件名，开启文件名索引时使用内存索引，否则查询数据库")
     @ApiImplicitParam(name = "keyword", value = "关键词", required = true)
     public Result<List<FileInfo>> searchFiles(@RequestParam("keyword") String keyword) {
         Long userId = getCurrentUserId();
@@ -568,7 +864,7 @@ public class FileController {
         }
 
         try {
-            List<FileInfo> fileInfoList = fileInfoService.searchFiles(keyword, userId);
+            List<FileInfo> fileInfoList = fileNameIndexService.search(keyword, userId);
             return Result.success(fileInfoList);
         } catch (Exception e) {
             log.error("搜索文件失败", e);
@@ -576,6 +872,64 @@ public class FileController {
         }
     }
 
+    /**
+     * 按文件内容搜索
+     *
+     * @param keyword 关键词
+     * @param limit   最大结果数
+     * @return 搜索结果
+     */
+    @GetMapping("/search/content")
+    @ApiOperation(value = "全文搜索", notes = "搜索txt/pdf/docx/xlsx等文档的内容，返回匹配片段；新上传的文件异步索引，稍后才能搜到")
+    @ApiImplicitParams({
+            @ApiImplicitParam(name = "keyword", value = "关键词", required = true),
+            @ApiImplicitParam(name = "limit", value = "最大结果数", defaultValue = "20")
+    })
+    public Result<List<ContentSearchHit>> searchContent(
+            @RequestParam("keyword") String keyword,
+            @RequestParam(value = "limit", required = false, defaultValue = "20") Integer limit) {
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            return Result.error("未登录或登录已过期");
+        }
+
+        try {
+            return Result.success(contentIndexService.search(keyword, userId, limit));
+        } catch (Exception e) {
+            log.error("全文搜索失败", e);
+            return Result.error("全文搜索失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 文件和文件夹名称联想
+     *
+     * @param prefix 名称前缀
+     * @param limit  最大结果数
+     * @return 联想结果
+     */
+    @GetMapping("/search/suggest")
+    @ApiOperation(value = "名称联想", notes = "按前缀返回文件和文件夹名称，按下载次数和创建时间排序")
+    @ApiImplicitParams({
+            @ApiImplicitParam(name = "prefix", value = "名称前缀", required = true),
+            @ApiImplicitParam(name = "limit", value = "最大结果数", defaultValue = "10")
+    })
+    public Result<List<NameSuggestion>> suggest(
+            @RequestParam("prefix") String prefix,
+            @RequestParam(value = "limit", required = false, defaultValue = "10") Integer limit) {
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            return Result.error("未登录或登录已过期");
+        }
+
+        try {
+            return Result.success(nameSuggestService.suggest(prefix, userId, limit));
+        } catch (Exception e) {
+            log.error("名称联想失败", e);
+            return Result.error("名称联想失败: " + e.getMessage());
+        }
+    }
+
     /**
      * 秒传文件
      *
@@ -603,6 +957,8 @@ public class FileController {
         try {
             FileInfo fileInfo = fileInfoService.rapidUpload(fileMd5, fileName, folderId, userId);
             if (fileInfo != null) {
+                addToIndexes(fileInfo);
+                contentIndexService.submitFiles(Collections.singletonList(fileInfo));
                 return Result.success(fileInfo);
             } else {
                 return Result.error("秒传失败，文件不存在");
@@ -7,12 +7,14 @@ import com.filemanager.entity.LoginUser;
 import com.filemanager.entity.FileShare;
 import com.filemanager.exception.BusinessException;
 import com.filemanager.service.FileShareService;
+import com.filemanager.service.ZipDownloadService;
 import com.filemanager.util.SecurityUtils;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiImplicitParam;
 import io.swagger.annotations.ApiImplicitParams;
 import io.swagger.annotations.ApiOperation;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.web.bind.annotation.*;
 
@@ -26,6 +28,7 @@ import java.util.Map;
  *
  * @author filemanager
  */
+@Slf4j
 @Api(tags = "文件分享接口")
 @RestController
 @RequestMapping("/api/file/share")
@@ -34,6 +37,8 @@ public class FileShareController {
 
     private final FileShareService fileShareService;
 
+    private final ZipDownloadService zipDownloadService;
+
     @ApiOperation("创建分享")
     @PostMapping("/create")
     public Result<Map<String, Object>> createShare(@RequestBody FileShare fileShare) {
@@ -288,6 +293,36 @@ public class FileShareController {
         }
     }
 
+    @ApiOperation("打包下载文件夹分享")
+    @GetMapping("/download-zip/{shareCode}")
+    @ApiImplicitParams({
+            @ApiImplicitParam(name = "shareCode", value = "分享码", required = true),
+            @ApiImplicitParam(name = "extractCode", value = "提取码", required = false)
+    })
+    public void downloadShareZip(@PathVariable("shareCode") String shareCode,
+                                 @RequestParam(value = "extractCode", required = false) String extractCode,
+                                 HttpServletResponse response) {
+        try {
+            FileShare share = fileShareService.checkShareValid(shareCode, extractCode);
+            if (share == null) {
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            fileShareService.incrementAccessCount(share.getId());
+            zipDownloadService.downloadShare(share, response);
+        } catch (IllegalStateException e) {
+            log.warn("打包下载分享被拒绝: {}, {}", shareCode, e.getMessage());
+            if (!response.isCommitted()) {
+                response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+            }
+        } catch (Exception e) {
+            log.error("打包下载分享失败: {}", shareCode, e);
+            if (!response.isCommitted()) {
+                response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            }
+        }
+    }
+
     @ApiOperation("获取分享内容列表")
     @GetMapping("/content")
     @ApiImplicitParams({
@@ -0,0 +1,228 @@
+package com.filemanager.controller;
+
+import com.filemanager.common.Result;
+import com.filemanager.entity.FileFolder;
+import com.filemanager.entity.FolderStat;
+import com.filemanager.service.FolderService;
+import com.filemanager.service.ZipDownloadService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiImplicitParam;
+import io.swagger.annotations.ApiImplicitParams;
+import io.swagger.annotations.ApiOperation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
+
+/**
+ * 文件夹控制器
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/folder")
+@RequiredArgsConstructor
+@Api(tags = "文件夹管理接口", description = "提供文件夹创建、移动、删除及层级查询等接口")
+public class FolderController {
+
+    private final FolderService folderService;
+
+    private final ZipDownloadService zipDownloadService;
+
+    /**
+     * 获取当前登录用户ID
+     *
+     * @return 用户ID
+     */
+    private Long getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()) {
+            return 1L; // 暂时固定返回1，实际应从认证对象中获取用户ID
+        }
+        return null;
+    }
+
+    /**
+     * 创建文件夹
+     *
+     * @param folderName 文件夹名称
+     * @param parentId   父文件夹ID
+     * @return 文件夹信息
+     */
+    @PostMapping("/create")
+    @ApiOperation(value = "创建文件夹", notes = "在指定文件夹下创建子文件夹，parentId为0时创建顶级文件夹")
+    @ApiImplicitParams({
+            @ApiImplicitParam(name = "folderName", value = "文件夹名称", required = true),
+            @ApiImplicitParam(name = "parentId", value = "父文件夹ID", defaultValue = "0")
+    })
+    public Result<FileFolder> createFolder(
+            @RequestParam("folderName") String folderName,
+            @RequestParam(value = "parentId", required = false, defaultValue = "0") Long parentId) {
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            return Result.error("未登录或登录已过期");
+        }
+
+        try {
+            return Result.success(folderService.createFolder(folderName, parentId, userId));
+        } catch (Exception e) {
+            log.error("创建文件夹失败", e);
+            return Result.error("创建文件夹失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 移动文件夹
+     *
+     * @param folderId       文件夹ID
+     * @param targetParentId 目标父文件夹ID
+     * @return 是否成功
+     */
+    @PutMapping("/move/{folderId}")
+    @ApiOperation(value = "移动文件夹", notes = "连同子文件夹和文件一起移动，不能移动到自身或其子文件夹中")
+    @ApiImplicitParams({
+            @ApiImplicitParam(name = "folderId", value = "文件夹ID", required = true),
+            @ApiImplicitParam(name = "targetParentId", value = "目标父文件夹ID", required = true)
+    })
+    public Result<Boolean> moveFolder(
+            @PathVariable("folderId") Long folderId,
+            @RequestParam("targetParentId") Long targetParentId) {
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            return Result.error("未登录或登录已过期");
+        }
+
+        try {
+            return Result.success(folderService.moveFolder(folderId, targetParentId, userId));
+        } catch (Exception e) {
+            log.error("移动文件夹失败", e);
+            return Result.error("移动文件夹失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 删除文件夹
+     *
+     * @param folderId 文件夹ID
+     * @return 移入回收站的文件数
+     */
+    @DeleteMapping("/{folderId}")
+    @ApiOperation(value = "删除文件夹", notes = "删除文件夹及其全部子文件夹，其中的文件移入回收站")
+    @ApiImplicitParam(name = "folderId", value = "文件夹ID", required = true)
+    public Result<Integer> deleteFolder(@PathVariable("folderId") Long folderId) {
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            return Result.error("未登录或登录已过期");
+        }
+
+        try {
+            return Result.success(folderService.deleteFolder(folderId, userId));
+        } catch (Exception e) {
+            log.error("删除文件夹失败", e);
+            return Result.error("删除文件夹失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 获取文件夹的祖先链（面包屑）
+     *
+     * @param folderId 文件夹ID
+     * @return 文件夹列表，从最顶层到自身
+     */
+    @GetMapping("/{folderId}/ancestors")
+    @ApiOperation(value = "获取祖先文件夹", notes = "返回从最顶层文件夹到当前文件夹的路径，用于面包屑导航")
+    @ApiImplicitParam(name = "folderId", value = "文件夹ID", required = true)
+    public Result<List<FileFolder>> getAncestors(@PathVariable("folderId") Long folderId) {
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            return Result.error("未登录或登录已过期");
+        }
+
+        try {
+            return Result.success(folderService.getAncestors(folderId, userId));
+        } catch (Exception e) {
+            log.error("获取祖先文件夹失败", e);
+            return Result.error("获取祖先文件夹失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 获取文件夹大小
+     *
+     * @param folderId 文件夹ID
+     * @return 大小（字节）
+     */
+    @GetMapping("/{folderId}/size")
+    @ApiOperation(value = "获取文件夹大小", notes = "统计文件夹及全部子文件夹中正常文件的大小之和")
+    @ApiImplicitParam(name = "folderId", value = "文件夹ID", required = true)
+    public Result<Long> getFolderSize(@PathVariable("folderId") Long folderId) {
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            return Result.error("未登录或登录已过期");
+        }
+
+        try {
+            return Result.success(folderService.getFolderSize(folderId, userId));
+        } catch (Exception e) {
+            log.error("获取文件夹大小失败", e);
+            return Result.error("获取文件夹大小失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 获取文件夹统计
+     *
+     * @param folderId 文件夹ID
+     * @return 直接包含及子树中的文件大小和数量
+     */
+    @GetMapping("/{folderId}/stat")
+    @ApiOperation(value = "获取文件夹统计", notes = "返回文件夹直接包含及子树中正常文件的大小和数量")
+    @ApiImplicitParam(name = "folderId", value = "文件夹ID", required = true)
+    public Result<FolderStat> getFolderStat(@PathVariable("folderId") Long folderId) {
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            return Result.error("未登录或登录已过期");
+        }
+
+        try {
+            return Result.success(folderService.getFolderStat(folderId, userId));
+        } catch (Exception e) {
+            log.error("获取文件夹统计失败", e);
+            return Result.error("获取文件夹统计失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 打包下载文件夹
+     *
+     * @param folderId 文件夹ID
+     * @param response HTTP响应对象
+     */
+    @GetMapping("/{folderId}/download")
+    @ApiOperation(value = "打包下载文件夹", notes = "将文件夹及全部子文件夹边读取边压缩为ZIP下载")
+    @ApiImplicitParam(name = "folderId", value = "文件夹ID", required = true)
+    public void downloadFolder(@PathVariable("folderId") Long folderId, HttpServletResponse response) {
+        try {
+            Long userId = getCurrentUserId();
+            if (userId == null) {
+                response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                return;
+            }
+
+            zipDownloadService.downloadFolder(folderId, userId, response);
+        } catch (IllegalStateException e) {
+            log.warn("打包下载文件夹被拒绝: {}, {}", folderId, e.getMessage());
+            if (!response.isCommitted()) {
+                response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+            }
+        } catch (Exception e) {
+            log.error("打包下载文件夹失败", e);
+            if (!response.isCommitted()) {
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            }
+        }
+    }
+}
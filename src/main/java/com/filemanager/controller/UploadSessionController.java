@@ -0,0 +1,177 @@
+package com.filemanager.controller;
+
+import com.filemanager.common.Result;
+import com.filemanager.dto.UploadSession;
+import com.filemanager.entity.FileInfo;
+import com.filemanager.service.UploadSessionService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiImplicitParam;
+import io.swagger.annotations.ApiImplicitParams;
+import io.swagger.annotations.ApiOperation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * 分片上传控制器
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/file/upload-session")
+@RequiredArgsConstructor
+@Api(tags = "分片上传接口", description = "提供大文件分片上传、断点续传接口")
+public class UploadSessionController {
+
+    private final UploadSessionService uploadSessionService;
+
+    /**
+     * 获取当前登录用户ID
+     *
+     * @return 用户ID
+     */
+    private Long getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()) {
+            return 1L; // 暂时固定返回1，实际应从认证对象中获取用户ID
+        }
+        return null;
+    }
+
+    /**
+     * 初始化上传会话
+     *
+     * @param fileName  文件名
+     * @param fileSize  文件大小
+     * @param chunkSize 分片大小
+     * @param folderId  文件夹ID
+     * @return 上传会话
+     */
+    @PostMapping("/init")
+    @ApiOperation(value = "初始化上传会话", notes = "创建分片上传会话，返回会话ID及分片信息")
+    @ApiImplicitParams({
+            @ApiImplicitParam(name = "fileName", value = "文件名", required = true),
+            @ApiImplicitParam(name = "fileSize", value = "文件大小(字节)", required = true, dataType = "Long"),
+            @ApiImplicitParam(name = "chunkSize", value = "分片大小(字节)", defaultValue = "8388608", dataType = "Integer"),
+            @ApiImplicitParam(name = "folderId", value = "文件夹ID", defaultValue = "0")
+    })
+    public Result<UploadSession> init(
+            @RequestParam("fileName") String fileName,
+            @RequestParam("fileSize") Long fileSize,
+            @RequestParam(value = "chunkSize", required = false, defaultValue = "8388608") Integer chunkSize,
+            @RequestParam(value = "folderId", required = false, defaultValue = "0") Long folderId) {
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            return Result.error("未登录或登录已过期");
+        }
+
+        try {
+            UploadSession session = uploadSessionService.initSession(fileName, fileSize, chunkSize, folderId, userId);
+            return Result.success(session);
+        } catch (Exception e) {
+            log.error("初始化上传会话失败", e);
+            return Result.error("初始化上传会话失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 上传分片，请求体为分片的原始字节
+     *
+     * @param sessionId  会话ID
+     * @param chunkIndex 分片序号
+     * @param request    HTTP请求对象
+     * @return 上传会话
+     */
+    @PutMapping("/{sessionId}/chunk/{chunkIndex}")
+    @ApiOperation(value = "上传分片", notes = "请求体为分片原始字节（application/octet-stream），分片可并发上传、失败可重传")
+    @ApiImplicitParams({
+            @ApiImplicitParam(name = "sessionId", value = "会话ID", required = true, paramType = "path"),
+            @ApiImplicitParam(name = "chunkIndex", value = "分片序号（从0开始）", required = true, dataType = "Integer", paramType = "path")
+    })
+    public Result<UploadSession> uploadChunk(
+            @PathVariable String sessionId,
+            @PathVariable Integer chunkIndex,
+            HttpServletRequest request) {
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            return Result.error("未登录或登录已过期");
+        }
+
+        try {
+            UploadSession session = uploadSessionService.uploadChunk(sessionId, chunkIndex,
+                    request.getInputStream(), request.getContentLengthLong(), userId);
+            return Result.success(session);
+        } catch (Exception e) {
+            log.error("上传分片失败", e);
+            return Result.error("上传分片失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 查询上传会话
+     *
+     * @param sessionId 会话ID
+     * @return 上传会话
+     */
+    @GetMapping("/{sessionId}")
+    @ApiOperation(value = "查询上传会话", notes = "查询已接收的分片，用于断点续传")
+    @ApiImplicitParam(name = "sessionId", value = "会话ID", required = true, paramType = "path")
+    public Result<UploadSession> getSession(@PathVariable String sessionId) {
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            return Result.error("未登录或登录已过期");
+        }
+
+        UploadSession session = uploadSessionService.getSession(sessionId, userId);
+        if (session == null) {
+            return Result.error("上传会话不存在或已过期");
+        }
+        return Result.success(session);
+    }
+
+    /**
+     * 完成上传
+     *
+     * @param sessionId 会话ID
+     * @return 文件信息
+     */
+    @PostMapping("/{sessionId}/complete")
+    @ApiOperation(value = "完成上传", notes = "所有分片上传完毕后合并为文件")
+    @ApiImplicitParam(name = "sessionId", value = "会话ID", required = true, paramType = "path")
+    public Result<FileInfo> complete(@PathVariable String sessionId) {
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            return Result.error("未登录或登录已过期");
+        }
+
+        try {
+            FileInfo fileInfo = uploadSessionService.completeSession(sessionId, userId);
+            return Result.success(fileInfo);
+        } catch (Exception e) {
+            log.error("完成上传失败", e);
+            return Result.error("完成上传失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 取消上传
+     *
+     * @param sessionId 会话ID
+     * @return 操作结果
+     */
+    @DeleteMapping("/{sessionId}")
+    @ApiOperation(value = "取消上传", notes = "取消上传并清理已上传的分片")
+    @ApiImplicitParam(name = "sessionId", value = "会话ID", required = true, paramType = "path")
+    public Result<Boolean> abort(@PathVariable String sessionId) {
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            return Result.error("未登录或登录已过期");
+        }
+
+        boolean success = uploadSessionService.abortSession(sessionId, userId);
+        return success ? Result.success(true) : Result.error("取消上传失败");
+    }
+}
@@ -0,0 +1,58 @@
+package com.filemanager.dto;
+
+import com.filemanager.entity.FileInfo;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量上传结果
+ */
+@Data
+@ApiModel(value = "批量上传结果", description = "上传成功的文件及每个失败文件的原因")
+public class BatchUploadResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 上传成功的文件
+     */
+    @ApiModelProperty(value = "上传成功的文件")
+    private List<FileInfo> successFiles = new ArrayList<>();
+
+    /**
+     * 上传失败的文件
+     */
+    @ApiModelProperty(value = "上传失败的文件")
+    private List<FailedFile> failedFiles = new ArrayList<>();
+
+    /**
+     * 上传失败的文件
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @ApiModel(value = "上传失败的文件")
+    public static class FailedFile implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 文件原始名称
+         */
+        @ApiModelProperty(value = "文件原始名称", example = "报告.pdf")
+        private String fileName;
+
+        /**
+         * 失败原因
+         */
+        @ApiModelProperty(value = "失败原因", example = "文件为空")
+        private String message;
+    }
+}
@@ -0,0 +1,52 @@
+package com.filemanager.dto;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 全文搜索结果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ApiModel(value = "全文搜索结果", description = "内容匹配关键词的文件及匹配片段")
+public class ContentSearchHit implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 文件ID
+     */
+    @ApiModelProperty(value = "文件ID", example = "1")
+    private Long fileId;
+
+    /**
+     * 原始文件名
+     */
+    @ApiModelProperty(value = "原始文件名", example = "年度报告.pdf")
+    private String originalName;
+
+    /**
+     * 文件大小（字节）
+     */
+    @ApiModelProperty(value = "文件大小（字节）", example = "102400")
+    private Long fileSize;
+
+    /**
+     * 相关度得分
+     */
+    @ApiModelProperty(value = "相关度得分", example = "3.5")
+    private Float score;
+
+    /**
+     * 匹配片段，关键词以&lt;em&gt;标记
+     */
+    @ApiModelProperty(value = "匹配片段", notes = "关键词以<em>标记")
+    private List<String> snippets;
+}
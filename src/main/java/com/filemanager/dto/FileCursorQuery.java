@@ -0,0 +1,71 @@
+package com.filemanager.dto;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 文件列表游标分页查询条件
+ */
+@Data
+@ApiModel(value = "文件列表游标分页查询条件")
+public class FileCursorQuery implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 用户ID
+     */
+    @ApiModelProperty(value = "用户ID", hidden = true)
+    private Long userId;
+
+    /**
+     * 文件夹ID
+     */
+    @ApiModelProperty(value = "文件夹ID", example = "0")
+    private Long folderId;
+
+    /**
+     * 文件名关键词
+     */
+    @ApiModelProperty(value = "文件名关键词")
+    private String fileName;
+
+    /**
+     * 文件类型
+     */
+    @ApiModelProperty(value = "文件类型", example = "1")
+    private Integer fileType;
+
+    /**
+     * 排序字段：createTime、fileName、fileSize
+     */
+    @ApiModelProperty(value = "排序字段", example = "createTime", allowableValues = "createTime,fileName,fileSize")
+    private String sortBy;
+
+    /**
+     * 排序方向：asc、desc
+     */
+    @ApiModelProperty(value = "排序方向", example = "desc", allowableValues = "asc,desc")
+    private String order;
+
+    /**
+     * 上一页返回的游标，首页为空
+     */
+    @ApiModelProperty(value = "上一页返回的游标，首页为空")
+    private String cursor;
+
+    /**
+     * 每页大小
+     */
+    @ApiModelProperty(value = "每页大小", example = "50")
+    private Integer size;
+
+    /**
+     * 是否统计总记录数
+     */
+    @ApiModelProperty(value = "是否统计总记录数", example = "false")
+    private Boolean withTotal;
+}
@@ -0,0 +1,73 @@
+package com.filemanager.dto;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 文件列表项
+ * 只包含列表展示需要的字段，查询可以直接由覆盖索引返回，不回表
+ */
+@Data
+@ApiModel(value = "文件列表项", description = "文件列表展示所需的字段")
+public class FileListItem implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 文件ID
+     */
+    @ApiModelProperty(value = "文件ID", example = "1")
+    private Long id;
+
+    /**
+     * 文件原始名称
+     */
+    @ApiModelProperty(value = "文件原始名称", example = "报告.pdf")
+    private String originalName;
+
+    /**
+     * 文件后缀名
+     */
+    @ApiModelProperty(value = "文件后缀名", example = "pdf")
+    private String fileExt;
+
+    /**
+     * 文件大小(字节)
+     */
+    @ApiModelProperty(value = "文件大小(字节)", example = "1024")
+    private Long fileSize;
+
+    /**
+     * 文件类型
+     */
+    @ApiModelProperty(value = "文件类型", example = "2", notes = "0-普通文件，1-图片，2-文档，3-视频，4-音频，5-压缩包")
+    private Integer fileType;
+
+    /**
+     * 所属文件夹ID
+     */
+    @ApiModelProperty(value = "所属文件夹ID", example = "0")
+    private Long folderId;
+
+    /**
+     * 是否收藏
+     */
+    @ApiModelProperty(value = "是否收藏", example = "0", notes = "0-否，1-是")
+    private Integer isFavorite;
+
+    /**
+     * 创建时间
+     */
+    @ApiModelProperty(value = "创建时间")
+    private LocalDateTime createTime;
+
+    /**
+     * 删除时间，仅回收站列表返回
+     */
+    @ApiModelProperty(value = "删除时间，仅回收站列表返回")
+    private LocalDateTime deleteTime;
+}
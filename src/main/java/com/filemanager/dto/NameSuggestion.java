@@ -0,0 +1,39 @@
+package com.filemanager.dto;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 名称联想结果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ApiModel(value = "名称联想结果", description = "按前缀联想的文件或文件夹名称")
+public class NameSuggestion implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 文件或文件夹ID
+     */
+    @ApiModelProperty(value = "文件或文件夹ID", example = "1")
+    private Long id;
+
+    /**
+     * 名称
+     */
+    @ApiModelProperty(value = "名称", example = "年度报告.pdf")
+    private String name;
+
+    /**
+     * 类型：1-文件，2-文件夹
+     */
+    @ApiModelProperty(value = "类型", example = "1", notes = "1-文件，2-文件夹")
+    private Integer type;
+}
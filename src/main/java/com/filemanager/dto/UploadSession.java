@@ -0,0 +1,73 @@
+package com.filemanager.dto;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 分片上传会话
+ */
+@Data
+@ApiModel(value = "分片上传会话", description = "分片上传会话信息及已接收的分片")
+public class UploadSession implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 会话ID
+     */
+    @ApiModelProperty(value = "会话ID", example = "3f2a9c1e0b8d4e6f9a7c5b3d1e0f2a4c")
+    private String sessionId;
+
+    /**
+     * 文件原始名称
+     */
+    @ApiModelProperty(value = "文件原始名称", example = "安装包.iso")
+    private String fileName;
+
+    /**
+     * 文件大小(字节)
+     */
+    @ApiModelProperty(value = "文件大小(字节)", example = "4294967296")
+    private Long fileSize;
+
+    /**
+     * 分片大小(字节)，最后一个分片可能更小
+     */
+    @ApiModelProperty(value = "分片大小(字节)", example = "8388608")
+    private Integer chunkSize;
+
+    /**
+     * 分片总数
+     */
+    @ApiModelProperty(value = "分片总数", example = "512")
+    private Integer totalChunks;
+
+    /**
+     * 已接收的分片序号
+     */
+    @ApiModelProperty(value = "已接收的分片序号")
+    private List<Integer> uploadedChunks;
+
+    /**
+     * 目标文件夹ID
+     */
+    @ApiModelProperty(value = "目标文件夹ID", example = "0")
+    private Long folderId;
+
+    /**
+     * 创建用户ID
+     */
+    @ApiModelProperty(value = "创建用户ID", example = "1")
+    private Long userId;
+
+    /**
+     * 创建时间
+     */
+    @ApiModelProperty(value = "创建时间")
+    private LocalDateTime createTime;
+}
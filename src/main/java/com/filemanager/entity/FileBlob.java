@@ -0,0 +1,72 @@
+package com.filemanager.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 文件内容实体类
+ * 按内容摘要寻址的物理文件，多个文件记录可共享同一份内容
+ */
+@Data
+@TableName("sys_file_blob")
+@ApiModel(value = "文件内容信息", description = "按内容摘要存储的物理文件及其引用计数")
+public class FileBlob implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 内容ID
+     */
+    @TableId(type = IdType.AUTO)
+    @ApiModelProperty(value = "内容ID", example = "1")
+    private Long id;
+
+    /**
+     * 文件MD5值
+     */
+    @ApiModelProperty(value = "文件MD5值", example = "d41d8cd98f00b204e9800998ecf8427e")
+    private String fileMd5;
+
+    /**
+     * 文件大小(字节)
+     */
+    @ApiModelProperty(value = "文件大小(字节)", example = "1024000")
+    private Long fileSize;
+
+    /**
+     * 物理存储路径
+     */
+    @ApiModelProperty(value = "物理存储路径", example = "blobs/d4/1d/d41d8cd98f00b204e9800998ecf8427e-1a2b3c4d")
+    private String blobPath;
+
+    /**
+     * 存储类型（0-本地存储，1-阿里云OSS，2-腾讯云COS，3-七牛云，4-MinIO）
+     */
+    @ApiModelProperty(value = "存储类型", example = "0", notes = "0-本地存储，1-阿里云OSS，2-腾讯云COS，3-七牛云，4-MinIO")
+    private Integer storageType;
+
+    /**
+     * 引用计数（引用该内容的文件记录数）
+     */
+    @ApiModelProperty(value = "引用计数", example = "1")
+    private Integer refCount;
+
+    /**
+     * 创建时间
+     */
+    @ApiModelProperty(value = "创建时间")
+    private LocalDateTime createTime;
+
+    /**
+     * 更新时间
+     */
+    @ApiModelProperty(value = "更新时间")
+    private LocalDateTime updateTime;
+}
@@ -17,7 +17,7 @@ import java.time.LocalDateTime;
  * @author filemanager
  */
 @Data
-@TableName("file_share")
+@TableName("sys_file_share")
 @ApiModel(value = "文件分享实体", description = "文件分享信息")
 public class FileShare implements Serializable {
 
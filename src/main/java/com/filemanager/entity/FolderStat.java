@@ -0,0 +1,60 @@
+package com.filemanager.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 文件夹统计实体类
+ * 文件夹直接包含及子树中全部正常文件的大小和数量，随文件变更增量维护
+ */
+@Data
+@TableName("sys_folder_stat")
+@ApiModel(value = "文件夹统计信息", description = "文件夹的文件大小和数量汇总")
+public class FolderStat implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 文件夹ID
+     */
+    @TableId(type = IdType.INPUT)
+    @ApiModelProperty(value = "文件夹ID", example = "1")
+    private Long folderId;
+
+    /**
+     * 直接包含的文件大小（字节）
+     */
+    @ApiModelProperty(value = "直接包含的文件大小（字节）", example = "1024000")
+    private Long directBytes;
+
+    /**
+     * 直接包含的文件数
+     */
+    @ApiModelProperty(value = "直接包含的文件数", example = "10")
+    private Long directFiles;
+
+    /**
+     * 子树中（包含自身）的文件大小（字节）
+     */
+    @ApiModelProperty(value = "子树中的文件大小（字节）", example = "10240000")
+    private Long totalBytes;
+
+    /**
+     * 子树中（包含自身）的文件数
+     */
+    @ApiModelProperty(value = "子树中的文件数", example = "100")
+    private Long totalFiles;
+
+    /**
+     * 更新时间
+     */
+    @ApiModelProperty(value = "更新时间")
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,78 @@
+package com.filemanager.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 分片上传会话实体类
+ * 会话元数据持久化保存，服务重启后可继续上传；已接收的分片记录在sys_upload_chunk中
+ */
+@Data
+@TableName("sys_upload_session")
+@ApiModel(value = "分片上传会话记录", description = "分片上传会话的持久化元数据")
+public class UploadSessionRecord implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 会话ID
+     */
+    @TableId(type = IdType.INPUT)
+    @ApiModelProperty(value = "会话ID", example = "3f2a9c1e0b8d4e6f9a7c5b3d1e0f2a4c")
+    private String id;
+
+    /**
+     * 文件原始名称
+     */
+    @ApiModelProperty(value = "文件原始名称", example = "安装包.iso")
+    private String fileName;
+
+    /**
+     * 文件大小(字节)
+     */
+    @ApiModelProperty(value = "文件大小(字节)", example = "4294967296")
+    private Long fileSize;
+
+    /**
+     * 分片大小(字节)
+     */
+    @ApiModelProperty(value = "分片大小(字节)", example = "8388608")
+    private Integer chunkSize;
+
+    /**
+     * 分片总数
+     */
+    @ApiModelProperty(value = "分片总数", example = "512")
+    private Integer totalChunks;
+
+    /**
+     * 目标文件夹ID
+     */
+    @ApiModelProperty(value = "目标文件夹ID", example = "0")
+    private Long folderId;
+
+    /**
+     * 创建用户ID
+     */
+    @ApiModelProperty(value = "创建用户ID", example = "1")
+    private Long userId;
+
+    /**
+     * 创建时间
+     */
+    @ApiModelProperty(value = "创建时间")
+    private LocalDateTime createTime;
+
+    /**
+     * 最后活动时间，每次接收分片时更新，过期按该时间计算
+     */
+    @ApiModelProperty(value = "最后活动时间")
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,65 @@
+package com.filemanager.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.filemanager.entity.FileBlob;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+/**
+ * 文件内容Mapper接口
+ */
+@Mapper
+public interface FileBlobMapper extends BaseMapper<FileBlob> {
+
+    /**
+     * 根据MD5查询文件内容
+     *
+     * @param fileMd5 文件MD5值
+     * @return 文件内容
+     */
+    @Select("SELECT * FROM sys_file_blob WHERE file_md5 = #{fileMd5}")
+    FileBlob selectByMd5(@Param("fileMd5") String fileMd5);
+
+    /**
+     * 增加引用计数，引用计数已归零（等待回收）的内容不会被重新引用
+     *
+     * @param fileMd5 文件MD5值
+     * @param count   增加的数量
+     * @return 影响行数
+     */
+    @Update("UPDATE sys_file_blob SET ref_count = ref_count + #{count}, update_time = NOW() "
+            + "WHERE file_md5 = #{fileMd5} AND ref_count > 0")
+    int incrementRefCount(@Param("fileMd5") String fileMd5, @Param("count") int count);
+
+    /**
+     * 减少引用计数
+     *
+     * @param fileMd5 文件MD5值
+     * @return 影响行数
+     */
+    @Update("UPDATE sys_file_blob SET ref_count = ref_count - 1, update_time = NOW() "
+            + "WHERE file_md5 = #{fileMd5} AND ref_count > 0")
+    int decrementRefCount(@Param("fileMd5") String fileMd5);
+
+    /**
+     * 删除引用计数为0的内容记录
+     *
+     * @param fileMd5 文件MD5值
+     * @return 影响行数
+     */
+    @Delete("DELETE FROM sys_file_blob WHERE file_md5 = #{fileMd5} AND ref_count = 0")
+    int deleteUnreferenced(@Param("fileMd5") String fileMd5);
+
+    /**
+     * 修改内容的物理路径，用于存储迁移
+     *
+     * @param oldPath 原路径
+     * @param newPath 新路径
+     * @return 影响行数
+     */
+    @Update("UPDATE sys_file_blob SET blob_path = #{newPath}, update_time = NOW() WHERE blob_path = #{oldPath}")
+    int updateBlobPath(@Param("oldPath") String oldPath, @Param("newPath") String newPath);
+}
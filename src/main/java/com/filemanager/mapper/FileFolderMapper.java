@@ -0,0 +1,128 @@
+package com.filemanager.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.filemanager.entity.FileFolder;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+
+/**
+ * 文件夹Mapper接口
+ */
+@Mapper
+public interface FileFolderMapper extends BaseMapper<FileFolder> {
+
+    /**
+     * 判断用户是否可以向文件夹中放入文件（自己的文件夹或公共文件夹）
+     *
+     * @param folderId 文件夹ID
+     * @param userId   用户ID
+     * @return 满足条件的文件夹数量
+     */
+    @Select("SELECT COUNT(*) FROM sys_folder WHERE id = #{folderId} AND status = 1 "
+            + "AND (create_user_id = #{userId} OR belong_type = 2)")
+    int countWritableFolder(@Param("folderId") Long folderId, @Param("userId") Long userId);
+
+    /**
+     * 查询用户的全部正常文件夹名称，用于构建名称联想前缀树
+     *
+     * @param userId 用户ID
+     * @return 文件夹列表（仅包含id、create_user_id、folder_name、create_time）
+     */
+    @Select("SELECT id, create_user_id, folder_name, create_time FROM sys_folder "
+            + "WHERE create_user_id = #{userId} AND status = 1")
+    List<FileFolder> selectSuggestFolders(@Param("userId") Long userId);
+
+    /**
+     * 查询正常状态的文件夹
+     * 状态字段同时被标记为逻辑删除字段，不使用BaseMapper.selectById
+     *
+     * @param folderId 文件夹ID
+     * @return 文件夹，不存在或已删除时返回null
+     */
+    @Select("SELECT * FROM sys_folder WHERE id = #{folderId} AND status = 1")
+    FileFolder selectNormalFolder(@Param("folderId") Long folderId);
+
+    /**
+     * 锁定文件夹行，移动文件夹时按主键顺序锁定源和目标，避免并发移动形成环
+     *
+     * @param ids 文件夹ID列表
+     * @return 锁定的文件夹ID列表
+     */
+    @Select("<script>"
+            + "SELECT id FROM sys_folder WHERE id IN "
+            + "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach> "
+            + "ORDER BY id FOR UPDATE"
+            + "</script>")
+    List<Long> selectIdsForUpdate(@Param("ids") List<Long> ids);
+
+    /**
+     * 修改文件夹的父级
+     *
+     * @param folderId 文件夹ID
+     * @param parentId 新父文件夹ID
+     * @param userId   操作用户ID
+     * @return 影响行数
+     */
+    @Update("UPDATE sys_folder SET parent_id = #{parentId}, update_user_id = #{userId}, update_time = NOW() "
+            + "WHERE id = #{folderId}")
+    int updateParent(@Param("folderId") Long folderId, @Param("parentId") Long parentId, @Param("userId") Long userId);
+
+    /**
+     * 替换整棵子树（包含自身）文件夹路径的前缀，子树中各路径都以根文件夹的原路径开头
+     *
+     * @param folderId  子树根文件夹ID
+     * @param oldPrefix 根文件夹原路径
+     * @param newPrefix 根文件夹新路径
+     * @return 影响行数
+     */
+    @Update("UPDATE sys_folder f JOIN sys_folder_closure c ON c.descendant_id = f.id "
+            + "SET f.folder_path = CONCAT(#{newPrefix}, SUBSTRING(f.folder_path, CHAR_LENGTH(#{oldPrefix}) + 1)) "
+            + "WHERE c.ancestor_id = #{folderId}")
+    int updateSubtreePath(@Param("folderId") Long folderId, @Param("oldPrefix") String oldPrefix,
+                          @Param("newPrefix") String newPrefix);
+
+    /**
+     * 将整棵子树（包含自身）中的正常文件夹标记为已删除
+     *
+     * @param folderId 子树根文件夹ID
+     * @param userId   操作用户ID
+     * @return 影响行数
+     */
+    @Update("UPDATE sys_folder f JOIN sys_folder_closure c ON c.descendant_id = f.id "
+            + "SET f.status = 0, f.delete_time = NOW(), f.update_user_id = #{userId} "
+            + "WHERE c.ancestor_id = #{folderId} AND f.status = 1")
+    int deleteSubtree(@Param("folderId") Long folderId, @Param("userId") Long userId);
+
+    /**
+     * 查询文件夹子树（包含自身）中的正常文件夹，父级在前
+     *
+     * @param folderId 子树根文件夹ID
+     * @return 文件夹列表（仅包含id、parent_id、folder_name）
+     */
+    @Select("SELECT f.id, f.parent_id, f.folder_name FROM sys_folder_closure c "
+            + "JOIN sys_folder f ON f.id = c.descendant_id AND f.status = 1 "
+            + "WHERE c.ancestor_id = #{folderId} ORDER BY c.depth")
+    List<FileFolder> selectSubtreeFolders(@Param("folderId") Long folderId);
+
+    /**
+     * 查询全部文件夹的父级关系，用于重建闭包表
+     *
+     * @return 文件夹列表（仅包含id、parent_id）
+     */
+    @Select("SELECT id, parent_id FROM sys_folder")
+    List<FileFolder> selectAllParentLinks();
+
+    /**
+     * 按ID游标分批查询正常文件夹ID
+     *
+     * @param lastId 上一批最后一个ID
+     * @param limit  每批数量
+     * @return 文件夹ID列表，按ID升序
+     */
+    @Select("SELECT id FROM sys_folder WHERE id > #{lastId} AND status = 1 ORDER BY id LIMIT #{limit}")
+    List<Long> selectNormalIdBatch(@Param("lastId") Long lastId, @Param("limit") int limit);
+}
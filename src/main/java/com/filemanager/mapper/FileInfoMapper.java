@@ -3,10 +3,19 @@ package com.filemanager.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.filemanager.dto.FileCursorQuery;
+import com.filemanager.dto.FileListItem;
 import com.filemanager.entity.FileInfo;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -74,4 +83,362 @@ public interface FileInfoMapper extends BaseMapper<FileInfo> {
      * @return 已使用的存储空间大小（字节）
      */
     Long selectUserStorageUsed(@Param("userId") Long userId);
-}
\ No newline at end of file
+
+    /**
+     * 按ID顺序批量查询文件路径，包含回收站中的文件，用于存储迁移
+     *
+     * @param lastId 上一批的最大ID
+     * @param limit  每批数量
+     * @return 文件列表（仅包含id、file_name、file_path、storage_type）
+     */
+    @Select("SELECT id, file_name, file_path, storage_type FROM sys_file_info "
+            + "WHERE id > #{lastId} ORDER BY id LIMIT #{limit}")
+    List<FileInfo> selectFilePathBatch(@Param("lastId") Long lastId, @Param("limit") int limit);
+
+    /**
+     * 将引用某个物理路径的所有文件记录改为新路径
+     *
+     * @param oldPath 原路径
+     * @param newPath 新路径
+     * @param fileUrl 新访问URL
+     * @return 影响行数
+     */
+    @Update("UPDATE sys_file_info SET file_path = #{newPath}, file_url = #{fileUrl} WHERE file_path = #{oldPath}")
+    int updateFilePath(@Param("oldPath") String oldPath, @Param("newPath") String newPath, @Param("fileUrl") String fileUrl);
+
+    /**
+     * 统计引用某个物理路径的正常和回收站中的文件记录数
+     * 指定MD5时同时按MD5过滤以使用idx_file_md5索引（共享同一物理文件的记录MD5相同）
+     *
+     * @param fileMd5  文件MD5值，可为null
+     * @param filePath 物理路径
+     * @return 文件记录数
+     */
+    @Select("<script>"
+            + "SELECT COUNT(*) FROM sys_file_info WHERE file_path = #{filePath} AND status IN (1, 2) "
+            + "<if test='fileMd5 != null and fileMd5 != \"\"'>AND file_md5 = #{fileMd5} </if>"
+            + "</script>")
+    int countByFilePath(@Param("fileMd5") String fileMd5, @Param("filePath") String filePath);
+
+    /**
+     * 批量插入文件记录（单条多行INSERT），自增ID回填到列表中的对象
+     * 调用方需控制每批数量，避免超过max_allowed_packet
+     *
+     * @param list 文件信息列表
+     * @return 插入行数
+     */
+    @Insert("<script>"
+            + "INSERT INTO sys_file_info (file_name, original_name, file_path, file_url, file_ext, file_size, file_type, "
+            + "mime_type, storage_type, folder_id, create_user_id, update_user_id, belong_type, dept_id, file_md5, status, "
+            + "is_favorite, is_shared, is_public, download_count, preview_count, remark, delete_time, create_time, update_time) "
+            + "VALUES "
+            + "<foreach collection='list' item='item' separator=','>"
+            + "(#{item.fileName}, #{item.originalName}, #{item.filePath}, #{item.fileUrl}, #{item.fileExt}, #{item.fileSize}, "
+            + "#{item.fileType}, #{item.mimeType}, #{item.storageType}, #{item.folderId}, #{item.createUserId}, "
+            + "#{item.updateUserId}, #{item.belongType}, #{item.deptId}, #{item.fileMd5}, #{item.status}, "
+            + "#{item.isFavorite}, #{item.isShared}, #{item.isPublic}, #{item.downloadCount}, #{item.previewCount}, "
+            + "#{item.remark}, #{item.deleteTime}, #{item.createTime}, #{item.updateTime})"
+            + "</foreach>"
+            + "</script>")
+    @Options(useGeneratedKeys = true, keyProperty = "list.id", keyColumn = "id")
+    int insertBatch(@Param("list") List<FileInfo> list);
+
+    /**
+     * 查询属于用户且处于指定状态的文件（仅包含释放存储和更新文件夹统计所需的字段），并锁定这些记录
+     *
+     * @param ids      文件ID列表
+     * @param userId   用户ID
+     * @param statuses 允许的文件状态
+     * @return 文件列表
+     */
+    @Select("<script>"
+            + "SELECT id, folder_id, status, file_path, file_size, file_md5, storage_type FROM sys_file_info "
+            + "WHERE create_user_id = #{userId} "
+            + "AND status IN <foreach collection='statuses' item='status' open='(' separator=',' close=')'>#{status}</foreach> "
+            + "AND id IN <foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach> "
+            + "FOR UPDATE"
+            + "</script>")
+    List<FileInfo> selectOwnedFilesForUpdate(@Param("ids") List<Long> ids, @Param("userId") Long userId,
+                                             @Param("statuses") List<Integer> statuses);
+
+    /**
+     * 批量修改文件状态
+     *
+     * @param ids        文件ID列表
+     * @param userId     用户ID
+     * @param fromStatus 原状态
+     * @param toStatus   新状态
+     * @param deleteTime 删除时间，恢复时为null
+     * @return 影响行数
+     */
+    @Update("<script>"
+            + "UPDATE sys_file_info SET status = #{toStatus}, delete_time = #{deleteTime}, "
+            + "update_user_id = #{userId}, update_time = NOW() "
+            + "WHERE create_user_id = #{userId} AND status = #{fromStatus} "
+            + "AND id IN <foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>"
+            + "</script>")
+    int updateStatusByIds(@Param("ids") List<Long> ids, @Param("userId") Long userId,
+                          @Param("fromStatus") Integer fromStatus, @Param("toStatus") Integer toStatus,
+                          @Param("deleteTime") LocalDateTime deleteTime);
+
+    /**
+     * 批量修改文件所属文件夹
+     *
+     * @param ids      文件ID列表
+     * @param userId   用户ID
+     * @param folderId 目标文件夹ID
+     * @param status   文件状态，只移动处于该状态的文件
+     * @return 影响行数
+     */
+    @Update("<script>"
+            + "UPDATE sys_file_info SET folder_id = #{folderId}, update_user_id = #{userId}, update_time = NOW() "
+            + "WHERE create_user_id = #{userId} AND status = #{status} "
+            + "AND id IN <foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>"
+            + "</script>")
+    int updateFolderByIds(@Param("ids") List<Long> ids, @Param("userId") Long userId,
+                          @Param("folderId") Long folderId, @Param("status") Integer status);
+
+    /**
+     * 批量物理删除文件记录
+     *
+     * @param ids    文件ID列表
+     * @param userId 用户ID
+     * @return 影响行数
+     */
+    @Delete("<script>"
+            + "DELETE FROM sys_file_info WHERE create_user_id = #{userId} "
+            + "AND id IN <foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>"
+            + "</script>")
+    int deleteOwnedByIds(@Param("ids") List<Long> ids, @Param("userId") Long userId);
+
+    /**
+     * 按(排序字段, id)定位的游标分页查询
+     * sortColumn、direction只能由服务层从白名单中取值，不能直接来自请求参数。
+     * 排序字段为NULL的记录按MySQL的规则排在升序的最前、降序的最后，游标条件与之一致
+     *
+     * @param query       查询条件
+     * @param status      文件状态
+     * @param sortColumn  排序列名
+     * @param direction   排序方向（ASC/DESC）
+     * @param cursorValue 游标位置的排序字段值，首页或该值为NULL时为null
+     * @param cursorId    游标位置的文件ID，首页为null
+     * @param limit       查询数量
+     * @return 文件列表
+     */
+    @Select("<script>"
+            + "SELECT * FROM sys_file_info "
+            + "WHERE create_user_id = #{query.userId} AND folder_id = #{query.folderId} AND status = #{status} "
+            + "<if test='query.fileType != null'>AND file_type = #{query.fileType} </if>"
+            + "<if test='query.fileName != null and query.fileName != \"\"'>"
+            + "AND original_name LIKE CONCAT('%', #{query.fileName}, '%') </if>"
+            + "<if test='cursorId != null'>"
+            + "<choose>"
+            + "<when test='cursorValue != null and direction == \"ASC\"'>"
+            + "AND (${sortColumn} &gt; #{cursorValue} OR (${sortColumn} = #{cursorValue} AND id &gt; #{cursorId})) "
+            + "</when>"
+            + "<when test='cursorValue != null'>"
+            + "AND (${sortColumn} &lt; #{cursorValue} OR (${sortColumn} = #{cursorValue} AND id &lt; #{cursorId}) "
+            + "OR ${sortColumn} IS NULL) "
+            + "</when>"
+            + "<when test='direction == \"ASC\"'>"
+            + "AND ((${sortColumn} IS NULL AND id &gt; #{cursorId}) OR ${sortColumn} IS NOT NULL) "
+            + "</when>"
+            + "<otherwise>"
+            + "AND ${sortColumn} IS NULL AND id &lt; #{cursorId} "
+            + "</otherwise>"
+            + "</choose>"
+            + "</if>"
+            + "ORDER BY ${sortColumn} ${direction}, id ${direction} "
+            + "LIMIT #{limit}"
+            + "</script>")
+    List<FileInfo> selectFileCursorPage(@Param("query") FileCursorQuery query, @Param("status") Integer status,
+                                        @Param("sortColumn") String sortColumn, @Param("direction") String direction,
+                                        @Param("cursorValue") Object cursorValue, @Param("cursorId") Long cursorId,
+                                        @Param("limit") int limit);
+
+    /**
+     * 统计游标分页查询条件下的文件总数
+     *
+     * @param query  查询条件
+     * @param status 文件状态
+     * @return 文件总数
+     */
+    @Select("<script>"
+            + "SELECT COUNT(*) FROM sys_file_info "
+            + "WHERE create_user_id = #{query.userId} AND folder_id = #{query.folderId} AND status = #{status} "
+            + "<if test='query.fileType != null'>AND file_type = #{query.fileType} </if>"
+            + "<if test='query.fileName != null and query.fileName != \"\"'>"
+            + "AND original_name LIKE CONCAT('%', #{query.fileName}, '%') </if>"
+            + "</script>")
+    long countFileCursorPage(@Param("query") FileCursorQuery query, @Param("status") Integer status);
+
+    /**
+     * 查询文件夹下的文件列表项，由idx_user_folder_status_time覆盖
+     *
+     * @param folderId 文件夹ID
+     * @param userId   用户ID
+     * @param status   文件状态
+     * @return 文件列表项
+     */
+    @Select("SELECT id, original_name, file_ext, file_size, file_type, folder_id, is_favorite, create_time "
+            + "FROM sys_file_info WHERE create_user_id = #{userId} AND folder_id = #{folderId} AND status = #{status} "
+            + "ORDER BY create_time DESC, id DESC")
+    List<FileListItem> selectFileListItemsByFolder(@Param("folderId") Long folderId, @Param("userId") Long userId,
+                                                   @Param("status") Integer status);
+
+    /**
+     * 查询收藏的文件列表项，由idx_user_favorite_status_time覆盖
+     *
+     * @param userId 用户ID
+     * @param status 文件状态
+     * @return 文件列表项
+     */
+    @Select("SELECT id, original_name, file_ext, file_size, file_type, folder_id, is_favorite, create_time "
+            + "FROM sys_file_info WHERE create_user_id = #{userId} AND is_favorite = 1 AND status = #{status} "
+            + "ORDER BY create_time DESC, id DESC")
+    List<FileListItem> selectFavoriteFileItems(@Param("userId") Long userId, @Param("status") Integer status);
+
+    /**
+     * 查询回收站的文件列表项，由idx_user_status_delete_time覆盖
+     *
+     * @param userId 用户ID
+     * @param status 回收站状态
+     * @return 文件列表项
+     */
+    @Select("SELECT id, original_name, file_ext, file_size, file_type, folder_id, delete_time "
+            + "FROM sys_file_info WHERE create_user_id = #{userId} AND status = #{status} "
+            + "ORDER BY delete_time DESC, id DESC")
+    List<FileListItem> selectTrashFileItems(@Param("userId") Long userId, @Param("status") Integer status);
+
+    /**
+     * 按ID顺序批量查询处于指定状态的文件名，用于重建文件名索引
+     *
+     * @param status 文件状态
+     * @param lastId 上一批的最大ID
+     * @param limit  每批数量
+     * @return 文件列表（仅包含id、create_user_id、original_name）
+     */
+    @Select("SELECT id, create_user_id, original_name FROM sys_file_info "
+            + "WHERE status = #{status} AND id > #{lastId} ORDER BY id LIMIT #{limit}")
+    List<FileInfo> selectFileNameBatch(@Param("status") Integer status, @Param("lastId") Long lastId,
+                                       @Param("limit") int limit);
+
+    /**
+     * 按ID查询属于用户且处于指定状态的文件
+     *
+     * @param ids    文件ID列表
+     * @param userId 用户ID
+     * @param status 文件状态
+     * @return 文件列表
+     */
+    @Select("<script>"
+            + "SELECT * FROM sys_file_info WHERE create_user_id = #{userId} AND status = #{status} "
+            + "AND id IN <foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>"
+            + "</script>")
+    List<FileInfo> selectOwnedFilesByIds(@Param("ids") Collection<Long> ids, @Param("userId") Long userId,
+                                         @Param("status") Integer status);
+
+    /**
+     * 查询用户处于指定状态的全部文件名，用于构建名称联想前缀树
+     *
+     * @param userId 用户ID
+     * @param status 文件状态
+     * @return 文件列表（仅包含id、create_user_id、original_name、download_count、create_time）
+     */
+    @Select("SELECT id, create_user_id, original_name, download_count, create_time FROM sys_file_info "
+            + "WHERE create_user_id = #{userId} AND status = #{status}")
+    List<FileInfo> selectSuggestFiles(@Param("userId") Long userId, @Param("status") Integer status);
+
+    /**
+     * 查询文件夹子树（包含自身）中指定用户处于指定状态的文件，并锁定这些记录，
+     * 与随后的updateSubtreeStatus修改的文件一致
+     *
+     * @param folderId 子树根文件夹ID
+     * @param userId   文件所属用户ID
+     * @param status   文件状态
+     * @return 文件列表（仅包含id、create_user_id、folder_id、file_size）
+     */
+    @Select("SELECT fi.id, fi.create_user_id, fi.folder_id, fi.file_size FROM sys_folder_closure c "
+            + "JOIN sys_file_info fi ON fi.folder_id = c.descendant_id AND fi.status = #{status} "
+            + "WHERE c.ancestor_id = #{folderId} AND fi.create_user_id = #{userId} FOR UPDATE")
+    List<FileInfo> selectSubtreeFiles(@Param("folderId") Long folderId, @Param("userId") Long userId,
+                                      @Param("status") Integer status);
+
+    /**
+     * 按ID游标分批查询文件夹子树（包含自身）中的正常文件，用于打包下载
+     * 指定用户时只包含该用户的文件和公开文件，与单个文件下载的权限一致
+     *
+     * @param folderId 子树根文件夹ID
+     * @param userId   下载用户ID，为null时不按文件过滤（如分享下载）
+     * @param lastId   上一批最后一个文件ID，首批传0
+     * @param limit    每批数量
+     * @return 文件列表（仅包含打包所需字段）
+     */
+    @Select("<script>"
+            + "SELECT fi.id, fi.folder_id, fi.original_name, fi.file_path, fi.file_size, fi.create_time, fi.update_time "
+            + "FROM sys_folder_closure c JOIN sys_file_info fi ON fi.folder_id = c.descendant_id AND fi.status = 1 "
+            + "WHERE c.ancestor_id = #{folderId} AND fi.id &gt; #{lastId} "
+            + "<if test='userId != null'>AND (fi.create_user_id = #{userId} OR fi.is_public = 1) </if>"
+            + "ORDER BY fi.id LIMIT #{limit}"
+            + "</script>")
+    List<FileInfo> selectSubtreeFileBatch(@Param("folderId") Long folderId, @Param("userId") Long userId,
+                                          @Param("lastId") long lastId, @Param("limit") int limit);
+
+    /**
+     * 查询一批正常文件，用于打包下载
+     *
+     * @param ids 文件ID列表
+     * @return 文件列表（仅包含打包和权限判断所需字段）
+     */
+    @Select("<script>"
+            + "SELECT id, folder_id, original_name, file_path, file_size, create_user_id, is_public, create_time, update_time "
+            + "FROM sys_file_info WHERE status = 1 AND id IN "
+            + "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach> "
+            + "ORDER BY id"
+            + "</script>")
+    List<FileInfo> selectNormalFilesByIds(@Param("ids") List<Long> ids);
+
+    /**
+     * 修改文件夹子树（包含自身）中指定用户文件的状态
+     *
+     * @param folderId   子树根文件夹ID
+     * @param userId     文件所属用户ID
+     * @param fromStatus 原状态
+     * @param toStatus   新状态
+     * @param deleteTime 删除时间
+     * @return 影响行数
+     */
+    @Update("UPDATE sys_file_info fi JOIN sys_folder_closure c ON c.descendant_id = fi.folder_id "
+            + "SET fi.status = #{toStatus}, fi.delete_time = #{deleteTime} "
+            + "WHERE c.ancestor_id = #{folderId} AND fi.create_user_id = #{userId} AND fi.status = #{fromStatus}")
+    int updateSubtreeStatus(@Param("folderId") Long folderId, @Param("userId") Long userId, @Param("fromStatus") Integer fromStatus,
+                            @Param("toStatus") Integer toStatus, @Param("deleteTime") LocalDateTime deleteTime);
+
+    /**
+     * 批量累加文件下载次数
+     *
+     * @param deltas 增量，每行依次为文件ID、下载次数增量
+     * @return 影响行数
+     */
+    @Update("<script>"
+            + "UPDATE sys_file_info SET download_count = download_count + CASE id "
+            + "<foreach collection='deltas' item='d'>WHEN #{d[0]} THEN #{d[1]} </foreach>"
+            + "ELSE 0 END WHERE id IN "
+            + "<foreach collection='deltas' item='d' open='(' separator=',' close=')'>#{d[0]}</foreach>"
+            + "</script>")
+    int addDownloadCountBatch(@Param("deltas") List<long[]> deltas);
+
+    /**
+     * 批量累加文件预览次数
+     *
+     * @param deltas 增量，每行依次为文件ID、预览次数增量
+     * @return 影响行数
+     */
+    @Update("<script>"
+            + "UPDATE sys_file_info SET preview_count = preview_count + CASE id "
+            + "<foreach collection='deltas' item='d'>WHEN #{d[0]} THEN #{d[1]} </foreach>"
+            + "ELSE 0 END WHERE id IN "
+            + "<foreach collection='deltas' item='d' open='(' separator=',' close=')'>#{d[0]}</foreach>"
+            + "</script>")
+    int addPreviewCountBatch(@Param("deltas") List<long[]> deltas);
+}
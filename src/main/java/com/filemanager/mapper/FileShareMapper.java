@@ -0,0 +1,67 @@
+package com.filemanager.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.filemanager.entity.FileShare;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 文件分享Mapper接口
+ */
+@Mapper
+public interface FileShareMapper extends BaseMapper<FileShare> {
+
+    /**
+     * 批量累加分享访问次数
+     *
+     * @param deltas 增量，每行依次为分享ID、访问次数增量
+     * @return 影响行数
+     */
+    @Update("<script>"
+            + "UPDATE sys_file_share SET access_count = access_count + CASE id "
+            + "<foreach collection='deltas' item='d'>WHEN #{d[0]} THEN #{d[1]} </foreach>"
+            + "ELSE 0 END WHERE id IN "
+            + "<foreach collection='deltas' item='d' open='(' separator=',' close=')'>#{d[0]}</foreach>"
+            + "</script>")
+    int addAccessCountBatch(@Param("deltas") List<long[]> deltas);
+
+    /**
+     * 按过期时间顺序分批查询指定时间前过期的有效分享（键集分页，使用idx_status_expire_time）
+     *
+     * @param before   过期时间上限（不含）
+     * @param lastTime 上一批最后一条的过期时间，首批为null
+     * @param lastId   上一批最后一条的ID，首批为null
+     * @param limit    每批数量
+     * @return 分享列表（仅包含id、share_url、expire_type、expire_time）
+     */
+    @Select("<script>"
+            + "SELECT id, share_url, expire_type, expire_time FROM sys_file_share "
+            + "WHERE status = 1 AND expire_type != 1 AND expire_time IS NOT NULL AND expire_time &lt; #{before} "
+            + "<if test='lastTime != null'>"
+            + "AND (expire_time &gt; #{lastTime} OR (expire_time = #{lastTime} AND id &gt; #{lastId})) "
+            + "</if>"
+            + "ORDER BY expire_time, id LIMIT #{limit}"
+            + "</script>")
+    List<FileShare> selectExpiringBatch(@Param("before") LocalDateTime before, @Param("lastTime") LocalDateTime lastTime,
+                                        @Param("lastId") Long lastId, @Param("limit") int limit);
+
+    /**
+     * 将一批已到过期时间的有效分享标记为已过期
+     * 再次检查状态和过期时间，已被取消或延期的分享不受影响
+     *
+     * @param ids 分享ID列表
+     * @param now 当前时间
+     * @return 影响行数
+     */
+    @Update("<script>"
+            + "UPDATE sys_file_share SET status = 3, update_time = #{now} "
+            + "WHERE status = 1 AND expire_type != 1 AND expire_time &lt;= #{now} AND id IN "
+            + "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>"
+            + "</script>")
+    int expireBatch(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
+}
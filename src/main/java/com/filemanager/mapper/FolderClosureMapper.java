@@ -0,0 +1,116 @@
+package com.filemanager.mapper;
+
+import com.filemanager.entity.FileFolder;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * 文件夹闭包表Mapper接口
+ * 闭包表中每个文件夹与其自身（depth=0）及每个祖先各有一行，
+ * 按ancestor_id查询得到整棵子树，按descendant_id查询得到祖先链
+ */
+@Mapper
+public interface FolderClosureMapper {
+
+    /**
+     * 为新文件夹写入闭包行：复制父文件夹的祖先链并加上自身
+     *
+     * @param folderId 新文件夹ID
+     * @param parentId 父文件夹ID，顶级文件夹为0
+     * @return 写入行数
+     */
+    @Insert("INSERT INTO sys_folder_closure (ancestor_id, descendant_id, depth) "
+            + "SELECT ancestor_id, #{folderId}, depth + 1 FROM sys_folder_closure WHERE descendant_id = #{parentId} "
+            + "UNION ALL SELECT #{folderId}, #{folderId}, 0")
+    int insertFolder(@Param("folderId") Long folderId, @Param("parentId") Long parentId);
+
+    /**
+     * 查询子树中的正常文件夹ID（包含自身）
+     *
+     * @param folderId 文件夹ID
+     * @return 文件夹ID列表，按层级由浅到深
+     */
+    @Select("SELECT c.descendant_id FROM sys_folder_closure c "
+            + "JOIN sys_folder f ON f.id = c.descendant_id AND f.status = 1 "
+            + "WHERE c.ancestor_id = #{folderId} ORDER BY c.depth")
+    List<Long> selectDescendantIds(@Param("folderId") Long folderId);
+
+    /**
+     * 查询祖先链（包含自身）
+     *
+     * @param folderId 文件夹ID
+     * @return 文件夹列表，从最顶层祖先到自身
+     */
+    @Select("SELECT f.* FROM sys_folder_closure c JOIN sys_folder f ON f.id = c.ancestor_id "
+            + "WHERE c.descendant_id = #{folderId} ORDER BY c.depth DESC")
+    List<FileFolder> selectAncestors(@Param("folderId") Long folderId);
+
+    /**
+     * 锁定并查询祖先链（包含自身）的闭包行，移动文件夹时锁定目标的整条祖先链，
+     * 祖先链被并发移动修改时等待其提交，读到的是最新的祖先链
+     *
+     * @param folderId 文件夹ID
+     * @return 祖先文件夹ID列表
+     */
+    @Select("SELECT ancestor_id FROM sys_folder_closure WHERE descendant_id = #{folderId} ORDER BY ancestor_id FOR UPDATE")
+    List<Long> selectAncestorIdsForUpdate(@Param("folderId") Long folderId);
+
+    /**
+     * 移动子树第一步：删除子树内各文件夹与子树外祖先之间的行，子树内部的行保持不变
+     *
+     * @param folderId 子树根文件夹ID
+     * @return 删除行数
+     */
+    @Delete("DELETE c FROM sys_folder_closure c "
+            + "JOIN sys_folder_closure sub ON sub.descendant_id = c.descendant_id AND sub.ancestor_id = #{folderId} "
+            + "LEFT JOIN sys_folder_closure kept ON kept.ancestor_id = #{folderId} "
+            + "AND kept.descendant_id = c.ancestor_id "
+            + "WHERE kept.ancestor_id IS NULL")
+    int detachSubtree(@Param("folderId") Long folderId);
+
+    /**
+     * 移动子树第二步：将新父文件夹的祖先链与子树中每个文件夹两两连接
+     *
+     * @param folderId 子树根文件夹ID
+     * @param parentId 新父文件夹ID
+     * @return 写入行数
+     */
+    @Insert("INSERT INTO sys_folder_closure (ancestor_id, descendant_id, depth) "
+            + "SELECT sup.ancestor_id, sub.descendant_id, sup.depth + sub.depth + 1 "
+            + "FROM sys_folder_closure sup JOIN sys_folder_closure sub "
+            + "ON sup.descendant_id = #{parentId} AND sub.ancestor_id = #{folderId}")
+    int attachSubtree(@Param("folderId") Long folderId, @Param("parentId") Long parentId);
+
+    /**
+     * 统计闭包表行数，用于判断是否需要初始化
+     *
+     * @return 行数
+     */
+    @Select("SELECT COUNT(*) FROM sys_folder_closure")
+    long countAll();
+
+    /**
+     * 清空闭包表（重建前）
+     *
+     * @return 删除行数
+     */
+    @Delete("DELETE FROM sys_folder_closure")
+    int deleteAll();
+
+    /**
+     * 批量写入闭包行
+     *
+     * @param rows 闭包行，每行依次为祖先ID、后代ID、层级距离
+     * @return 写入行数
+     */
+    @Insert("<script>"
+            + "INSERT INTO sys_folder_closure (ancestor_id, descendant_id, depth) VALUES "
+            + "<foreach collection='rows' item='row' separator=','>(#{row[0]}, #{row[1]}, #{row[2]})</foreach>"
+            + "</script>")
+    int insertBatch(@Param("rows") List<long[]> rows);
+}
@@ -0,0 +1,128 @@
+package com.filemanager.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.filemanager.entity.FolderStat;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * 文件夹统计Mapper接口
+ * 增量更新都按folder_id升序写入，并发事务以相同顺序加锁，避免死锁
+ */
+@Mapper
+public interface FolderStatMapper extends BaseMapper<FolderStat> {
+
+    /**
+     * 按文件夹累加文件变化量：文件夹自身累加直接和子树统计，其全部祖先只累加子树统计
+     *
+     * @param deltas 变化量，每行依次为文件夹ID、大小变化量、文件数变化量
+     * @return 影响行数
+     */
+    @Insert("<script>"
+            + "INSERT INTO sys_folder_stat (folder_id, direct_bytes, direct_files, total_bytes, total_files, update_time) "
+            + "SELECT c.ancestor_id, SUM(IF(c.depth = 0, d.bytes, 0)), SUM(IF(c.depth = 0, d.files, 0)), "
+            + "SUM(d.bytes), SUM(d.files), NOW() FROM ("
+            + "<foreach collection='deltas' item='d' separator=' UNION ALL '>"
+            + "SELECT #{d[0]} AS folder_id, #{d[1]} AS bytes, #{d[2]} AS files"
+            + "</foreach>"
+            + ") d JOIN sys_folder_closure c ON c.descendant_id = d.folder_id "
+            + "GROUP BY c.ancestor_id ORDER BY c.ancestor_id "
+            + "ON DUPLICATE KEY UPDATE direct_bytes = direct_bytes + VALUES(direct_bytes), "
+            + "direct_files = direct_files + VALUES(direct_files), total_bytes = total_bytes + VALUES(total_bytes), "
+            + "total_files = total_files + VALUES(total_files), update_time = VALUES(update_time)"
+            + "</script>")
+    int applyDeltas(@Param("deltas") List<long[]> deltas);
+
+    /**
+     * 累加文件夹及其全部祖先的子树统计（用于文件夹移动和删除），直接统计不变
+     *
+     * @param folderId 文件夹ID
+     * @param bytes    大小变化量
+     * @param files    文件数变化量
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO sys_folder_stat (folder_id, direct_bytes, direct_files, total_bytes, total_files, update_time) "
+            + "SELECT ancestor_id, 0, 0, #{bytes}, #{files}, NOW() FROM sys_folder_closure "
+            + "WHERE descendant_id = #{folderId} ORDER BY ancestor_id "
+            + "ON DUPLICATE KEY UPDATE total_bytes = total_bytes + VALUES(total_bytes), "
+            + "total_files = total_files + VALUES(total_files), update_time = VALUES(update_time)")
+    int applyTotalDelta(@Param("folderId") Long folderId, @Param("bytes") long bytes, @Param("files") long files);
+
+    /**
+     * 查询并锁定文件夹统计
+     *
+     * @param folderId 文件夹ID
+     * @return 文件夹统计，不存在时返回null
+     */
+    @Select("SELECT * FROM sys_folder_stat WHERE folder_id = #{folderId} FOR UPDATE")
+    FolderStat selectForUpdate(@Param("folderId") Long folderId);
+
+    /**
+     * 查询并锁定一批文件夹统计（校验时使用）
+     *
+     * @param folderIds 文件夹ID列表
+     * @return 文件夹统计列表
+     */
+    @Select("<script>"
+            + "SELECT * FROM sys_folder_stat WHERE folder_id IN "
+            + "<foreach collection='folderIds' item='id' open='(' separator=',' close=')'>#{id}</foreach> "
+            + "ORDER BY folder_id FOR UPDATE"
+            + "</script>")
+    List<FolderStat> selectBatchForUpdate(@Param("folderIds") List<Long> folderIds);
+
+    /**
+     * 删除整棵子树（包含自身）的统计
+     *
+     * @param folderId 子树根文件夹ID
+     * @return 删除行数
+     */
+    @Delete("DELETE s FROM sys_folder_stat s JOIN sys_folder_closure c ON c.descendant_id = s.folder_id "
+            + "WHERE c.ancestor_id = #{folderId}")
+    int deleteSubtree(@Param("folderId") Long folderId);
+
+    /**
+     * 按文件表实际统计一批文件夹直接包含的正常文件
+     *
+     * @param folderIds 文件夹ID列表
+     * @return 统计列表（仅包含folder_id、direct_bytes、direct_files），没有文件的文件夹不返回
+     */
+    @Select("<script>"
+            + "SELECT folder_id, COALESCE(SUM(file_size), 0) AS direct_bytes, COUNT(*) AS direct_files "
+            + "FROM sys_file_info WHERE status = 1 AND folder_id IN "
+            + "<foreach collection='folderIds' item='id' open='(' separator=',' close=')'>#{id}</foreach> "
+            + "GROUP BY folder_id"
+            + "</script>")
+    List<FolderStat> countDirect(@Param("folderIds") List<Long> folderIds);
+
+    /**
+     * 按文件表实际统计一批文件夹子树中的正常文件
+     *
+     * @param folderIds 文件夹ID列表
+     * @return 统计列表（仅包含folder_id、total_bytes、total_files），没有文件的文件夹不返回
+     */
+    @Select("<script>"
+            + "SELECT c.ancestor_id AS folder_id, COALESCE(SUM(fi.file_size), 0) AS total_bytes, COUNT(*) AS total_files "
+            + "FROM sys_folder_closure c JOIN sys_file_info fi ON fi.folder_id = c.descendant_id AND fi.status = 1 "
+            + "WHERE c.ancestor_id IN "
+            + "<foreach collection='folderIds' item='id' open='(' separator=',' close=')'>#{id}</foreach> "
+            + "GROUP BY c.ancestor_id"
+            + "</script>")
+    List<FolderStat> countTotal(@Param("folderIds") List<Long> folderIds);
+
+    /**
+     * 写入校验后的统计值
+     *
+     * @param stat 文件夹统计
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO sys_folder_stat (folder_id, direct_bytes, direct_files, total_bytes, total_files, update_time) "
+            + "VALUES (#{folderId}, #{directBytes}, #{directFiles}, #{totalBytes}, #{totalFiles}, NOW()) "
+            + "ON DUPLICATE KEY UPDATE direct_bytes = VALUES(direct_bytes), direct_files = VALUES(direct_files), "
+            + "total_bytes = VALUES(total_bytes), total_files = VALUES(total_files), update_time = VALUES(update_time)")
+    int upsert(FolderStat stat);
+}
@@ -0,0 +1,89 @@
+package com.filemanager.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.filemanager.entity.UploadSessionRecord;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 分片上传会话Mapper接口
+ * 每个分片单独一行，并发上传的分片各自插入，不需要读改写会话行
+ */
+@Mapper
+public interface UploadSessionMapper extends BaseMapper<UploadSessionRecord> {
+
+    /**
+     * 记录已接收的分片，重复上传同一分片时忽略
+     *
+     * @param sessionId  会话ID
+     * @param chunkIndex 分片序号
+     * @return 影响行数
+     */
+    @Insert("INSERT IGNORE INTO sys_upload_chunk (session_id, chunk_index) VALUES (#{sessionId}, #{chunkIndex})")
+    int insertChunk(@Param("sessionId") String sessionId, @Param("chunkIndex") int chunkIndex);
+
+    /**
+     * 查询已接收的分片序号
+     *
+     * @param sessionId 会话ID
+     * @return 分片序号列表，升序
+     */
+    @Select("SELECT chunk_index FROM sys_upload_chunk WHERE session_id = #{sessionId} ORDER BY chunk_index")
+    List<Integer> selectChunkIndexes(@Param("sessionId") String sessionId);
+
+    /**
+     * 统计已接收的分片数
+     *
+     * @param sessionId 会话ID
+     * @return 分片数
+     */
+    @Select("SELECT COUNT(*) FROM sys_upload_chunk WHERE session_id = #{sessionId}")
+    int countChunks(@Param("sessionId") String sessionId);
+
+    /**
+     * 更新会话的最后活动时间
+     *
+     * @param sessionId 会话ID
+     * @return 影响行数，会话不存在时为0
+     */
+    @Update("UPDATE sys_upload_session SET update_time = NOW() WHERE id = #{sessionId}")
+    int touch(@Param("sessionId") String sessionId);
+
+    /**
+     * 删除会话的分片记录
+     *
+     * @param sessionId 会话ID
+     * @return 删除行数
+     */
+    @Delete("DELETE FROM sys_upload_chunk WHERE session_id = #{sessionId}")
+    int deleteChunks(@Param("sessionId") String sessionId);
+
+    /**
+     * 查询最后活动时间早于指定时间的会话
+     *
+     * @param before 时间
+     * @param limit  数量
+     * @return 会话列表
+     */
+    @Select("SELECT * FROM sys_upload_session WHERE update_time < #{before} ORDER BY update_time LIMIT #{limit}")
+    List<UploadSessionRecord> selectInactive(@Param("before") LocalDateTime before, @Param("limit") int limit);
+
+    /**
+     * 查询一批会话ID中仍存在的会话
+     *
+     * @param ids 会话ID列表
+     * @return 存在的会话ID列表
+     */
+    @Select("<script>"
+            + "SELECT id FROM sys_upload_session WHERE id IN "
+            + "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>"
+            + "</script>")
+    List<String> selectExistingIds(@Param("ids") List<String> ids);
+}
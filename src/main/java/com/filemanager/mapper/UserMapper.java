@@ -0,0 +1,81 @@
+package com.filemanager.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.filemanager.entity.User;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 用户Mapper接口
+ */
+@Mapper
+public interface UserMapper extends BaseMapper<User> {
+
+    /**
+     * 查询用户的存储空间使用量和上限
+     *
+     * @param userId 用户ID
+     * @return 用户（仅包含id、storage_used、storage_limit），不存在时返回null
+     */
+    @Select("SELECT id, storage_used, storage_limit FROM sys_user WHERE id = #{userId}")
+    User selectStorage(@Param("userId") Long userId);
+
+    /**
+     * 批量查询用户的存储空间使用量和上限
+     *
+     * @param userIds 用户ID列表
+     * @return 用户列表（仅包含id、storage_used、storage_limit）
+     */
+    @Select("<script>"
+            + "SELECT id, storage_used, storage_limit FROM sys_user WHERE id IN "
+            + "<foreach collection='userIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>"
+            + "</script>")
+    List<User> selectStorageBatch(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * 批量累加用户的存储空间使用量，使用相对增量，不依赖读取的旧值
+     *
+     * @param deltas 变化量，每行依次为用户ID、使用量变化量（字节）
+     * @return 影响行数
+     */
+    @Update("<script>"
+            + "UPDATE sys_user SET storage_used = storage_used + CASE id "
+            + "<foreach collection='deltas' item='d'>WHEN #{d[0]} THEN #{d[1]} </foreach>"
+            + "ELSE 0 END, update_time = NOW() WHERE id IN "
+            + "<foreach collection='deltas' item='d' open='(' separator=',' close=')'>#{d[0]}</foreach>"
+            + "</script>")
+    int addStorageUsedBatch(@Param("deltas") List<long[]> deltas);
+
+    /**
+     * 按ID顺序分批查询用户ID
+     *
+     * @param lastId 上一批的最大ID，首批传0
+     * @param limit  每批数量
+     * @return 用户ID列表
+     */
+    @Select("SELECT id FROM sys_user WHERE id > #{lastId} ORDER BY id LIMIT #{limit}")
+    List<Long> selectIdBatch(@Param("lastId") long lastId, @Param("limit") int limit);
+
+    /**
+     * 按文件记录重新计算一批用户的存储空间使用量（正常和回收站中的文件），只更新不一致的用户
+     *
+     * @param userIds 用户ID列表
+     * @return 修正的用户数
+     */
+    @Update("<script>"
+            + "UPDATE sys_user u LEFT JOIN ("
+            + "SELECT create_user_id, SUM(file_size) AS used FROM sys_file_info WHERE status IN (1, 2) AND create_user_id IN "
+            + "<foreach collection='userIds' item='id' open='(' separator=',' close=')'>#{id}</foreach> "
+            + "GROUP BY create_user_id) f ON f.create_user_id = u.id "
+            + "SET u.storage_used = COALESCE(f.used, 0), u.update_time = NOW() "
+            + "WHERE u.id IN "
+            + "<foreach collection='userIds' item='id' open='(' separator=',' close=')'>#{id}</foreach> "
+            + "AND u.storage_used &lt;&gt; COALESCE(f.used, 0)"
+            + "</script>")
+    int reconcileStorageUsedBatch(@Param("userIds") List<Long> userIds);
+}
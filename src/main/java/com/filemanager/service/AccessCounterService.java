@@ -0,0 +1,34 @@
+package com.filemanager.service;
+
+/**
+ * 访问计数服务接口
+ * 下载、预览和分享访问计数先在内存中累计，定期以批量的相对增量写入数据库
+ */
+public interface AccessCounterService {
+
+    /**
+     * 文件下载次数加一
+     *
+     * @param fileId 文件ID
+     */
+    void incrementDownloadCount(Long fileId);
+
+    /**
+     * 文件预览次数加一
+     *
+     * @param fileId 文件ID
+     */
+    void incrementPreviewCount(Long fileId);
+
+    /**
+     * 分享访问次数加一
+     *
+     * @param shareId 分享ID
+     */
+    void incrementShareAccessCount(Long shareId);
+
+    /**
+     * 将累计的计数写入数据库
+     */
+    void flush();
+}
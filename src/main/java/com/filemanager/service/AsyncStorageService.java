@@ -0,0 +1,81 @@
+package com.filemanager.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+
+/**
+ * 异步存储服务接口
+ * 存储操作在有界的存储IO线程池中执行，调用方不需要在请求线程中等待IO完成
+ */
+public interface AsyncStorageService {
+
+    /**
+     * 异步删除文件
+     *
+     * @param path 文件路径
+     * @return 是否成功
+     */
+    CompletableFuture<Boolean> deleteFile(String path);
+
+    /**
+     * 异步复制文件
+     *
+     * @param sourcePath 源文件路径
+     * @param targetPath 目标文件路径
+     * @return 是否成功
+     */
+    CompletableFuture<Boolean> copyFile(String sourcePath, String targetPath);
+
+    /**
+     * 异步移动文件
+     *
+     * @param sourcePath 源文件路径
+     * @param targetPath 目标文件路径
+     * @return 是否成功
+     */
+    CompletableFuture<Boolean> moveFile(String sourcePath, String targetPath);
+
+    /**
+     * 异步判断文件是否存在
+     *
+     * @param path 文件路径
+     * @return 是否存在
+     */
+    CompletableFuture<Boolean> exists(String path);
+
+    /**
+     * 并发删除多个文件
+     *
+     * @param paths 文件路径列表
+     * @return 每个路径的删除结果
+     */
+    CompletableFuture<Map<String, Boolean>> batchDeleteFiles(List<String> paths);
+
+    /**
+     * 并发复制多个文件
+     *
+     * @param pathMapping 源文件路径到目标文件路径的映射
+     * @return 每个源路径的复制结果
+     */
+    CompletableFuture<Map<String, Boolean>> batchCopyFiles(Map<String, String> pathMapping);
+
+    /**
+     * 并发移动多个文件
+     *
+     * @param pathMapping 源文件路径到目标文件路径的映射
+     * @return 每个源路径的移动结果
+     */
+    CompletableFuture<Map<String, Boolean>> batchMoveFiles(Map<String, String> pathMapping);
+
+    /**
+     * 以配置的并发度对每个元素执行存储操作
+     *
+     * @param items 元素列表
+     * @param task  存储操作，返回是否成功
+     * @param <T>   元素类型
+     * @return 每个元素的执行结果
+     */
+    <T> CompletableFuture<Map<T, Boolean>> forEach(List<T> items, Predicate<T> task);
+}
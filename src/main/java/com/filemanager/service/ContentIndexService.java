@@ -0,0 +1,40 @@
+package com.filemanager.service;
+
+import com.filemanager.dto.ContentSearchHit;
+import com.filemanager.entity.FileInfo;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 文件内容索引服务接口
+ * 异步提取文档文本并写入本地Lucene索引，提供按内容的全文搜索
+ */
+public interface ContentIndexService {
+
+    /**
+     * 提交文件进行内容索引，不支持提取文本的文件被忽略
+     * 在事务中调用时于事务提交后提交；待索引队列已满时丢弃并记录日志
+     *
+     * @param files 文件列表，需包含id、createUserId、originalName、filePath
+     */
+    void submitFiles(Collection<FileInfo> files);
+
+    /**
+     * 从索引中移除文件（用于永久删除）
+     * 在事务中调用时于事务提交后生效
+     *
+     * @param fileIds 文件ID列表
+     */
+    void removeFiles(Collection<Long> fileIds);
+
+    /**
+     * 按内容搜索文件
+     *
+     * @param keyword 关键词
+     * @param userId  用户ID
+     * @param limit   最大结果数
+     * @return 搜索结果，按相关度排序
+     */
+    List<ContentSearchHit> search(String keyword, Long userId, Integer limit);
+}
@@ -0,0 +1,61 @@
+package com.filemanager.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 文件批量操作服务接口
+ * 每批文件以集合形式的SQL处理，而不是逐个调用单文件操作；
+ * 返回每个文件ID的处理结果，不属于当前用户或状态不符的文件结果为false
+ */
+public interface FileBatchOperationService {
+
+    /**
+     * 批量删除文件（移入回收站）
+     *
+     * @param fileIds 文件ID列表
+     * @param userId  用户ID
+     * @return 每个文件ID的处理结果
+     */
+    Map<Long, Boolean> batchDelete(List<Long> fileIds, Long userId);
+
+    /**
+     * 批量从回收站恢复文件
+     *
+     * @param fileIds 文件ID列表
+     * @param userId  用户ID
+     * @return 每个文件ID的处理结果
+     */
+    Map<Long, Boolean> batchRestore(List<Long> fileIds, Long userId);
+
+    /**
+     * 批量移动文件到指定文件夹（只修改元数据）
+     *
+     * @param fileIds        文件ID列表
+     * @param targetFolderId 目标文件夹ID
+     * @param userId         用户ID
+     * @return 每个文件ID的处理结果
+     */
+    Map<Long, Boolean> batchMove(List<Long> fileIds, Long targetFolderId, Long userId);
+
+    /**
+     * 批量复制文件到指定文件夹
+     * 新文件与源文件共享内容（引用计数加一），不复制物理文件；没有MD5的历史文件无法共享内容，结果为false
+     *
+     * @param fileIds        文件ID列表
+     * @param targetFolderId 目标文件夹ID
+     * @param userId         用户ID
+     * @return 每个文件ID的处理结果
+     */
+    Map<Long, Boolean> batchCopy(List<Long> fileIds, Long targetFolderId, Long userId);
+
+    /**
+     * 批量永久删除文件
+     * 记录在事务中删除，物理文件在事务提交后并发释放
+     *
+     * @param fileIds 文件ID列表
+     * @param userId  用户ID
+     * @return 每个文件ID的处理结果
+     */
+    Map<Long, Boolean> batchPermanentDelete(List<Long> fileIds, Long userId);
+}
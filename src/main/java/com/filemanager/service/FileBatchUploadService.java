@@ -0,0 +1,25 @@
+package com.filemanager.service;
+
+import com.filemanager.dto.BatchUploadResult;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+
+/**
+ * 批量上传服务接口
+ */
+public interface FileBatchUploadService {
+
+    /**
+     * 批量上传文件
+     * 各文件并发计算MD5并写入存储，全部完成后一次批量插入文件记录；
+     * 单个文件失败只记录在结果中，不影响其他文件
+     *
+     * @param files    文件列表
+     * @param folderId 文件夹ID
+     * @param userId   用户ID
+     * @return 上传结果
+     * @throws IllegalArgumentException 目标文件夹不存在或无权限
+     */
+    BatchUploadResult batchUpload(List<MultipartFile> files, Long folderId, Long userId);
+}
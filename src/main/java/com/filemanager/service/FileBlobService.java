@@ -0,0 +1,41 @@
+package com.filemanager.service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.filemanager.entity.FileBlob;
+import com.filemanager.entity.FileInfo;
+
+import java.io.InputStream;
+
+/**
+ * 文件内容服务接口
+ * 物理文件按MD5去重存储并维护引用计数：复制、秒传、保存分享只增加文件记录和引用计数，
+ * 永久删除时减少引用计数，计数归零后才回收物理文件
+ */
+public interface FileBlobService extends IService<FileBlob> {
+
+    /**
+     * 存储文件内容，内容已存在时只增加引用计数
+     *
+     * @param inputStream 输入流
+     * @return 文件内容（已为调用方计入一次引用）
+     */
+    FileBlob storeBlob(InputStream inputStream);
+
+    /**
+     * 为已有的文件创建一条共享同一内容的文件记录，不复制物理文件
+     *
+     * @param source   源文件
+     * @param folderId 目标文件夹ID
+     * @param userId   用户ID
+     * @return 新文件信息；源文件没有MD5无法去重时返回null，调用方需退回物理复制
+     */
+    FileInfo createReference(FileInfo source, Long folderId, Long userId);
+
+    /**
+     * 释放文件记录对内容的引用，引用计数归零时删除物理文件
+     *
+     * @param fileInfo 被永久删除的文件
+     * @return 是否成功
+     */
+    boolean release(FileInfo fileInfo);
+}
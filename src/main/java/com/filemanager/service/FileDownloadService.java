@@ -0,0 +1,34 @@
+package com.filemanager.service;
+
+import com.filemanager.entity.FileInfo;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 文件下载服务接口
+ * 支持Range/If-Range请求，按需返回206部分内容或multipart/byteranges
+ */
+public interface FileDownloadService {
+
+    /**
+     * 以附件形式将文件内容流式写入响应
+     *
+     * @param fileInfo 文件信息
+     * @param request  HTTP请求对象
+     * @param response HTTP响应对象
+     * @throws IOException IO异常
+     */
+    void download(FileInfo fileInfo, HttpServletRequest request, HttpServletResponse response) throws IOException;
+
+    /**
+     * 以内联形式将文件内容流式写入响应，用于在线预览
+     *
+     * @param fileInfo 文件信息
+     * @param request  HTTP请求对象
+     * @param response HTTP响应对象
+     * @throws IOException IO异常
+     */
+    void preview(FileInfo fileInfo, HttpServletRequest request, HttpServletResponse response) throws IOException;
+}
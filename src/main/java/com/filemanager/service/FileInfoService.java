@@ -12,6 +12,7 @@ import java.util.Map;
 
 /**
  * 文件信息服务接口
+ * 文件名索引、名称联想和内容索引由调用方（FileController）在写入成功后维护
  */
 public interface FileInfoService extends IService<FileInfo> {
 
@@ -27,6 +28,7 @@ public interface FileInfoService extends IService<FileInfo> {
 
     /**
      * 批量上传文件
+     * 需要并发写入和逐个文件报告错误时使用FileBatchUploadService
      *
      * @param files    文件列表
      * @param folderId 文件夹ID
@@ -64,6 +66,7 @@ public interface FileInfoService extends IService<FileInfo> {
 
     /**
      * 批量删除文件
+     * 需要逐个文件的处理结果时使用FileBatchOperationService
      *
      * @param fileIds 文件ID列表
      * @param userId  用户ID
@@ -82,6 +85,7 @@ public interface FileInfoService extends IService<FileInfo> {
 
     /**
      * 批量恢复文件
+     * 需要逐个文件的处理结果时使用FileBatchOperationService
      *
      * @param fileIds 文件ID列表
      * @param userId  用户ID
@@ -100,6 +104,7 @@ public interface FileInfoService extends IService<FileInfo> {
 
     /**
      * 批量永久删除文件
+     * 需要逐个文件的处理结果时使用FileBatchOperationService
      *
      * @param fileIds 文件ID列表
      * @param userId  用户ID
@@ -119,6 +124,9 @@ public interface FileInfoService extends IService<FileInfo> {
 
     /**
      * 批量移动文件
+     * 文件夹只是元数据，移动只修改folderId，不移动物理文件；
+     * 需要调整物理位置时应使用StorageService.moveFile的重命名语义，而不是复制后删除
+     * 需要逐个文件的处理结果时使用FileBatchOperationService
      *
      * @param fileIds       文件ID列表
      * @param targetFolderId 目标文件夹ID
@@ -129,6 +137,7 @@ public interface FileInfoService extends IService<FileInfo> {
 
     /**
      * 复制文件
+     * 应通过FileBlobService.createReference共享源文件的内容，源文件没有MD5时才复制物理文件
      *
      * @param fileId        文件ID
      * @param targetFolderId 目标文件夹ID
@@ -139,6 +148,7 @@ public interface FileInfoService extends IService<FileInfo> {
 
     /**
      * 批量复制文件
+     * 批量复制应使用FileBatchOperationService.batchCopy
      *
      * @param fileIds       文件ID列表
      * @param targetFolderId 目标文件夹ID
@@ -238,21 +248,12 @@ public interface FileInfoService extends IService<FileInfo> {
     FileInfo rapidUpload(String fileMd5, String fileName, Long folderId, Long userId);
 
     /**
-     * 搜索文件
+     * 搜索文件（数据库模糊查询）
+     * 每次查询都会扫描全表；接口搜索经由FileNameIndexService，索引未开启时同样使用该查询
      *
      * @param keyword 关键词
      * @param userId  用户ID
      * @return 文件列表
      */
     List<FileInfo> searchFiles(String keyword, Long userId);
-    
-    /**
-     * 更新用户存储空间使用量
-     *
-     * @param userId   用户ID
-     * @param fileSize 文件大小（字节）
-     * @param isAdd    是否增加（true-增加，false-减少）
-     * @return 是否成功
-     */
-    boolean updateUserStorageUsed(Long userId, Long fileSize, boolean isAdd);
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.filemanager.service;
+
+import com.filemanager.entity.FileInfo;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 文件名索引服务接口
+ * 在内存中按用户维护文件名的n-gram倒排索引，并以段文件持久化到存储根目录下
+ */
+public interface FileNameIndexService {
+
+    /**
+     * 按文件名关键词搜索文件
+     * 未开启索引搜索（file.search.index.enabled）或索引尚未加载完成时退回数据库模糊查询。
+     * 索引只包含经由addFiles加入的文件，文件的新增、重命名、恢复和删除在成功后维护索引
+     *
+     * @param keyword 关键词
+     * @param userId  用户ID
+     * @return 文件列表，按文件ID倒序
+     */
+    List<FileInfo> search(String keyword, Long userId);
+
+    /**
+     * 将文件加入索引，已存在时按新文件名更新（用于上传、重命名、恢复）
+     * 在事务中调用时于事务提交后生效
+     *
+     * @param files 文件列表，需包含id、createUserId、originalName
+     */
+    void addFiles(Collection<FileInfo> files);
+
+    /**
+     * 从索引中移除文件（用于删除到回收站、永久删除）
+     * 在事务中调用时于事务提交后生效
+     *
+     * @param userId  用户ID
+     * @param fileIds 文件ID列表
+     */
+    void removeFiles(Long userId, Collection<Long> fileIds);
+
+    /**
+     * 加载持久化的索引，索引不存在或不完整时从数据库重建
+     */
+    void load();
+
+    /**
+     * 从数据库重建全部索引
+     */
+    void rebuild();
+}
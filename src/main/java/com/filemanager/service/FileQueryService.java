@@ -0,0 +1,48 @@
+package com.filemanager.service;
+
+import com.filemanager.common.CursorPage;
+import com.filemanager.dto.FileCursorQuery;
+import com.filemanager.dto.FileListItem;
+import com.filemanager.entity.FileInfo;
+
+import java.util.List;
+
+/**
+ * 文件查询服务接口
+ */
+public interface FileQueryService {
+
+    /**
+     * 游标分页查询文件夹下的文件
+     * 按(排序字段, id)定位下一页，不使用OFFSET；总数只在withTotal为true时统计
+     *
+     * @param query 查询条件
+     * @return 游标分页结果
+     */
+    CursorPage<FileInfo> cursorPage(FileCursorQuery query);
+
+    /**
+     * 获取文件夹下的文件列表项
+     *
+     * @param folderId 文件夹ID
+     * @param userId   用户ID
+     * @return 文件列表项
+     */
+    List<FileListItem> listFolderItems(Long folderId, Long userId);
+
+    /**
+     * 获取收藏的文件列表项
+     *
+     * @param userId 用户ID
+     * @return 文件列表项
+     */
+    List<FileListItem> listFavoriteItems(Long userId);
+
+    /**
+     * 获取回收站的文件列表项
+     *
+     * @param userId 用户ID
+     * @return 文件列表项
+     */
+    List<FileListItem> listTrashItems(Long userId);
+}
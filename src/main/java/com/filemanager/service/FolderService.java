@@ -0,0 +1,85 @@
+package com.filemanager.service;
+
+import com.filemanager.entity.FileFolder;
+import com.filemanager.entity.FolderStat;
+
+import java.util.List;
+
+/**
+ * 文件夹服务接口
+ * 基于闭包表（sys_folder_closure）维护文件夹树，子树和祖先链都只需一次索引查询
+ */
+public interface FolderService {
+
+    /**
+     * 创建文件夹
+     *
+     * @param folderName 文件夹名称
+     * @param parentId   父文件夹ID，0或null表示顶级文件夹
+     * @param userId     用户ID
+     * @return 文件夹信息
+     */
+    FileFolder createFolder(String folderName, Long parentId, Long userId);
+
+    /**
+     * 移动文件夹（连同整棵子树）
+     * 在一个事务中修改父级、子树路径和闭包表，不能移动到自身或其后代之下
+     *
+     * @param folderId       文件夹ID
+     * @param targetParentId 目标父文件夹ID，0表示移动为顶级文件夹
+     * @param userId         用户ID
+     * @return 是否成功
+     */
+    boolean moveFolder(Long folderId, Long targetParentId, Long userId);
+
+    /**
+     * 删除文件夹（连同整棵子树），子树中该用户的文件移入回收站
+     *
+     * @param folderId 文件夹ID
+     * @param userId   用户ID
+     * @return 移入回收站的文件数
+     */
+    int deleteFolder(Long folderId, Long userId);
+
+    /**
+     * 查询子树中全部正常文件夹的ID（包含自身）
+     *
+     * @param folderId 文件夹ID
+     * @return 文件夹ID列表，按层级由浅到深
+     */
+    List<Long> getDescendantIds(Long folderId);
+
+    /**
+     * 查询祖先链（包含自身），可用于面包屑导航
+     *
+     * @param folderId 文件夹ID
+     * @param userId   用户ID，只能查询自己的文件夹
+     * @return 文件夹列表，从最顶层祖先到自身
+     */
+    List<FileFolder> getAncestors(Long folderId, Long userId);
+
+    /**
+     * 获取文件夹大小（子树中全部正常文件的大小之和），读取文件夹统计，不扫描文件表
+     *
+     * @param folderId 文件夹ID
+     * @param userId   用户ID，只能查询自己的文件夹
+     * @return 大小（字节）
+     */
+    long getFolderSize(Long folderId, Long userId);
+
+    /**
+     * 获取文件夹统计（直接包含及子树中正常文件的大小和数量）
+     *
+     * @param folderId 文件夹ID
+     * @param userId   用户ID，只能查询自己的文件夹
+     * @return 文件夹统计
+     */
+    FolderStat getFolderStat(Long folderId, Long userId);
+
+    /**
+     * 按文件夹的父级关系重建闭包表
+     *
+     * @return 写入的闭包行数
+     */
+    int rebuildClosure();
+}
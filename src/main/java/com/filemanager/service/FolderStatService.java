@@ -0,0 +1,69 @@
+package com.filemanager.service;
+
+import com.filemanager.entity.FileInfo;
+import com.filemanager.entity.FolderStat;
+
+import java.util.Collection;
+
+/**
+ * 文件夹统计服务接口
+ * 维护每个文件夹直接包含及子树中正常文件的大小和数量。
+ * 修改方法须在变更文件或文件夹的同一事务中调用，统计与数据一起提交或回滚
+ */
+public interface FolderStatService {
+
+    /**
+     * 计入新增的正常文件（用于上传、恢复）
+     *
+     * @param files 文件列表，需包含folderId、fileSize
+     */
+    void addFiles(Collection<FileInfo> files);
+
+    /**
+     * 扣除不再处于正常状态的文件（用于删除到回收站、永久删除）
+     *
+     * @param files 文件列表，需包含folderId、fileSize
+     */
+    void removeFiles(Collection<FileInfo> files);
+
+    /**
+     * 将文件从原文件夹的统计转移到目标文件夹
+     *
+     * @param files          文件列表（移动前），需包含folderId、fileSize
+     * @param targetFolderId 目标文件夹ID
+     */
+    void moveFiles(Collection<FileInfo> files, Long targetFolderId);
+
+    /**
+     * 将文件夹子树的统计从原父级的祖先链转移到新父级的祖先链
+     *
+     * @param folderId    文件夹ID
+     * @param oldParentId 原父文件夹ID
+     * @param newParentId 新父文件夹ID
+     */
+    void moveFolder(Long folderId, Long oldParentId, Long newParentId);
+
+    /**
+     * 删除文件夹子树的统计
+     * 只删除统计行，不修改祖先；子树中实际移入回收站的文件需先经removeFiles从祖先链中扣除，
+     * 子树中仍保留的其他用户的文件不扣除
+     *
+     * @param folderId 文件夹ID
+     */
+    void deleteFolder(Long folderId);
+
+    /**
+     * 获取文件夹统计
+     *
+     * @param folderId 文件夹ID
+     * @return 文件夹统计，没有文件时各项为0
+     */
+    FolderStat getStat(Long folderId);
+
+    /**
+     * 按文件表校验并修正全部文件夹统计
+     *
+     * @return 修正的文件夹数
+     */
+    int verify();
+}
@@ -0,0 +1,56 @@
+package com.filemanager.service;
+
+import com.filemanager.dto.NameSuggestion;
+import com.filemanager.entity.FileFolder;
+import com.filemanager.entity.FileInfo;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 名称联想服务接口
+ * 每个用户一棵前缀树，节点缓存该前缀下得分最高的名称，联想时不查询数据库
+ */
+public interface NameSuggestService {
+
+    /**
+     * 按前缀联想文件和文件夹名称
+     * 按下载次数、创建时间排序；用户的前缀树在首次联想时从数据库加载
+     *
+     * @param prefix 前缀
+     * @param userId 用户ID
+     * @param limit  最大结果数
+     * @return 联想结果
+     */
+    List<NameSuggestion> suggest(String prefix, Long userId, int limit);
+
+    /**
+     * 加入或更新文件（用于上传、重命名、恢复）
+     *
+     * @param files 文件列表，需包含id、createUserId、originalName
+     */
+    void addFiles(Collection<FileInfo> files);
+
+    /**
+     * 移除文件（用于删除到回收站、永久删除）
+     *
+     * @param userId  用户ID
+     * @param fileIds 文件ID列表
+     */
+    void removeFiles(Long userId, Collection<Long> fileIds);
+
+    /**
+     * 加入或更新文件夹（用于创建、重命名）
+     *
+     * @param folder 文件夹
+     */
+    void addFolder(FileFolder folder);
+
+    /**
+     * 移除文件夹
+     *
+     * @param userId   用户ID
+     * @param folderId 文件夹ID
+     */
+    void removeFolder(Long userId, Long folderId);
+}
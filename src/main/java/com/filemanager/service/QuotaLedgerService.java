@@ -0,0 +1,64 @@
+package com.filemanager.service;
+
+/**
+ * 存储空间账本服务接口
+ * 在内存中按用户累计存储空间使用量的变化，定期以相对增量写回sys_user.storage_used；
+ * 上传前预留空间，预留与已用之和不超过用户的存储上限；
+ * 进程异常退出时尚未写回的变化会丢失，定期按文件记录重新计算使用量加以修正
+ */
+public interface QuotaLedgerService {
+
+    /**
+     * 预留存储空间
+     *
+     * @param userId 用户ID
+     * @param bytes  字节数
+     * @return 预留
+     * @throws IllegalStateException 存储空间不足
+     */
+    QuotaReservation reserve(Long userId, long bytes);
+
+    /**
+     * 提交预留：事务提交后计入实际使用量，事务结束（提交或回滚）后释放预留
+     * 不在事务中调用时立即生效
+     *
+     * @param reservation 预留
+     * @param usedBytes   实际使用的字节数
+     */
+    void commit(QuotaReservation reservation, long usedBytes);
+
+    /**
+     * 取消预留，已提交或已取消的预留忽略
+     *
+     * @param reservation 预留
+     */
+    void cancel(QuotaReservation reservation);
+
+    /**
+     * 记录使用量变化（如永久删除文件后减少），事务提交后生效
+     *
+     * @param userId 用户ID
+     * @param bytes  变化量（字节），减少时为负数
+     */
+    void addUsage(Long userId, long bytes);
+
+    /**
+     * 获取用户当前的存储空间使用量（包含尚未写回的变化）
+     *
+     * @param userId 用户ID
+     * @return 使用量（字节）
+     */
+    long getUsed(Long userId);
+
+    /**
+     * 将累计的使用量变化写回数据库
+     */
+    void flush();
+
+    /**
+     * 按文件记录（正常和回收站中的文件大小之和）重新计算用户的存储空间使用量，修正不一致的值
+     *
+     * @return 修正的用户数
+     */
+    int reconcile();
+}
@@ -0,0 +1,49 @@
+package com.filemanager.service;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 存储空间预留
+ * 由QuotaLedgerService在写入文件内容前取得，写入成功后提交为实际使用量，失败时取消；
+ * 预留只会被释放一次
+ */
+public final class QuotaReservation {
+
+    private final Long userId;
+
+    private final long bytes;
+
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    public QuotaReservation(Long userId, long bytes) {
+        this.userId = userId;
+        this.bytes = bytes;
+    }
+
+    /**
+     * 获取用户ID
+     *
+     * @return 用户ID
+     */
+    public Long getUserId() {
+        return userId;
+    }
+
+    /**
+     * 获取预留的字节数
+     *
+     * @return 字节数
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * 标记为已释放
+     *
+     * @return 是否为首次释放
+     */
+    public boolean markReleased() {
+        return released.compareAndSet(false, true);
+    }
+}
@@ -0,0 +1,35 @@
+package com.filemanager.service;
+
+import com.filemanager.entity.FileShare;
+
+import java.util.Collection;
+
+/**
+ * 分享记录缓存服务接口
+ * 按shareUrl缓存有效的分享记录，不存在或已失效的分享链接也会短时间缓存，
+ * 热门链接的访问不再逐次查询数据库
+ */
+public interface ShareCacheService {
+
+    /**
+     * 获取有效（状态为有效）的分享记录，未缓存时从数据库加载
+     *
+     * @param shareUrl 分享链接标识
+     * @return 分享记录副本，不存在或已失效时返回null
+     */
+    FileShare getActiveShare(String shareUrl);
+
+    /**
+     * 使分享链接的缓存失效（用于创建、修改、取消和过期），存在事务时在提交后执行
+     *
+     * @param shareUrl 分享链接标识
+     */
+    void evict(String shareUrl);
+
+    /**
+     * 批量使分享链接的缓存失效，存在事务时在提交后执行
+     *
+     * @param shareUrls 分享链接标识列表
+     */
+    void evictAll(Collection<String> shareUrls);
+}
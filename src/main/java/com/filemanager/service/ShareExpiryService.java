@@ -0,0 +1,32 @@
+package com.filemanager.service;
+
+import com.filemanager.entity.FileShare;
+
+/**
+ * 分享过期服务接口
+ * 即将过期的分享放入分层时间轮，到期时批量标记为已过期并清除缓存，访问分享时不再写数据库
+ */
+public interface ShareExpiryService {
+
+    /**
+     * 按分享的过期时间安排过期（用于创建分享和修改过期时间），存在事务时在提交后执行
+     * 永久有效的分享取消已安排的过期；过期时间超出加载范围的分享由定时加载处理
+     *
+     * @param share 分享记录，需包含id、shareUrl、expireType、expireTime
+     */
+    void schedule(FileShare share);
+
+    /**
+     * 取消已安排的过期（用于取消分享），存在事务时在提交后执行
+     *
+     * @param shareId 分享ID
+     */
+    void cancel(Long shareId);
+
+    /**
+     * 从数据库加载加载范围内即将过期的有效分享，已过期未处理的分享立即过期
+     *
+     * @return 加载的分享数
+     */
+    int reload();
+}
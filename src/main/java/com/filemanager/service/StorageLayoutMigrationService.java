@@ -0,0 +1,16 @@
+package com.filemanager.service;
+
+/**
+ * 存储目录布局迁移服务接口
+ */
+public interface StorageLayoutMigrationService {
+
+    /**
+     * 将已有文件迁移到当前配置的目录布局，并分批改写文件记录的路径
+     * 可重复执行：已迁移的文件会被跳过，中途中断后再次执行可继续完成
+     *
+     * @param batchSize 每批处理的文件记录数
+     * @return 迁移的物理文件数
+     */
+    int migrate(int batchSize);
+}
@@ -0,0 +1,79 @@
+package com.filemanager.service;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * 存储对象
+ * 由StorageService打开，用于流式读取文件内容，使用完毕后必须关闭
+ */
+public interface StorageObject extends Closeable {
+
+    /**
+     * 获取文件长度
+     *
+     * @return 文件长度（字节）
+     */
+    long getLength();
+
+    /**
+     * 获取文件内容输入流
+     *
+     * @return 输入流
+     * @throws IOException IO异常
+     */
+    InputStream getInputStream() throws IOException;
+
+    /**
+     * 从指定位置读取内容到缓冲区，不改变任何共享的读取位置，可用于并发的区间读取
+     *
+     * @param dst      目标缓冲区
+     * @param position 起始位置
+     * @return 读取的字节数，到达文件末尾返回-1
+     * @throws IOException IO异常
+     */
+    int read(ByteBuffer dst, long position) throws IOException;
+
+    /**
+     * 获取对应的本地文件
+     * 仅本地存储返回非空值，可用于容器的sendfile
+     *
+     * @return 本地文件，非本地存储返回null
+     */
+    default File getLocalFile() {
+        return null;
+    }
+
+    /**
+     * 将指定区间的内容写入目标通道
+     * 默认实现经由缓冲区复制，本地存储可覆盖为零拷贝实现
+     *
+     * @param position 起始位置
+     * @param count    字节数
+     * @param target   目标通道
+     * @return 实际写入的字节数
+     * @throws IOException IO异常
+     */
+    default long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(64 * 1024, Math.max(count, 1)));
+        long total = 0;
+        while (total < count) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), count - total));
+            int length = read(buffer, position + total);
+            if (length == -1) {
+                break;
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                target.write(buffer);
+            }
+            total += length;
+        }
+        return total;
+    }
+}
@@ -1,8 +1,12 @@
 package com.filemanager.service;
 
+import com.filemanager.utils.FileUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.List;
 
 /**
  * 存储服务接口
@@ -29,6 +33,30 @@ public interface StorageService {
      */
     String uploadFile(InputStream inputStream, String path, long size, String contentType);
 
+    /**
+     * 上传文件并在写入的同时计算摘要，内容只读取一次
+     *
+     * @param inputStream 输入流
+     * @param path        存储路径
+     * @param digest      摘要算法，写入完成后可直接取得摘要值
+     * @return 写入的字节数
+     */
+    default long uploadFile(InputStream inputStream, String path, MessageDigest digest) {
+        DigestInputStream digestInputStream = new DigestInputStream(inputStream, digest);
+        uploadFile(digestInputStream, path, -1, null);
+        return getSize(path);
+    }
+
+    /**
+     * 按存储的目录布局为文件生成存储路径
+     *
+     * @param fileName 文件名（通常为唯一文件名）
+     * @return 存储路径
+     */
+    default String generatePath(String fileName) {
+        return FileUtils.generateDatePath() + fileName;
+    }
+
     /**
      * 删除文件
      *
@@ -38,7 +66,7 @@ public interface StorageService {
     boolean deleteFile(String path);
 
     /**
-     * 批量删除文件
+     * 批量删除文件，阻塞到全部删除完成；需要异步执行时使用AsyncStorageService.batchDeleteFiles
      *
      * @param paths 文件路径列表
      * @return 是否成功
@@ -78,8 +106,19 @@ public interface StorageService {
      */
     boolean copyFile(String sourcePath, String targetPath);
 
+    /**
+     * 复制文件，目标已存在时失败而不是覆盖；目标与源已是同一文件（如上次复制后中断）时视为成功
+     * 实现应保证目标位置不会出现不完整的文件，本地存储优先创建硬链接
+     *
+     * @param sourcePath 源文件路径
+     * @param targetPath 目标文件路径
+     * @return 是否成功
+     */
+    boolean copyFileNoReplace(String sourcePath, String targetPath);
+
     /**
      * 移动文件
+     * 实现应保证目标位置不会出现不完整的文件，本地存储在同一文件系统内为原子重命名
      *
      * @param sourcePath 源文件路径
      * @param targetPath 目标文件路径
@@ -102,4 +141,73 @@ public interface StorageService {
      * @return 文件大小
      */
     long getSize(String path);
-}
\ No newline at end of file
+
+    /**
+     * 打开文件用于流式读取
+     *
+     * @param path 文件路径
+     * @return 存储对象，文件不存在时返回null
+     */
+    StorageObject getObject(String path);
+
+    /**
+     * 创建分片上传会话的存储区域
+     *
+     * @param sessionId 会话ID
+     * @param totalSize 文件总大小
+     */
+    void createUploadSession(String sessionId, long totalSize);
+
+    /**
+     * 将分片写入会话区域的指定位置，不同分片可并发写入
+     *
+     * @param sessionId   会话ID
+     * @param position    分片在文件中的起始位置
+     * @param inputStream 分片内容输入流
+     * @param length      分片大小
+     */
+    void writeUploadChunk(String sessionId, long position, InputStream inputStream, long length);
+
+    /**
+     * 完成分片上传，将会话区域中的数据直接转为正式文件，不重新读取数据
+     *
+     * @param sessionId 会话ID
+     * @param path      正式存储路径
+     * @return 访问URL
+     */
+    String completeUploadSession(String sessionId, String path);
+
+    /**
+     * 撤销completeUploadSession，将正式文件移回会话区域，用于保存文件记录失败时保留会话
+     *
+     * @param sessionId 会话ID
+     * @param path      completeUploadSession使用的正式存储路径
+     * @return 是否成功
+     */
+    boolean rollbackUploadSession(String sessionId, String path);
+
+    /**
+     * 顺序读取会话区域中已写入的数据并更新摘要
+     * 分片按任意顺序写入，无法在写入时计算摘要，完成前读取一次
+     *
+     * @param sessionId 会话ID
+     * @param digest    摘要算法
+     */
+    void digestUploadSession(String sessionId, MessageDigest digest);
+
+    /**
+     * 删除分片上传会话的存储区域
+     *
+     * @param sessionId 会话ID
+     * @return 是否成功
+     */
+    boolean deleteUploadSession(String sessionId);
+
+    /**
+     * 列出会话区域中最后修改时间早于指定时间的会话，用于清理没有会话记录的残留数据
+     *
+     * @param modifiedBeforeMs 时间（毫秒时间戳）
+     * @return 会话ID列表
+     */
+    List<String> listUploadSessions(long modifiedBeforeMs);
+}
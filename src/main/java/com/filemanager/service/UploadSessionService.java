@@ -0,0 +1,64 @@
+package com.filemanager.service;
+
+import com.filemanager.dto.UploadSession;
+import com.filemanager.entity.FileInfo;
+
+import java.io.InputStream;
+
+/**
+ * 分片上传会话服务接口
+ * 客户端按 初始化 - 上传分片（可并发、可重试） - 查询进度 - 完成 的流程上传大文件
+ */
+public interface UploadSessionService {
+
+    /**
+     * 初始化上传会话
+     *
+     * @param fileName  文件名
+     * @param fileSize  文件大小
+     * @param chunkSize 分片大小
+     * @param folderId  文件夹ID
+     * @param userId    用户ID
+     * @return 上传会话
+     */
+    UploadSession initSession(String fileName, long fileSize, int chunkSize, Long folderId, Long userId);
+
+    /**
+     * 上传分片，重复上传同一分片会覆盖之前的内容
+     *
+     * @param sessionId   会话ID
+     * @param chunkIndex  分片序号（从0开始）
+     * @param inputStream 分片内容
+     * @param length      分片大小，未知时传-1
+     * @param userId      用户ID
+     * @return 上传会话
+     */
+    UploadSession uploadChunk(String sessionId, int chunkIndex, InputStream inputStream, long length, Long userId);
+
+    /**
+     * 查询上传会话及已接收的分片
+     *
+     * @param sessionId 会话ID
+     * @param userId    用户ID
+     * @return 上传会话，不存在时返回null
+     */
+    UploadSession getSession(String sessionId, Long userId);
+
+    /**
+     * 完成上传，所有分片接收完毕后生成文件记录
+     *
+     * @param sessionId 会话ID
+     * @param userId    用户ID
+     * @return 文件信息
+     */
+    FileInfo completeSession(String sessionId, Long userId);
+
+    /**
+     * 取消上传并清理会话数据
+     *
+     * @param sessionId 会话ID
+     * @param userId    用户ID
+     * @return 是否成功
+     */
+    boolean abortSession(String sessionId, Long userId);
+}
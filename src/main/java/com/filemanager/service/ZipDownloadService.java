@@ -0,0 +1,48 @@
+package com.filemanager.service;
+
+import com.filemanager.entity.FileShare;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 打包下载服务接口
+ * 边读取存储边生成ZIP写入响应，不在磁盘或内存中暂存整个压缩包
+ */
+public interface ZipDownloadService {
+
+    /**
+     * 打包下载文件夹（包含全部子文件夹），只打包其中本人的文件和公开文件
+     *
+     * @param folderId 文件夹ID
+     * @param userId   用户ID
+     * @param response HTTP响应对象
+     * @throws IOException              IO异常
+     * @throws IllegalArgumentException 文件夹不存在
+     * @throws IllegalStateException    无权下载该文件夹
+     */
+    void downloadFolder(Long folderId, Long userId, HttpServletResponse response) throws IOException;
+
+    /**
+     * 打包下载多个文件，用户无权读取或不存在的文件被忽略
+     *
+     * @param fileIds  文件ID列表
+     * @param userId   用户ID
+     * @param response HTTP响应对象
+     * @throws IOException              IO异常
+     * @throws IllegalArgumentException 没有可下载的文件
+     */
+    void downloadFiles(List<Long> fileIds, Long userId, HttpServletResponse response) throws IOException;
+
+    /**
+     * 打包下载文件夹分享
+     *
+     * @param share    有效的分享记录
+     * @param response HTTP响应对象
+     * @throws IOException              IO异常
+     * @throws IllegalArgumentException 不是文件夹分享或文件夹不存在
+     * @throws IllegalStateException    分享不允许下载
+     */
+    void downloadShare(FileShare share, HttpServletResponse response) throws IOException;
+}
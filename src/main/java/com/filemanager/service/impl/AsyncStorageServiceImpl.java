@@ -0,0 +1,81 @@
+package com.filemanager.service.impl;
+
+import com.filemanager.config.StorageExecutorConfig;
+import com.filemanager.service.AsyncStorageService;
+import com.filemanager.service.StorageService;
+import com.filemanager.util.ConcurrentTaskUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+
+/**
+ * 异步存储服务实现
+ * 单个操作直接提交到存储IO线程池，批量操作同时最多占用batch-parallelism个线程
+ */
+@Slf4j
+@Service
+public class AsyncStorageServiceImpl implements AsyncStorageService {
+
+    private final StorageService storageService;
+
+    private final Executor executor;
+
+    @Value("${file.storage.batch-parallelism:4}")
+    private int batchParallelism;
+
+    public AsyncStorageServiceImpl(StorageService storageService,
+                                   @Qualifier(StorageExecutorConfig.STORAGE_IO_EXECUTOR) Executor executor) {
+        this.storageService = storageService;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteFile(String path) {
+        return CompletableFuture.supplyAsync(() -> storageService.deleteFile(path), executor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> copyFile(String sourcePath, String targetPath) {
+        return CompletableFuture.supplyAsync(() -> storageService.copyFile(sourcePath, targetPath), executor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> moveFile(String sourcePath, String targetPath) {
+        return CompletableFuture.supplyAsync(() -> storageService.moveFile(sourcePath, targetPath), executor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> exists(String path) {
+        return CompletableFuture.supplyAsync(() -> storageService.exists(path), executor);
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Boolean>> batchDeleteFiles(List<String> paths) {
+        return forEach(paths, storageService::deleteFile);
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Boolean>> batchCopyFiles(Map<String, String> pathMapping) {
+        return forEach(new ArrayList<>(pathMapping.keySet()),
+                sourcePath -> storageService.copyFile(sourcePath, pathMapping.get(sourcePath)));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Boolean>> batchMoveFiles(Map<String, String> pathMapping) {
+        return forEach(new ArrayList<>(pathMapping.keySet()),
+                sourcePath -> storageService.moveFile(sourcePath, pathMapping.get(sourcePath)));
+    }
+
+    @Override
+    public <T> CompletableFuture<Map<T, Boolean>> forEach(List<T> items, Predicate<T> task) {
+        return ConcurrentTaskUtils.runAll(items, batchParallelism, executor, task);
+    }
+}
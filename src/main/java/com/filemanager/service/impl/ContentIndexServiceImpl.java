@@ -0,0 +1,332 @@
+package com.filemanager.service.impl;
+
+import com.filemanager.config.ContentIndexExecutorConfig;
+import com.filemanager.constant.FileConstants;
+import com.filemanager.dto.ContentSearchHit;
+import com.filemanager.entity.FileInfo;
+import com.filemanager.mapper.FileInfoMapper;
+import com.filemanager.service.ContentIndexService;
+import com.filemanager.service.StorageObject;
+import com.filemanager.service.StorageService;
+import com.filemanager.util.DocumentTextExtractor;
+import com.filemanager.util.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.cn.smart.SmartChineseAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.highlight.Highlighter;
+import org.apache.lucene.search.highlight.InvalidTokenOffsetsException;
+import org.apache.lucene.search.highlight.QueryScorer;
+import org.apache.lucene.search.highlight.SimpleFragmenter;
+import org.apache.lucene.search.highlight.SimpleHTMLEncoder;
+import org.apache.lucene.search.highlight.SimpleHTMLFormatter;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 文件内容索引服务实现
+ * 索引为上传根目录下的Lucene目录，每个文件一个文档：文件ID、所属用户ID和提取出的文本。
+ * 提交的文件进入有界线程池的队列，由索引线程读取存储、提取文本并写入索引，上传请求不等待索引完成；
+ * 单个文件的大小和提取的字符数都有上限，队列满时丢弃新提交的文件。
+ * 写入后刷新近实时搜索器即可被搜到，定时提交到磁盘
+ */
+@Slf4j
+@Service
+public class ContentIndexServiceImpl implements ContentIndexService {
+
+    /**
+     * 索引目录（位于上传根目录下）
+     */
+    private static final String INDEX_DIR = ".index/content";
+
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_USER_ID = "userId";
+    private static final String FIELD_CONTENT = "content";
+
+    /**
+     * 每个结果返回的片段数及片段长度（字符）
+     */
+    private static final int SNIPPET_COUNT = 3;
+    private static final int SNIPPET_SIZE = 100;
+
+    /**
+     * 单次搜索默认及最大结果数
+     */
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 100;
+
+    /**
+     * 停机时等待正在索引的文件完成的最长时间（秒）
+     */
+    private static final int SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final StorageService storageService;
+
+    private final FileInfoMapper fileInfoMapper;
+
+    private final ThreadPoolTaskExecutor executor;
+
+    @Value("${file.upload.path:${user.home}/file-manager/upload}")
+    private String uploadPath;
+
+    @Value("${file.search.content.enabled:true}")
+    private boolean enabled;
+
+    @Value("${file.search.content.max-file-size:20971520}")
+    private long maxFileSize;
+
+    @Value("${file.search.content.max-chars:1000000}")
+    private int maxChars;
+
+    private Analyzer analyzer;
+
+    private IndexWriter indexWriter;
+
+    private SearcherManager searcherManager;
+
+    public ContentIndexServiceImpl(StorageService storageService,
+                                   FileInfoMapper fileInfoMapper,
+                                   @Qualifier(ContentIndexExecutorConfig.CONTENT_INDEX_EXECUTOR) ThreadPoolTaskExecutor executor) {
+        this.storageService = storageService;
+        this.fileInfoMapper = fileInfoMapper;
+        this.executor = executor;
+    }
+
+    /**
+     * 打开索引目录，打开失败时禁用内容索引，不影响应用启动
+     */
+    @PostConstruct
+    public void open() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Path indexDir = Paths.get(uploadPath, INDEX_DIR);
+            Files.createDirectories(indexDir);
+            analyzer = new SmartChineseAnalyzer();
+            IndexWriterConfig config = new IndexWriterConfig(analyzer)
+                    .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+            indexWriter = new IndexWriter(FSDirectory.open(indexDir), config);
+            searcherManager = new SearcherManager(indexWriter, null);
+            log.info("内容索引已打开: {}，文档数 {}", indexDir, indexWriter.getDocStats().numDocs);
+        } catch (IOException e) {
+            log.error("打开内容索引失败，内容搜索不可用", e);
+            enabled = false;
+        }
+    }
+
+    @Override
+    public void submitFiles(Collection<FileInfo> files) {
+        if (!enabled || files == null || files.isEmpty()) {
+            return;
+        }
+        List<FileInfo> snapshot = files.stream()
+                .filter(file -> file.getId() != null && file.getCreateUserId() != null && file.getFilePath() != null)
+                .filter(file -> DocumentTextExtractor.isSupported(file.getOriginalName()))
+                .filter(file -> file.getFileSize() == null || file.getFileSize() <= maxFileSize)
+                .collect(Collectors.toList());
+        if (snapshot.isEmpty()) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> {
+            for (FileInfo file : snapshot) {
+                try {
+                    executor.execute(() -> index(file));
+                } catch (RejectedExecutionException e) {
+                    log.warn("内容索引队列已满，跳过文件: id={}, name={}", file.getId(), file.getOriginalName());
+                }
+            }
+        });
+    }
+
+    @Override
+    public void removeFiles(Collection<Long> fileIds) {
+        if (!enabled || fileIds == null || fileIds.isEmpty()) {
+            return;
+        }
+        Term[] terms = fileIds.stream().map(id -> new Term(FIELD_ID, String.valueOf(id))).toArray(Term[]::new);
+        TransactionUtils.afterCommit(() -> {
+            try {
+                indexWriter.deleteDocuments(terms);
+                searcherManager.maybeRefresh();
+            } catch (IOException | RuntimeException e) {
+                log.warn("从内容索引中移除文件失败: {}", fileIds, e);
+            }
+        });
+    }
+
+    @Override
+    public List<ContentSearchHit> search(String keyword, Long userId, Integer limit) {
+        if (!enabled || StringUtils.isBlank(keyword)) {
+            return Collections.emptyList();
+        }
+        int size = limit == null || limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+
+        Query contentQuery;
+        try {
+            QueryParser parser = new QueryParser(FIELD_CONTENT, analyzer);
+            parser.setDefaultOperator(QueryParser.Operator.AND);
+            contentQuery = parser.parse(QueryParser.escape(keyword.trim()));
+        } catch (ParseException e) {
+            return Collections.emptyList();
+        }
+        Query query = new BooleanQuery.Builder()
+                .add(contentQuery, BooleanClause.Occur.MUST)
+                .add(new TermQuery(new Term(FIELD_USER_ID, String.valueOf(userId))), BooleanClause.Occur.FILTER)
+                .build();
+
+        Map<Long, ContentSearchHit> hits = new LinkedHashMap<>();
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                Highlighter highlighter = new Highlighter(new SimpleHTMLFormatter("<em>", "</em>"),
+                        new SimpleHTMLEncoder(), new QueryScorer(contentQuery, FIELD_CONTENT));
+                highlighter.setTextFragmenter(new SimpleFragmenter(SNIPPET_SIZE));
+                highlighter.setMaxDocCharsToAnalyze(maxChars);
+
+                TopDocs topDocs = searcher.search(query, size);
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    Document document = searcher.doc(scoreDoc.doc);
+                    Long fileId = Long.valueOf(document.get(FIELD_ID));
+                    String[] fragments = highlighter.getBestFragments(analyzer, FIELD_CONTENT,
+                            document.get(FIELD_CONTENT), SNIPPET_COUNT);
+                    hits.put(fileId, new ContentSearchHit(fileId, null, null, scoreDoc.score, Arrays.asList(fragments)));
+                }
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException | InvalidTokenOffsetsException e) {
+            throw new RuntimeException("内容搜索失败: " + e.getMessage(), e);
+        }
+        if (hits.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // 以数据库为准过滤掉回收站中和已删除的文件，文件名等信息取最新值
+        Map<Long, FileInfo> files = fileInfoMapper.selectOwnedFilesByIds(hits.keySet(), userId, FileConstants.FILE_STATUS_NORMAL)
+                .stream().collect(Collectors.toMap(FileInfo::getId, Function.identity()));
+        List<ContentSearchHit> result = new ArrayList<>(files.size());
+        hits.forEach((fileId, hit) -> {
+            FileInfo fileInfo = files.get(fileId);
+            if (fileInfo != null) {
+                hit.setOriginalName(fileInfo.getOriginalName());
+                hit.setFileSize(fileInfo.getFileSize());
+                result.add(hit);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 定时将索引提交到磁盘
+     */
+    @Scheduled(fixedDelayString = "${file.search.content.commit-interval:30000}")
+    public void commit() {
+        if (!enabled || !indexWriter.hasUncommittedChanges()) {
+            return;
+        }
+        try {
+            indexWriter.commit();
+        } catch (IOException | RuntimeException e) {
+            log.warn("提交内容索引失败", e);
+        }
+    }
+
+    /**
+     * 停止索引线程，提交并关闭索引
+     * 队列中尚未处理的文件不再索引
+     */
+    @PreDestroy
+    public void close() {
+        if (!enabled) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            executor.getThreadPoolExecutor().awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            searcherManager.close();
+            indexWriter.close();
+        } catch (IOException e) {
+            log.warn("关闭内容索引失败", e);
+        }
+    }
+
+    /**
+     * 提取单个文件的文本并写入索引，在索引线程中执行
+     *
+     * @param file 文件信息
+     */
+    private void index(FileInfo file) {
+        String text;
+        try (StorageObject object = storageService.getObject(file.getFilePath())) {
+            if (object == null) {
+                log.warn("内容索引时未找到文件: {}", file.getFilePath());
+                return;
+            }
+            try (InputStream inputStream = object.getInputStream()) {
+                text = DocumentTextExtractor.extract(inputStream, file.getOriginalName(), maxChars);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("提取文件文本失败: id={}, name={}, {}", file.getId(), file.getOriginalName(), e.getMessage());
+            return;
+        }
+        if (StringUtils.isBlank(text)) {
+            return;
+        }
+
+        Document document = new Document();
+        document.add(new StringField(FIELD_ID, String.valueOf(file.getId()), Field.Store.YES));
+        document.add(new StringField(FIELD_USER_ID, String.valueOf(file.getCreateUserId()), Field.Store.NO));
+        document.add(new TextField(FIELD_CONTENT, text, Field.Store.YES));
+        try {
+            indexWriter.updateDocument(new Term(FIELD_ID, String.valueOf(file.getId())), document);
+            searcherManager.maybeRefresh();
+        } catch (IOException | RuntimeException e) {
+            log.warn("写入内容索引失败: id={}", file.getId(), e);
+        }
+    }
+}
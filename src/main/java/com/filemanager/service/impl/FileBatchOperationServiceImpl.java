@@ -0,0 +1,278 @@
+package com.filemanager.service.impl;
+
+import cn.hutool.core.collection.ListUtil;
+import com.filemanager.constant.FileConstants;
+import com.filemanager.entity.FileInfo;
+import com.filemanager.mapper.FileFolderMapper;
+import com.filemanager.mapper.FileInfoMapper;
+import com.filemanager.service.AsyncStorageService;
+import com.filemanager.service.ContentIndexService;
+import com.filemanager.service.FileBatchOperationService;
+import com.filemanager.service.FileBlobService;
+import com.filemanager.service.FileNameIndexService;
+import com.filemanager.service.FolderStatService;
+import com.filemanager.service.NameSuggestService;
+import com.filemanager.service.QuotaLedgerService;
+import com.filemanager.service.QuotaReservation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * 文件批量操作服务实现
+ * ID列表按SQL_BATCH_SIZE分段，每段在一个事务中先锁定并查出满足条件的ID，
+ * 再用一条WHERE id IN (...)语句完成修改，每段只需两条SQL
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileBatchOperationServiceImpl implements FileBatchOperationService {
+
+    /**
+     * 根目录ID
+     */
+    private static final long ROOT_FOLDER_ID = 0L;
+
+    private final FileInfoMapper fileInfoMapper;
+
+    private final FileFolderMapper fileFolderMapper;
+
+    private final FileBlobService fileBlobService;
+
+    private final AsyncStorageService asyncStorageService;
+
+    private final FileNameIndexService fileNameIndexService;
+
+    private final NameSuggestService nameSuggestService;
+
+    private final ContentIndexService contentIndexService;
+
+    private final FolderStatService folderStatService;
+
+    private final QuotaLedgerService quotaLedgerService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public Map<Long, Boolean> batchDelete(List<Long> fileIds, Long userId) {
+        LocalDateTime deleteTime = LocalDateTime.now();
+        Map<Long, Boolean> result = process(fileIds, Collections.singletonList(FileConstants.FILE_STATUS_NORMAL), userId,
+                files -> {
+                    fileInfoMapper.updateStatusByIds(ids(files), userId, FileConstants.FILE_STATUS_NORMAL,
+                            FileConstants.FILE_STATUS_RECYCLE, deleteTime);
+                    folderStatService.removeFiles(files);
+                });
+        List<Long> deletedIds = succeeded(result);
+        fileNameIndexService.removeFiles(userId, deletedIds);
+        nameSuggestService.removeFiles(userId, deletedIds);
+        return result;
+    }
+
+    @Override
+    public Map<Long, Boolean> batchRestore(List<Long> fileIds, Long userId) {
+        Map<Long, Boolean> result = process(fileIds, Collections.singletonList(FileConstants.FILE_STATUS_RECYCLE), userId,
+                files -> {
+                    fileInfoMapper.updateStatusByIds(ids(files), userId, FileConstants.FILE_STATUS_RECYCLE,
+                            FileConstants.FILE_STATUS_NORMAL, null);
+                    folderStatService.addFiles(files);
+                });
+        // 恢复的文件重新加入文件名索引和名称联想
+        for (List<Long> chunk : ListUtil.partition(succeeded(result), FileConstants.SQL_BATCH_SIZE)) {
+            List<FileInfo> restored = fileInfoMapper.selectOwnedFilesByIds(chunk, userId, FileConstants.FILE_STATUS_NORMAL);
+            fileNameIndexService.addFiles(restored);
+            nameSuggestService.addFiles(restored);
+        }
+        return result;
+    }
+
+    @Override
+    public Map<Long, Boolean> batchMove(List<Long> fileIds, Long targetFolderId, Long userId) {
+        checkTargetFolder(targetFolderId, userId);
+        return process(fileIds, Collections.singletonList(FileConstants.FILE_STATUS_NORMAL), userId,
+                files -> {
+                    fileInfoMapper.updateFolderByIds(ids(files), userId, targetFolderId, FileConstants.FILE_STATUS_NORMAL);
+                    folderStatService.moveFiles(files, targetFolderId);
+                });
+    }
+
+    @Override
+    public Map<Long, Boolean> batchCopy(List<Long> fileIds, Long targetFolderId, Long userId) {
+        checkTargetFolder(targetFolderId, userId);
+        List<FileInfo> copies = new ArrayList<>();
+        Set<Long> copiedIds = new HashSet<>();
+
+        for (List<Long> chunk : ListUtil.partition(distinct(fileIds), FileConstants.SQL_BATCH_SIZE)) {
+            List<FileInfo> sources = fileInfoMapper.selectOwnedFilesByIds(chunk, userId, FileConstants.FILE_STATUS_NORMAL);
+            for (FileInfo source : sources) {
+                long size = source.getFileSize() == null ? 0 : source.getFileSize();
+                QuotaReservation reservation = null;
+                try {
+                    // 副本计入使用量，空间不足的文件不复制
+                    reservation = quotaLedgerService.reserve(userId, size);
+                    QuotaReservation reserved = reservation;
+                    FileInfo copy = transactionTemplate.execute(status -> {
+                        FileInfo created = fileBlobService.createReference(source, targetFolderId, userId);
+                        if (created != null) {
+                            quotaLedgerService.commit(reserved, size);
+                            folderStatService.addFiles(Collections.singletonList(created));
+                        }
+                        return created;
+                    });
+                    if (copy == null) {
+                        quotaLedgerService.cancel(reservation);
+                        log.warn("文件没有MD5，无法共享内容: {}", source.getId());
+                        continue;
+                    }
+                    copies.add(copy);
+                    copiedIds.add(source.getId());
+                } catch (Exception e) {
+                    quotaLedgerService.cancel(reservation);
+                    log.warn("批量复制中文件复制失败: {}", source.getId(), e);
+                }
+            }
+        }
+
+        fileNameIndexService.addFiles(copies);
+        nameSuggestService.addFiles(copies);
+        contentIndexService.submitFiles(copies);
+        return toResult(fileIds, copiedIds);
+    }
+
+    @Override
+    public Map<Long, Boolean> batchPermanentDelete(List<Long> fileIds, Long userId) {
+        List<Integer> statuses = Arrays.asList(FileConstants.FILE_STATUS_NORMAL, FileConstants.FILE_STATUS_RECYCLE);
+        List<FileInfo> deleted = new ArrayList<>();
+        Set<Long> deletedIds = new HashSet<>();
+
+        for (List<Long> chunk : ListUtil.partition(distinct(fileIds), FileConstants.SQL_BATCH_SIZE)) {
+            List<FileInfo> files = transactionTemplate.execute(status -> {
+                List<FileInfo> owned = fileInfoMapper.selectOwnedFilesForUpdate(chunk, userId, statuses);
+                if (owned.isEmpty()) {
+                    return owned;
+                }
+                List<Long> ids = ids(owned);
+                fileInfoMapper.deleteOwnedByIds(ids, userId);
+                folderStatService.removeFiles(owned.stream()
+                        .filter(file -> Objects.equals(file.getStatus(), FileConstants.FILE_STATUS_NORMAL))
+                        .collect(Collectors.toList()));
+                long totalSize = owned.stream().mapToLong(file -> file.getFileSize() == null ? 0 : file.getFileSize()).sum();
+                quotaLedgerService.addUsage(userId, -totalSize);
+                return owned;
+            });
+            deleted.addAll(files);
+            files.forEach(file -> deletedIds.add(file.getId()));
+        }
+
+        // 记录已删除，释放物理文件失败只会留下孤立文件，不影响结果
+        Map<FileInfo, Boolean> released = asyncStorageService.forEach(deleted, fileBlobService::release).join();
+        released.forEach((file, success) -> {
+            if (!success) {
+                log.warn("释放文件存储失败: {}", file.getFilePath());
+            }
+        });
+        fileNameIndexService.removeFiles(userId, deletedIds);
+        nameSuggestService.removeFiles(userId, deletedIds);
+        contentIndexService.removeFiles(deletedIds);
+        return toResult(fileIds, deletedIds);
+    }
+
+    /**
+     * 分段执行集合修改
+     *
+     * @param fileIds  文件ID列表
+     * @param statuses 允许处理的文件状态
+     * @param userId   用户ID
+     * @param update   对满足条件的文件执行的修改（文件已锁定）
+     * @return 每个文件ID的处理结果
+     */
+    private Map<Long, Boolean> process(List<Long> fileIds, List<Integer> statuses, Long userId,
+                                       Consumer<List<FileInfo>> update) {
+        Set<Long> updatedIds = new HashSet<>();
+        for (List<Long> chunk : ListUtil.partition(distinct(fileIds), FileConstants.SQL_BATCH_SIZE)) {
+            List<FileInfo> files = transactionTemplate.execute(status -> {
+                List<FileInfo> owned = fileInfoMapper.selectOwnedFilesForUpdate(chunk, userId, statuses);
+                if (!owned.isEmpty()) {
+                    update.accept(owned);
+                }
+                return owned;
+            });
+            updatedIds.addAll(ids(files));
+        }
+        return toResult(fileIds, updatedIds);
+    }
+
+    /**
+     * 校验目标文件夹存在且可写
+     *
+     * @param targetFolderId 目标文件夹ID
+     * @param userId         用户ID
+     */
+    private void checkTargetFolder(Long targetFolderId, Long userId) {
+        if (!Objects.equals(targetFolderId, ROOT_FOLDER_ID)
+                && fileFolderMapper.countWritableFolder(targetFolderId, userId) == 0) {
+            throw new IllegalArgumentException("目标文件夹不存在或无权限");
+        }
+    }
+
+    /**
+     * 取出文件ID
+     *
+     * @param files 文件列表
+     * @return 文件ID列表
+     */
+    private List<Long> ids(List<FileInfo> files) {
+        return files.stream().map(FileInfo::getId).collect(Collectors.toList());
+    }
+
+    /**
+     * 取出处理成功的文件ID
+     *
+     * @param result 每个文件ID的处理结果
+     * @return 处理成功的文件ID
+     */
+    private List<Long> succeeded(Map<Long, Boolean> result) {
+        return result.entrySet().stream().filter(Map.Entry::getValue).map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 去除重复和空的ID
+     *
+     * @param fileIds 文件ID列表
+     * @return 去重后的ID列表
+     */
+    private List<Long> distinct(List<Long> fileIds) {
+        return fileIds.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+    }
+
+    /**
+     * 按请求顺序生成每个文件ID的处理结果
+     *
+     * @param fileIds    文件ID列表
+     * @param updatedIds 处理成功的ID
+     * @return 每个文件ID的处理结果
+     */
+    private Map<Long, Boolean> toResult(List<Long> fileIds, Set<Long> updatedIds) {
+        Map<Long, Boolean> result = new LinkedHashMap<>();
+        for (Long fileId : fileIds) {
+            if (fileId != null) {
+                result.put(fileId, updatedIds.contains(fileId));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,211 @@
+package com.filemanager.service.impl;
+
+import cn.hutool.core.collection.ListUtil;
+import com.filemanager.config.StorageExecutorConfig;
+import com.filemanager.constant.FileConstants;
+import com.filemanager.dto.BatchUploadResult;
+import com.filemanager.entity.FileBlob;
+import com.filemanager.entity.FileInfo;
+import com.filemanager.mapper.FileFolderMapper;
+import com.filemanager.mapper.FileInfoMapper;
+import com.filemanager.service.ContentIndexService;
+import com.filemanager.service.FileBatchUploadService;
+import com.filemanager.service.FileBlobService;
+import com.filemanager.service.FileNameIndexService;
+import com.filemanager.service.FolderStatService;
+import com.filemanager.service.NameSuggestService;
+import com.filemanager.service.QuotaLedgerService;
+import com.filemanager.service.QuotaReservation;
+import com.filemanager.service.StorageService;
+import com.filemanager.util.ConcurrentTaskUtils;
+import com.filemanager.utils.FileUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 批量上传服务实现
+ * 第一阶段在存储IO线程池中并发写入内容（写入的同时计算MD5），
+ * 第二阶段在一个事务中以多行INSERT插入文件记录并一次性更新存储使用量
+ */
+@Slf4j
+@Service
+public class FileBatchUploadServiceImpl implements FileBatchUploadService {
+
+    /**
+     * 根目录ID
+     */
+    private static final long ROOT_FOLDER_ID = 0L;
+
+    private final FileBlobService fileBlobService;
+
+    private final FileInfoMapper fileInfoMapper;
+
+    private final FileFolderMapper fileFolderMapper;
+
+    private final StorageService storageService;
+
+    private final FileNameIndexService fileNameIndexService;
+
+    private final NameSuggestService nameSuggestService;
+
+    private final ContentIndexService contentIndexService;
+
+    private final FolderStatService folderStatService;
+
+    private final QuotaLedgerService quotaLedgerService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Executor executor;
+
+    @Value("${file.upload.max-size:104857600}")
+    private long maxSize;
+
+    @Value("${file.upload.batch-parallelism:4}")
+    private int batchParallelism;
+
+    public FileBatchUploadServiceImpl(FileBlobService fileBlobService, FileInfoMapper fileInfoMapper,
+                                      FileFolderMapper fileFolderMapper, StorageService storageService,
+                                      FileNameIndexService fileNameIndexService, NameSuggestService nameSuggestService,
+                                      ContentIndexService contentIndexService, FolderStatService folderStatService,
+                                      QuotaLedgerService quotaLedgerService, TransactionTemplate transactionTemplate,
+                                      @Qualifier(StorageExecutorConfig.STORAGE_IO_EXECUTOR) Executor executor) {
+        this.fileBlobService = fileBlobService;
+        this.fileInfoMapper = fileInfoMapper;
+        this.fileFolderMapper = fileFolderMapper;
+        this.storageService = storageService;
+        this.fileNameIndexService = fileNameIndexService;
+        this.nameSuggestService = nameSuggestService;
+        this.contentIndexService = contentIndexService;
+        this.folderStatService = folderStatService;
+        this.quotaLedgerService = quotaLedgerService;
+        this.transactionTemplate = transactionTemplate;
+        this.executor = executor;
+    }
+
+    @Override
+    public BatchUploadResult batchUpload(List<MultipartFile> files, Long folderId, Long userId) {
+        // 写入任何内容之前校验目标文件夹
+        if (!Objects.equals(folderId, ROOT_FOLDER_ID) && fileFolderMapper.countWritableFolder(folderId, userId) == 0) {
+            throw new IllegalArgumentException("目标文件夹不存在或无权限");
+        }
+        Map<Integer, FileInfo> stored = new ConcurrentHashMap<>();
+        Map<Integer, String> errors = new ConcurrentHashMap<>();
+        Map<Integer, QuotaReservation> reservations = new ConcurrentHashMap<>();
+
+        List<Integer> indexes = IntStream.range(0, files.size()).boxed().collect(Collectors.toList());
+        ConcurrentTaskUtils.runAll(indexes, batchParallelism, executor, index -> {
+            MultipartFile file = files.get(index);
+            QuotaReservation reservation = null;
+            try {
+                // 写入内容前预留空间，空间不足的文件不写入
+                reservation = quotaLedgerService.reserve(userId, file.getSize());
+                stored.put(index, storeFile(file, folderId, userId));
+                reservations.put(index, reservation);
+                return true;
+            } catch (Exception e) {
+                quotaLedgerService.cancel(reservation);
+                log.warn("批量上传中文件上传失败: {}", file.getOriginalFilename(), e);
+                errors.put(index, e.getMessage());
+                return false;
+            }
+        }).join();
+
+        // 按提交顺序整理结果
+        BatchUploadResult result = new BatchUploadResult();
+        for (int i = 0; i < files.size(); i++) {
+            FileInfo fileInfo = stored.get(i);
+            if (fileInfo != null) {
+                result.getSuccessFiles().add(fileInfo);
+            } else {
+                result.getFailedFiles().add(new BatchUploadResult.FailedFile(files.get(i).getOriginalFilename(),
+                        errors.getOrDefault(i, "上传失败")));
+            }
+        }
+
+        List<FileInfo> fileInfoList = result.getSuccessFiles();
+        if (fileInfoList.isEmpty()) {
+            return result;
+        }
+        try {
+            transactionTemplate.execute(status -> {
+                ListUtil.partition(fileInfoList, FileConstants.SQL_BATCH_SIZE).forEach(fileInfoMapper::insertBatch);
+                stored.forEach((index, fileInfo) -> quotaLedgerService.commit(reservations.get(index), fileInfo.getFileSize()));
+                folderStatService.addFiles(fileInfoList);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            // 记录未能保存，释放已写入内容的引用
+            fileInfoList.forEach(fileBlobService::release);
+            reservations.values().forEach(quotaLedgerService::cancel);
+            throw e;
+        }
+        fileNameIndexService.addFiles(fileInfoList);
+        nameSuggestService.addFiles(fileInfoList);
+        contentIndexService.submitFiles(fileInfoList);
+        return result;
+    }
+
+    /**
+     * 校验并写入单个文件的内容，生成待插入的文件记录
+     *
+     * @param file     文件
+     * @param folderId 文件夹ID
+     * @param userId   用户ID
+     * @return 文件信息（尚未保存）
+     * @throws Exception 校验或写入失败
+     */
+    private FileInfo storeFile(MultipartFile file, Long folderId, Long userId) throws Exception {
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("文件为空");
+        }
+        if (file.getSize() > maxSize) {
+            throw new IllegalArgumentException("文件大小超过限制");
+        }
+
+        FileBlob blob;
+        try (InputStream inputStream = file.getInputStream()) {
+            blob = fileBlobService.storeBlob(inputStream);
+        }
+
+        String originalName = file.getOriginalFilename();
+        String extension = FileUtils.getExtension(originalName);
+        String mimeType = FileUtils.getMimeType(extension);
+        FileInfo fileInfo = new FileInfo();
+        fileInfo.setFileName(FileUtils.generateUniqueFileName(originalName));
+        fileInfo.setOriginalName(originalName);
+        fileInfo.setFilePath(blob.getBlobPath());
+        fileInfo.setFileUrl(storageService.getFileUrl(blob.getBlobPath()));
+        fileInfo.setFileExt(extension);
+        fileInfo.setFileSize(blob.getFileSize());
+        fileInfo.setFileType(FileUtils.getFileTypeFromMimeType(mimeType));
+        fileInfo.setMimeType(mimeType);
+        fileInfo.setFileMd5(blob.getFileMd5());
+        fileInfo.setStorageType(blob.getStorageType());
+        fileInfo.setFolderId(folderId);
+        fileInfo.setCreateUserId(userId);
+        fileInfo.setBelongType(0);
+        fileInfo.setStatus(FileConstants.FILE_STATUS_NORMAL);
+        fileInfo.setIsFavorite(0);
+        fileInfo.setIsShared(0);
+        fileInfo.setIsPublic(0);
+        fileInfo.setDownloadCount(0);
+        fileInfo.setPreviewCount(0);
+        fileInfo.setCreateTime(LocalDateTime.now());
+        return fileInfo;
+    }
+}
@@ -0,0 +1,194 @@
+package com.filemanager.service.impl;
+
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.filemanager.entity.FileBlob;
+import com.filemanager.entity.FileInfo;
+import com.filemanager.mapper.FileBlobMapper;
+import com.filemanager.mapper.FileInfoMapper;
+import com.filemanager.service.FileBlobService;
+import com.filemanager.service.StorageService;
+import com.filemanager.utils.FileUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * 文件内容服务实现
+ * 物理路径带有随机后缀，同一MD5的内容被回收后再次上传会写入新路径，
+ * 避免回收中的旧文件与新写入的文件相互覆盖
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileBlobServiceImpl extends ServiceImpl<FileBlobMapper, FileBlob> implements FileBlobService {
+
+    /**
+     * 内容存储目录
+     */
+    private static final String BLOB_DIR = "blobs/";
+
+    /**
+     * 上传暂存目录
+     */
+    private static final String STAGING_DIR = ".staging/";
+
+    /**
+     * 并发写入同一内容时的最大重试次数
+     */
+    private static final int MAX_RETRIES = 3;
+
+    private final StorageService storageService;
+
+    private final FileInfoMapper fileInfoMapper;
+
+    @Override
+    public FileBlob storeBlob(InputStream inputStream) {
+        // 先写入暂存区，写入的同时计算MD5
+        String stagingPath = STAGING_DIR + UUID.randomUUID().toString().replace("-", "");
+        MessageDigest digest = FileUtils.createMD5Digest();
+        long fileSize = storageService.uploadFile(inputStream, stagingPath, digest);
+        String fileMd5 = FileUtils.bytesToHex(digest.digest());
+
+        for (int i = 0; i < MAX_RETRIES; i++) {
+            // 内容已存在：只增加引用计数，丢弃暂存文件
+            if (baseMapper.incrementRefCount(fileMd5, 1) > 0) {
+                storageService.deleteFile(stagingPath);
+                return baseMapper.selectByMd5(fileMd5);
+            }
+
+            String blobPath = generateBlobPath(fileMd5);
+            if (!storageService.moveFile(stagingPath, blobPath)) {
+                throw new RuntimeException("保存文件内容失败");
+            }
+
+            FileBlob blob = new FileBlob();
+            blob.setFileMd5(fileMd5);
+            blob.setFileSize(fileSize);
+            blob.setBlobPath(blobPath);
+            blob.setStorageType(storageService.getStorageType());
+            blob.setRefCount(1);
+            blob.setCreateTime(LocalDateTime.now());
+            try {
+                baseMapper.insert(blob);
+                return blob;
+            } catch (DuplicateKeyException e) {
+                // 其他请求同时写入了相同内容，或旧内容正在回收，撤回后重试
+                storageService.moveFile(blobPath, stagingPath);
+            }
+        }
+
+        storageService.deleteFile(stagingPath);
+        throw new RuntimeException("保存文件内容失败，请稍后重试");
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public FileInfo createReference(FileInfo source, Long folderId, Long userId) {
+        if (source == null || StringUtils.isBlank(source.getFileMd5())) {
+            return null;
+        }
+
+        FileBlob blob = acquire(source);
+        if (blob == null) {
+            return null;
+        }
+
+        FileInfo fileInfo = new FileInfo();
+        fileInfo.setFileName(source.getFileName());
+        fileInfo.setOriginalName(source.getOriginalName());
+        fileInfo.setFilePath(blob.getBlobPath());
+        fileInfo.setFileUrl(storageService.getFileUrl(blob.getBlobPath()));
+        fileInfo.setFileExt(source.getFileExt());
+        fileInfo.setFileSize(source.getFileSize());
+        fileInfo.setFileType(source.getFileType());
+        fileInfo.setMimeType(source.getMimeType());
+        fileInfo.setStorageType(source.getStorageType());
+        fileInfo.setFolderId(folderId);
+        fileInfo.setCreateUserId(userId);
+        fileInfo.setBelongType(0);
+        fileInfo.setFileMd5(source.getFileMd5());
+        fileInfo.setStatus(source.getStatus());
+        fileInfo.setIsFavorite(0);
+        fileInfo.setIsShared(0);
+        fileInfo.setIsPublic(0);
+        fileInfo.setDownloadCount(0);
+        fileInfo.setPreviewCount(0);
+        fileInfo.setCreateTime(LocalDateTime.now());
+        fileInfoMapper.insert(fileInfo);
+        return fileInfo;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean release(FileInfo fileInfo) {
+        FileBlob blob = StringUtils.isBlank(fileInfo.getFileMd5()) ? null : baseMapper.selectByMd5(fileInfo.getFileMd5());
+
+        // 未纳入内容存储的历史文件：秒传等方式可能使多条记录共享同一物理文件，没有其他记录引用时才删除
+        if (blob == null || !Objects.equals(blob.getBlobPath(), fileInfo.getFilePath())) {
+            if (fileInfoMapper.countByFilePath(fileInfo.getFileMd5(), fileInfo.getFilePath()) > 0) {
+                return true;
+            }
+            return storageService.deleteFile(fileInfo.getFilePath());
+        }
+
+        baseMapper.decrementRefCount(blob.getFileMd5());
+        if (baseMapper.deleteUnreferenced(blob.getFileMd5()) > 0) {
+            log.info("回收文件内容: {}", blob.getBlobPath());
+            return storageService.deleteFile(blob.getBlobPath());
+        }
+        return true;
+    }
+
+    /**
+     * 为源文件的内容增加一次引用，历史文件首次被引用时纳入内容存储，
+     * 引用计数为已引用该物理文件的全部记录数加上新记录
+     *
+     * @param source 源文件
+     * @return 文件内容，无法引用时返回null
+     */
+    private FileBlob acquire(FileInfo source) {
+        String fileMd5 = source.getFileMd5();
+        for (int i = 0; i < MAX_RETRIES; i++) {
+            if (baseMapper.incrementRefCount(fileMd5, 1) > 0) {
+                return baseMapper.selectByMd5(fileMd5);
+            }
+
+            // 已共享该物理文件的记录（包括源文件本身）各计一次引用，新记录再计一次
+            int existing = fileInfoMapper.countByFilePath(fileMd5, source.getFilePath());
+            FileBlob blob = new FileBlob();
+            blob.setFileMd5(fileMd5);
+            blob.setFileSize(source.getFileSize());
+            blob.setBlobPath(source.getFilePath());
+            blob.setStorageType(source.getStorageType());
+            blob.setRefCount(Math.max(existing, 1) + 1);
+            blob.setCreateTime(LocalDateTime.now());
+            try {
+                baseMapper.insert(blob);
+                return blob;
+            } catch (DuplicateKeyException e) {
+                log.debug("文件内容已被并发纳入，重试引用: {}", fileMd5);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 生成内容存储路径，按MD5前缀分两级目录
+     *
+     * @param fileMd5 文件MD5值
+     * @return 存储路径
+     */
+    private String generateBlobPath(String fileMd5) {
+        String suffix = UUID.randomUUID().toString().replace("-", "").substring(0, 8);
+        return BLOB_DIR + fileMd5.substring(0, 2) + "/" + fileMd5.substring(2, 4) + "/" + fileMd5 + "-" + suffix;
+    }
+}
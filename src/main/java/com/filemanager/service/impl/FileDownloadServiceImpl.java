@@ -0,0 +1,337 @@
+package com.filemanager.service.impl;
+
+import com.filemanager.constant.FileConstants;
+import com.filemanager.entity.FileInfo;
+import com.filemanager.service.FileDownloadService;
+import com.filemanager.service.StorageObject;
+import com.filemanager.service.StorageService;
+import com.filemanager.utils.FileUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 文件下载服务实现
+ * 按固定大小的缓冲区将存储内容复制到响应，每个下载占用的堆内存与文件大小无关；
+ * 零拷贝模式下本地文件交给容器sendfile，容器不支持时回退为经JVM缓冲区写出的transferTo
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileDownloadServiceImpl implements FileDownloadService {
+
+    /**
+     * 复制缓冲区大小
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 单个请求允许的最大区间数，超出时返回完整内容
+     */
+    private static final int MAX_RANGES = 16;
+
+    /**
+     * Tomcat sendfile相关的请求属性
+     */
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    private static final String CRLF = "\r\n";
+
+    /**
+     * 是否已提示过容器未提供sendfile
+     */
+    private final AtomicBoolean sendfileWarned = new AtomicBoolean();
+
+    private final StorageService storageService;
+
+    @Value("${file.download.mode:" + FileConstants.DOWNLOAD_MODE_ZERO_COPY + "}")
+    private String downloadMode;
+
+    @Override
+    public void download(FileInfo fileInfo, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        serve(fileInfo, "attachment", request, response);
+    }
+
+    @Override
+    public void preview(FileInfo fileInfo, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        serve(fileInfo, "inline", request, response);
+    }
+
+    /**
+     * 输出文件内容，处理Range和If-Range请求头
+     *
+     * @param fileInfo    文件信息
+     * @param disposition 内容展示方式（attachment/inline）
+     * @param request     HTTP请求对象
+     * @param response    HTTP响应对象
+     * @throws IOException IO异常
+     */
+    private void serve(FileInfo fileInfo, String disposition,
+                       HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try (StorageObject object = storageService.getObject(fileInfo.getFilePath())) {
+            if (object == null) {
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+
+            long length = object.getLength();
+            String contentType = FileUtils.getMimeType(fileInfo.getFileExt());
+            String eTag = buildETag(fileInfo, length);
+            long lastModified = getLastModified(fileInfo);
+
+            String encodedFileName = URLEncoder.encode(fileInfo.getOriginalName(), StandardCharsets.UTF_8.name())
+                    .replaceAll("\\+", "%20");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, disposition + "; filename=\"" + encodedFileName + "\"");
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            response.setHeader(HttpHeaders.ETAG, eTag);
+            if (lastModified > 0) {
+                response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+            }
+
+            List<long[]> ranges;
+            try {
+                ranges = resolveRanges(request, length, eTag, lastModified);
+            } catch (IllegalArgumentException e) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+
+            if (ranges == null) {
+                response.setContentType(contentType);
+                response.setContentLengthLong(length);
+                writeContent(object, 0, length, request, response);
+            } else if (ranges.size() == 1) {
+                long start = ranges.get(0)[0];
+                long end = ranges.get(0)[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setContentType(contentType);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+                response.setContentLengthLong(end - start + 1);
+                writeContent(object, start, end - start + 1, request, response);
+            } else {
+                writeMultipartRanges(object, ranges, contentType, length, response);
+            }
+        }
+    }
+
+    /**
+     * 解析请求的字节区间
+     *
+     * @param request      HTTP请求对象
+     * @param length       文件长度
+     * @param eTag         当前ETag
+     * @param lastModified 最后修改时间（毫秒）
+     * @return 区间列表（[start, end]，均包含），返回null表示输出完整内容（包括Range请求头语法无效）
+     * @throws IllegalArgumentException 区间语法有效但无法满足时抛出
+     */
+    private List<long[]> resolveRanges(HttpServletRequest request, long length, String eTag, long lastModified) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (StringUtils.isBlank(rangeHeader) || !"GET".equalsIgnoreCase(request.getMethod())) {
+            return null;
+        }
+
+        // If-Range不匹配时说明客户端缓存的内容已变化，需返回完整内容
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (StringUtils.isNotBlank(ifRange) && !isIfRangeMatched(request, ifRange, eTag, lastModified)) {
+            return null;
+        }
+
+        List<HttpRange> httpRanges;
+        try {
+            httpRanges = HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            // 语法无效的Range请求头（如非bytes单位、结束位置小于起始位置）按RFC 7233忽略，返回完整内容
+            log.debug("忽略无效的Range请求头: {}", rangeHeader);
+            return null;
+        }
+        if (httpRanges.isEmpty() || httpRanges.size() > MAX_RANGES) {
+            return null;
+        }
+        if (length == 0) {
+            throw new IllegalArgumentException("空文件不支持区间请求");
+        }
+
+        List<long[]> ranges = new ArrayList<>(httpRanges.size());
+        long total = 0;
+        for (HttpRange httpRange : httpRanges) {
+            long start = httpRange.getRangeStart(length);
+            long end = httpRange.getRangeEnd(length);
+            if (start >= length || start > end) {
+                throw new IllegalArgumentException("区间无法满足: " + httpRange);
+            }
+            ranges.add(new long[]{start, end});
+            total += end - start + 1;
+        }
+
+        // 区间总量超过文件本身时直接返回完整内容，避免被用于放大流量
+        return total > length ? null : ranges;
+    }
+
+    /**
+     * 判断If-Range条件是否成立
+     *
+     * @param request      HTTP请求对象
+     * @param ifRange      If-Range请求头
+     * @param eTag         当前ETag
+     * @param lastModified 最后修改时间（毫秒）
+     * @return 是否成立
+     */
+    private boolean isIfRangeMatched(HttpServletRequest request, String ifRange, String eTag, long lastModified) {
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // If-Range只允许强校验
+            return ifRange.equals(eTag);
+        }
+        try {
+            long ifRangeTime = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return lastModified > 0 && lastModified / 1000 == ifRangeTime / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 以multipart/byteranges格式输出多个区间
+     *
+     * @param object      存储对象
+     * @param ranges      区间列表
+     * @param contentType 内容类型
+     * @param length      文件长度
+     * @param response    HTTP响应对象
+     * @throws IOException IO异常
+     */
+    private void writeMultipartRanges(StorageObject object, List<long[]> ranges, String contentType,
+                                      long length, HttpServletResponse response) throws IOException {
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+
+        ServletOutputStream outputStream = response.getOutputStream();
+        for (long[] range : ranges) {
+            String partHeader = CRLF + "--" + boundary + CRLF
+                    + HttpHeaders.CONTENT_TYPE + ": " + contentType + CRLF
+                    + HttpHeaders.CONTENT_RANGE + ": bytes " + range[0] + "-" + range[1] + "/" + length + CRLF
+                    + CRLF;
+            outputStream.write(partHeader.getBytes(StandardCharsets.US_ASCII));
+            copy(object, range[0], range[1] - range[0] + 1, outputStream);
+        }
+        outputStream.write((CRLF + "--" + boundary + "--" + CRLF).getBytes(StandardCharsets.US_ASCII));
+        outputStream.flush();
+    }
+
+    /**
+     * 按下载模式写出文件内容
+     *
+     * @param object   存储对象
+     * @param position 起始位置
+     * @param count    字节数
+     * @param request  HTTP请求对象
+     * @param response HTTP响应对象
+     * @throws IOException IO异常
+     */
+    private void writeContent(StorageObject object, long position, long count,
+                              HttpServletRequest request, HttpServletResponse response) throws IOException {
+        File localFile = object.getLocalFile();
+        if (!FileConstants.DOWNLOAD_MODE_ZERO_COPY.equals(downloadMode) || localFile == null) {
+            copy(object, position, count, response.getOutputStream());
+            response.getOutputStream().flush();
+            return;
+        }
+
+        // 容器支持sendfile时由内核直接完成复制，JVM不接触文件内容
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+            request.setAttribute(SENDFILE_FILENAME_ATTR, localFile.getAbsolutePath());
+            request.setAttribute(SENDFILE_START_ATTR, position);
+            request.setAttribute(SENDFILE_END_ATTR, position + count);
+            return;
+        }
+
+        // 回退路径：容器未提供sendfile（如未使用NIO连接器、启用了SSL或压缩）时，
+        // 输出流包装成的通道不是文件或套接字通道，transferTo只能经JVM缓冲区逐段复制，并非零拷贝
+        if (sendfileWarned.compareAndSet(false, true)) {
+            log.warn("容器未提供sendfile，零拷贝下载退化为缓冲区复制");
+        }
+        log.debug("未使用sendfile下载: {}", localFile);
+        OutputStream outputStream = response.getOutputStream();
+        long transferred = object.transferTo(position, count, Channels.newChannel(outputStream));
+        if (transferred < count) {
+            throw new EOFException("文件内容比预期短: 期望" + count + "字节，实际" + transferred + "字节");
+        }
+        outputStream.flush();
+    }
+
+    /**
+     * 使用固定大小的缓冲区按位置复制指定区间的内容
+     *
+     * @param object       存储对象
+     * @param position     起始位置
+     * @param count        字节数
+     * @param outputStream 输出流
+     * @throws IOException IO异常
+     */
+    private void copy(StorageObject object, long position, long count, OutputStream outputStream) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long total = 0;
+        while (total < count) {
+            buffer.clear();
+            buffer.limit((int) Math.min(BUFFER_SIZE, count - total));
+            int length = object.read(buffer, position + total);
+            if (length == -1) {
+                // 响应头已声明长度，继续返回会得到被截断却看似成功的响应，抛出异常由容器中断连接
+                throw new EOFException("文件内容比预期短: 期望" + count + "字节，实际" + total + "字节");
+            }
+            outputStream.write(buffer.array(), 0, length);
+            total += length;
+        }
+    }
+
+    /**
+     * 生成文件的强ETag，优先使用文件MD5
+     *
+     * @param fileInfo 文件信息
+     * @param length   文件长度
+     * @return ETag
+     */
+    private String buildETag(FileInfo fileInfo, long length) {
+        if (StringUtils.isNotBlank(fileInfo.getFileMd5())) {
+            return "\"" + fileInfo.getFileMd5() + "\"";
+        }
+        return "\"" + fileInfo.getId() + "-" + length + "-" + getLastModified(fileInfo) + "\"";
+    }
+
+    /**
+     * 获取文件最后修改时间
+     *
+     * @param fileInfo 文件信息
+     * @return 最后修改时间（毫秒），未知时返回0
+     */
+    private long getLastModified(FileInfo fileInfo) {
+        LocalDateTime time = fileInfo.getUpdateTime() != null ? fileInfo.getUpdateTime() : fileInfo.getCreateTime();
+        return time == null ? 0 : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
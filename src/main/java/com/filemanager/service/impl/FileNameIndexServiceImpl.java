@@ -0,0 +1,679 @@
+package com.filemanager.service.impl;
+
+import com.filemanager.constant.FileConstants;
+import com.filemanager.entity.FileInfo;
+import com.filemanager.mapper.FileInfoMapper;
+import com.filemanager.service.FileNameIndexService;
+import com.filemanager.util.TransactionUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 文件名索引服务实现
+ * 每个用户一份索引：文件ID到规范化文件名的正排表，以及二元组（bigram）到有序文件ID列表的倒排表。
+ * 中文文件名常用两个字的关键词搜索，因此使用二元组而不是三元组；单字关键词扫描该用户的正排表。
+ * 持久化为每个用户一个段文件（正排表快照）加一个追加写的变更日志，日志达到阈值或停机时合并为新段文件；
+ * 倒排表在加载时由正排表重新生成
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileNameIndexServiceImpl implements FileNameIndexService {
+
+    /**
+     * 索引目录（位于上传根目录下）
+     */
+    private static final String INDEX_DIR = ".index/filename";
+
+    /**
+     * 索引完整标记文件，重建完成后写入，不存在时启动时重建
+     */
+    private static final String COMPLETE_MARKER = "complete";
+
+    private static final String SEGMENT_PREFIX = "user-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String LOG_SUFFIX = ".log";
+
+    private static final int SEGMENT_MAGIC = 0x464E4958;
+    private static final int SEGMENT_VERSION = 1;
+
+    private static final byte OP_ADD = 1;
+    private static final byte OP_REMOVE = 2;
+
+    /**
+     * 重建时每批读取的记录数
+     */
+    private static final int REBUILD_BATCH_SIZE = 5000;
+
+    private final FileInfoMapper fileInfoMapper;
+
+    @Value("${file.upload.path:${user.home}/file-manager/upload}")
+    private String uploadPath;
+
+    @Value("${file.search.max-results:200}")
+    private int maxResults;
+
+    @Value("${file.search.index.compact-threshold:10000}")
+    private int compactThreshold;
+
+    /**
+     * 是否使用索引搜索，关闭时搜索使用数据库查询
+     */
+    @Value("${file.search.index.enabled:true}")
+    private boolean searchEnabled;
+
+    /**
+     * 各用户的索引
+     */
+    private final Map<Long, UserIndex> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * 索引是否已加载完成
+     */
+    private volatile boolean ready;
+
+    @Override
+    public List<FileInfo> search(String keyword, Long userId) {
+        if (StringUtils.isBlank(keyword)) {
+            return Collections.emptyList();
+        }
+        if (!searchEnabled || !ready) {
+            return fileInfoMapper.searchFiles(keyword, userId);
+        }
+
+        UserIndex index = indexes.get(userId);
+        if (index == null) {
+            return Collections.emptyList();
+        }
+        List<Long> ids = index.search(normalize(keyword.trim()), maxResults);
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // 以数据库为准过滤掉索引中可能残留的记录，并保持索引给出的顺序
+        Map<Long, FileInfo> files = fileInfoMapper.selectOwnedFilesByIds(ids, userId, FileConstants.FILE_STATUS_NORMAL)
+                .stream().collect(Collectors.toMap(FileInfo::getId, Function.identity()));
+        List<FileInfo> result = new ArrayList<>(files.size());
+        for (Long id : ids) {
+            FileInfo fileInfo = files.get(id);
+            if (fileInfo != null) {
+                result.add(fileInfo);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void addFiles(Collection<FileInfo> files) {
+        if (files == null || files.isEmpty()) {
+            return;
+        }
+        List<FileInfo> snapshot = new ArrayList<>(files);
+        TransactionUtils.afterCommit(() -> {
+            Map<Long, List<FileInfo>> byUser = snapshot.stream()
+                    .filter(file -> file.getId() != null && file.getCreateUserId() != null && file.getOriginalName() != null)
+                    .collect(Collectors.groupingBy(FileInfo::getCreateUserId));
+            byUser.forEach((userId, userFiles) -> {
+                UserIndex index = getOrCreate(userId);
+                index.lock.writeLock().lock();
+                try {
+                    List<IndexRecord> records = new ArrayList<>(userFiles.size());
+                    for (FileInfo file : userFiles) {
+                        String name = normalize(file.getOriginalName());
+                        index.add(file.getId(), name);
+                        records.add(new IndexRecord(OP_ADD, file.getId(), name));
+                    }
+                    appendLog(userId, index, records);
+                } finally {
+                    index.lock.writeLock().unlock();
+                }
+            });
+        });
+    }
+
+    @Override
+    public void removeFiles(Long userId, Collection<Long> fileIds) {
+        if (userId == null || fileIds == null || fileIds.isEmpty()) {
+            return;
+        }
+        List<Long> snapshot = new ArrayList<>(fileIds);
+        TransactionUtils.afterCommit(() -> {
+            UserIndex index = indexes.get(userId);
+            if (index == null) {
+                return;
+            }
+            index.lock.writeLock().lock();
+            try {
+                List<IndexRecord> records = new ArrayList<>(snapshot.size());
+                for (Long fileId : snapshot) {
+                    if (index.remove(fileId)) {
+                        records.add(new IndexRecord(OP_REMOVE, fileId, null));
+                    }
+                }
+                appendLog(userId, index, records);
+            } finally {
+                index.lock.writeLock().unlock();
+            }
+        });
+    }
+
+    @Override
+    public void load() {
+        Path indexDir = getIndexDir();
+        if (!Files.exists(indexDir.resolve(COMPLETE_MARKER))) {
+            log.info("文件名索引不存在或不完整，开始重建");
+            rebuild();
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(indexDir,
+                SEGMENT_PREFIX + "*{" + SEGMENT_SUFFIX + "," + LOG_SUFFIX + "}")) {
+            Set<Long> userIds = new LinkedHashSet<>();
+            for (Path path : stream) {
+                String fileName = path.getFileName().toString();
+                String userId = fileName.substring(SEGMENT_PREFIX.length(), fileName.lastIndexOf('.'));
+                userIds.add(Long.valueOf(userId));
+            }
+            for (Long userId : userIds) {
+                UserIndex index = getOrCreate(userId);
+                index.lock.writeLock().lock();
+                try {
+                    readSegment(userId, index);
+                } finally {
+                    index.lock.writeLock().unlock();
+                }
+            }
+            ready = true;
+            log.info("文件名索引加载完成，用户数: {}，耗时: {}ms", userIds.size(), System.currentTimeMillis() - start);
+        } catch (IOException | RuntimeException e) {
+            log.warn("加载文件名索引失败，开始重建", e);
+            rebuild();
+        }
+    }
+
+    @Override
+    public synchronized void rebuild() {
+        ready = false;
+        long start = System.currentTimeMillis();
+        Path indexDir = getIndexDir();
+        try {
+            deleteIndexFiles(indexDir);
+            Files.createDirectories(indexDir);
+        } catch (IOException e) {
+            log.error("清理文件名索引目录失败", e);
+            return;
+        }
+        indexes.clear();
+
+        long lastId = 0;
+        long total = 0;
+        while (true) {
+            List<FileInfo> batch = fileInfoMapper.selectFileNameBatch(FileConstants.FILE_STATUS_NORMAL, lastId,
+                    REBUILD_BATCH_SIZE);
+            if (batch.isEmpty()) {
+                break;
+            }
+            lastId = batch.get(batch.size() - 1).getId();
+            for (FileInfo file : batch) {
+                if (file.getCreateUserId() == null || file.getOriginalName() == null) {
+                    continue;
+                }
+                UserIndex index = getOrCreate(file.getCreateUserId());
+                index.lock.writeLock().lock();
+                try {
+                    index.add(file.getId(), normalize(file.getOriginalName()));
+                } finally {
+                    index.lock.writeLock().unlock();
+                }
+            }
+            total += batch.size();
+        }
+
+        try {
+            for (Map.Entry<Long, UserIndex> entry : indexes.entrySet()) {
+                UserIndex index = entry.getValue();
+                index.lock.writeLock().lock();
+                try {
+                    writeSegment(entry.getKey(), index);
+                } finally {
+                    index.lock.writeLock().unlock();
+                }
+            }
+            Files.write(indexDir.resolve(COMPLETE_MARKER), new byte[0]);
+        } catch (IOException e) {
+            // 内存中的索引仍然可用，下次启动时重建
+            log.error("持久化文件名索引失败", e);
+        }
+        ready = true;
+        log.info("文件名索引重建完成，文件数: {}，耗时: {}ms", total, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 停机时将变更日志合并为段文件，加快下次加载
+     */
+    @PreDestroy
+    public void compactAll() {
+        indexes.forEach((userId, index) -> {
+            index.lock.writeLock().lock();
+            try {
+                if (index.pendingLogRecords > 0) {
+                    writeSegment(userId, index);
+                }
+            } catch (IOException e) {
+                log.warn("合并文件名索引失败: 用户{}", userId, e);
+            } finally {
+                index.lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * 获取或创建用户索引
+     *
+     * @param userId 用户ID
+     * @return 用户索引
+     */
+    private UserIndex getOrCreate(Long userId) {
+        return indexes.computeIfAbsent(userId, key -> new UserIndex());
+    }
+
+    /**
+     * 规范化文件名，搜索不区分大小写
+     *
+     * @param name 文件名
+     * @return 规范化后的文件名
+     */
+    private static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private Path getIndexDir() {
+        return Paths.get(uploadPath, INDEX_DIR);
+    }
+
+    private Path getSegmentPath(Long userId) {
+        return getIndexDir().resolve(SEGMENT_PREFIX + userId + SEGMENT_SUFFIX);
+    }
+
+    private Path getLogPath(Long userId) {
+        return getIndexDir().resolve(SEGMENT_PREFIX + userId + LOG_SUFFIX);
+    }
+
+    /**
+     * 追加变更日志，达到阈值时合并为段文件（调用方持有写锁）
+     * 写入失败时删除完整标记，下次启动时重建
+     *
+     * @param userId  用户ID
+     * @param index   用户索引
+     * @param records 变更记录
+     */
+    private void appendLog(Long userId, UserIndex index, List<IndexRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        try {
+            Files.createDirectories(getIndexDir());
+            try (OutputStream outputStream = Files.newOutputStream(getLogPath(userId),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream))) {
+                for (IndexRecord record : records) {
+                    out.writeByte(record.op);
+                    out.writeLong(record.fileId);
+                    if (record.op == OP_ADD) {
+                        out.writeUTF(record.name);
+                    }
+                }
+            }
+            index.pendingLogRecords += records.size();
+            if (index.pendingLogRecords >= compactThreshold) {
+                writeSegment(userId, index);
+            }
+        } catch (IOException e) {
+            log.error("写入文件名索引日志失败: 用户{}", userId, e);
+            try {
+                Files.deleteIfExists(getIndexDir().resolve(COMPLETE_MARKER));
+            } catch (IOException ex) {
+                log.error("删除文件名索引完整标记失败", ex);
+            }
+        }
+    }
+
+    /**
+     * 将用户索引的正排表写为新的段文件并清空变更日志（调用方持有写锁）
+     * 先写临时文件并落盘，再原子重命名，中途退出不会损坏已有段文件
+     *
+     * @param userId 用户ID
+     * @param index  用户索引
+     * @throws IOException IO异常
+     */
+    private void writeSegment(Long userId, UserIndex index) throws IOException {
+        Path segmentPath = getSegmentPath(userId);
+        Path tempPath = segmentPath.resolveSibling(segmentPath.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Channels.newOutputStream(channel)));
+            out.writeInt(SEGMENT_MAGIC);
+            out.writeInt(SEGMENT_VERSION);
+            out.writeInt(index.names.size());
+            for (Map.Entry<Long, String> entry : index.names.entrySet()) {
+                out.writeLong(entry.getKey());
+                out.writeUTF(entry.getValue());
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(tempPath, segmentPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        Files.deleteIfExists(getLogPath(userId));
+        index.pendingLogRecords = 0;
+    }
+
+    /**
+     * 读取用户的段文件并重放变更日志（调用方持有写锁）
+     *
+     * @param userId 用户ID
+     * @param index  用户索引
+     * @throws IOException IO异常或文件格式不正确
+     */
+    private void readSegment(Long userId, UserIndex index) throws IOException {
+        Path segmentPath = getSegmentPath(userId);
+        if (Files.exists(segmentPath)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segmentPath)))) {
+                if (in.readInt() != SEGMENT_MAGIC || in.readInt() != SEGMENT_VERSION) {
+                    throw new IOException("文件名索引段文件格式不正确: " + segmentPath);
+                }
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    index.add(in.readLong(), in.readUTF());
+                }
+            }
+        }
+
+        Path logPath = getLogPath(userId);
+        if (!Files.exists(logPath)) {
+            return;
+        }
+        // 日志在合并阈值内，整体读入内存，便于确定最后一条完整记录的位置
+        byte[] bytes = Files.readAllBytes(logPath);
+        ByteArrayInputStream buffer = new ByteArrayInputStream(bytes);
+        DataInputStream in = new DataInputStream(buffer);
+        int validLength = 0;
+        try {
+            while (validLength < bytes.length) {
+                byte op = in.readByte();
+                long fileId = in.readLong();
+                if (op == OP_ADD) {
+                    index.add(fileId, in.readUTF());
+                } else if (op == OP_REMOVE) {
+                    index.remove(fileId);
+                } else {
+                    throw new IOException("文件名索引日志格式不正确: " + logPath);
+                }
+                index.pendingLogRecords++;
+                validLength = bytes.length - buffer.available();
+            }
+        } catch (EOFException e) {
+            // 最后一条记录写入时进程退出：截掉不完整的部分，之后追加的记录才能对齐
+            log.warn("文件名索引日志末尾不完整，截断到 {} 字节: {}", validLength, logPath);
+            try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+                channel.force(true);
+            }
+        }
+    }
+
+    /**
+     * 删除索引目录下的全部文件
+     *
+     * @param indexDir 索引目录
+     * @throws IOException IO异常
+     */
+    private void deleteIndexFiles(Path indexDir) throws IOException {
+        if (!Files.isDirectory(indexDir)) {
+            return;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(indexDir)) {
+            for (Path path : stream) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * 索引变更记录
+     */
+    private static class IndexRecord {
+
+        private final byte op;
+
+        private final long fileId;
+
+        private final String name;
+
+        IndexRecord(byte op, long fileId, String name) {
+            this.op = op;
+            this.fileId = fileId;
+            this.name = name;
+        }
+    }
+
+    /**
+     * 单个用户的文件名索引
+     */
+    private static class UserIndex {
+
+        /**
+         * 文件ID到规范化文件名
+         */
+        private final Map<Long, String> names = new HashMap<>();
+
+        /**
+         * 二元组到有序文件ID列表
+         */
+        private final Map<Integer, PostingList> postings = new HashMap<>();
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        /**
+         * 尚未合并到段文件的日志记录数
+         */
+        private int pendingLogRecords;
+
+        /**
+         * 加入或更新文件（调用方持有写锁）
+         */
+        void add(long fileId, String name) {
+            String old = names.put(fileId, name);
+            if (old != null) {
+                if (old.equals(name)) {
+                    return;
+                }
+                unindex(fileId, old);
+            }
+            for (int gram : grams(name)) {
+                postings.computeIfAbsent(gram, key -> new PostingList()).add(fileId);
+            }
+        }
+
+        /**
+         * 移除文件（调用方持有写锁）
+         *
+         * @return 文件是否在索引中
+         */
+        boolean remove(long fileId) {
+            String old = names.remove(fileId);
+            if (old == null) {
+                return false;
+            }
+            unindex(fileId, old);
+            return true;
+        }
+
+        /**
+         * 搜索包含关键词的文件
+         *
+         * @param keyword 规范化后的关键词
+         * @param limit   最大结果数
+         * @return 文件ID列表，按ID倒序
+         */
+        List<Long> search(String keyword, int limit) {
+            lock.readLock().lock();
+            try {
+                int[] grams = grams(keyword);
+                if (grams.length == 0) {
+                    return scan(keyword, limit);
+                }
+
+                // 从最短的倒排列表开始求交集，再用正排表确认关键词连续出现
+                List<PostingList> lists = new ArrayList<>(grams.length);
+                for (int gram : grams) {
+                    PostingList list = postings.get(gram);
+                    if (list == null) {
+                        return Collections.emptyList();
+                    }
+                    lists.add(list);
+                }
+                lists.sort(Comparator.comparingInt(list -> list.size));
+                PostingList shortest = lists.get(0);
+
+                List<Long> result = new ArrayList<>();
+                for (int i = shortest.size - 1; i >= 0 && result.size() < limit; i--) {
+                    long fileId = shortest.ids[i];
+                    boolean matched = true;
+                    for (int j = 1; j < lists.size() && matched; j++) {
+                        matched = lists.get(j).contains(fileId);
+                    }
+                    if (matched && names.get(fileId).contains(keyword)) {
+                        result.add(fileId);
+                    }
+                }
+                return result;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * 单字关键词没有二元组，直接扫描正排表
+         */
+        private List<Long> scan(String keyword, int limit) {
+            List<Long> matched = new ArrayList<>();
+            for (Map.Entry<Long, String> entry : names.entrySet()) {
+                if (entry.getValue().contains(keyword)) {
+                    matched.add(entry.getKey());
+                }
+            }
+            matched.sort(Comparator.reverseOrder());
+            return matched.size() > limit ? new ArrayList<>(matched.subList(0, limit)) : matched;
+        }
+
+        private void unindex(long fileId, String name) {
+            for (int gram : grams(name)) {
+                PostingList list = postings.get(gram);
+                if (list != null) {
+                    list.remove(fileId);
+                    if (list.size == 0) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+        }
+
+        /**
+         * 提取去重后的二元组，两个字符打包为一个int
+         */
+        private static int[] grams(String text) {
+            if (text.length() < 2) {
+                return new int[0];
+            }
+            int[] grams = new int[text.length() - 1];
+            for (int i = 0; i < grams.length; i++) {
+                grams[i] = (text.charAt(i) << 16) | text.charAt(i + 1);
+            }
+            return Arrays.stream(grams).distinct().toArray();
+        }
+    }
+
+    /**
+     * 有序的文件ID列表，新文件ID递增，通常直接追加到末尾
+     */
+    private static class PostingList {
+
+        private long[] ids = new long[4];
+
+        private int size;
+
+        void add(long fileId) {
+            if (size > 0 && fileId <= ids[size - 1]) {
+                int pos = Arrays.binarySearch(ids, 0, size, fileId);
+                if (pos >= 0) {
+                    return;
+                }
+                pos = -pos - 1;
+                ensureCapacity();
+                System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+                ids[pos] = fileId;
+                size++;
+                return;
+            }
+            ensureCapacity();
+            ids[size++] = fileId;
+        }
+
+        void remove(long fileId) {
+            int pos = Arrays.binarySearch(ids, 0, size, fileId);
+            if (pos >= 0) {
+                System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+                size--;
+            }
+        }
+
+        boolean contains(long fileId) {
+            return Arrays.binarySearch(ids, 0, size, fileId) >= 0;
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.filemanager.service.impl;
+
+import com.filemanager.common.CursorPage;
+import com.filemanager.constant.FileConstants;
+import com.filemanager.dto.FileCursorQuery;
+import com.filemanager.dto.FileListItem;
+import com.filemanager.entity.FileInfo;
+import com.filemanager.mapper.FileInfoMapper;
+import com.filemanager.service.FileQueryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 文件查询服务实现
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileQueryServiceImpl implements FileQueryService {
+
+    /**
+     * 默认每页大小
+     */
+    private static final int DEFAULT_PAGE_SIZE = 50;
+
+    /**
+     * 最大每页大小
+     */
+    private static final int MAX_PAGE_SIZE = 500;
+
+    /**
+     * 游标中ID与排序值的分隔符
+     */
+    private static final String CURSOR_SEPARATOR = ":";
+
+    /**
+     * 游标中表示排序值为NULL的标记，只用于可为NULL的数值和时间字段
+     */
+    private static final String NULL_VALUE = "null";
+
+    private final FileInfoMapper fileInfoMapper;
+
+    @Override
+    public CursorPage<FileInfo> cursorPage(FileCursorQuery query) {
+        SortKey sortKey = SortKey.of(query.getSortBy());
+        boolean ascending = "asc".equalsIgnoreCase(query.getOrder());
+        int size = query.getSize() == null || query.getSize() <= 0
+                ? DEFAULT_PAGE_SIZE : Math.min(query.getSize(), MAX_PAGE_SIZE);
+
+        Long cursorId = null;
+        Object cursorValue = null;
+        if (StringUtils.isNotBlank(query.getCursor())) {
+            String decoded = decodeCursor(query.getCursor());
+            int index = decoded.indexOf(CURSOR_SEPARATOR);
+            try {
+                cursorId = Long.valueOf(decoded.substring(0, index));
+                String value = decoded.substring(index + 1);
+                cursorValue = sortKey.nullable && NULL_VALUE.equals(value) ? null : sortKey.parser.apply(value);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("无效的分页游标");
+            }
+        }
+
+        // 多查一条用于判断是否还有下一页
+        List<FileInfo> records = fileInfoMapper.selectFileCursorPage(query, FileConstants.FILE_STATUS_NORMAL,
+                sortKey.column, ascending ? "ASC" : "DESC", cursorValue, cursorId, size + 1);
+        boolean hasMore = records.size() > size;
+        if (hasMore) {
+            records = records.subList(0, size);
+        }
+
+        CursorPage<FileInfo> page = new CursorPage<>();
+        page.setRecords(records);
+        page.setHasMore(hasMore);
+        if (hasMore) {
+            FileInfo last = records.get(records.size() - 1);
+            String value = sortKey.getter.apply(last);
+            page.setNextCursor(encodeCursor(last.getId() + CURSOR_SEPARATOR + (value == null ? NULL_VALUE : value)));
+        }
+        if (Boolean.TRUE.equals(query.getWithTotal())) {
+            page.setTotal(fileInfoMapper.countFileCursorPage(query, FileConstants.FILE_STATUS_NORMAL));
+        }
+        return page;
+    }
+
+    @Override
+    public List<FileListItem> listFolderItems(Long folderId, Long userId) {
+        return fileInfoMapper.selectFileListItemsByFolder(folderId, userId, FileConstants.FILE_STATUS_NORMAL);
+    }
+
+    @Override
+    public List<FileListItem> listFavoriteItems(Long userId) {
+        return fileInfoMapper.selectFavoriteFileItems(userId, FileConstants.FILE_STATUS_NORMAL);
+    }
+
+    @Override
+    public List<FileListItem> listTrashItems(Long userId) {
+        return fileInfoMapper.selectTrashFileItems(userId, FileConstants.FILE_STATUS_RECYCLE);
+    }
+
+    /**
+     * 编码游标
+     *
+     * @param value 游标内容
+     * @return 编码后的游标
+     */
+    private String encodeCursor(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码游标
+     *
+     * @param cursor 编码后的游标
+     * @return 游标内容
+     */
+    private String decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.contains(CURSOR_SEPARATOR)) {
+                throw new IllegalArgumentException("无效的分页游标");
+            }
+            return decoded;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("无效的分页游标");
+        }
+    }
+
+    /**
+     * 支持的排序字段，列名只能取自这里，不直接使用请求参数
+     */
+    private enum SortKey {
+
+        CREATE_TIME("createTime", "create_time", true, file -> format(file.getCreateTime()), LocalDateTime::parse),
+        FILE_NAME("fileName", "original_name", false, FileInfo::getOriginalName, value -> value),
+        FILE_SIZE("fileSize", "file_size", true, file -> format(file.getFileSize()), Long::valueOf);
+
+        private final String name;
+
+        private final String column;
+
+        /**
+         * 字段是否可能为NULL，文件名不可为NULL，任何取值都按文件名处理
+         */
+        private final boolean nullable;
+
+        /**
+         * 读取排序值，NULL时返回null
+         */
+        private final Function<FileInfo, String> getter;
+
+        private final Function<String, Object> parser;
+
+        SortKey(String name, String column, boolean nullable,
+                Function<FileInfo, String> getter, Function<String, Object> parser) {
+            this.name = name;
+            this.column = column;
+            this.nullable = nullable;
+            this.getter = getter;
+            this.parser = parser;
+        }
+
+        private static String format(Object value) {
+            return value == null ? null : value.toString();
+        }
+
+        static SortKey of(String name) {
+            if (StringUtils.isBlank(name)) {
+                return CREATE_TIME;
+            }
+            for (SortKey sortKey : values()) {
+                if (sortKey.name.equals(name)) {
+                    return sortKey;
+                }
+            }
+            throw new IllegalArgumentException("不支持的排序字段: " + name);
+        }
+    }
+}
@@ -7,8 +7,12 @@ import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.filemanager.constant.FileConstants;
 import com.filemanager.entity.FileShare;
 import com.filemanager.mapper.FileShareMapper;
+import com.filemanager.service.AccessCounterService;
 import com.filemanager.service.FileShareService;
+import com.filemanager.service.ShareCacheService;
+import com.filemanager.service.ShareExpiryService;
 import com.filemanager.util.DateUtils;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
@@ -25,8 +29,15 @@ import java.util.UUID;
  */
 @Service
 @Slf4j
+@RequiredArgsConstructor
 public class FileShareServiceImpl extends ServiceImpl<FileShareMapper, FileShare> implements FileShareService {
 
+    private final AccessCounterService accessCounterService;
+
+    private final ShareCacheService shareCacheService;
+
+    private final ShareExpiryService shareExpiryService;
+
     @Override
     public FileShare createShare(FileShare fileShare, Long userId) {
         // 设置分享URL和提取码
@@ -44,13 +55,20 @@ public class FileShareServiceImpl extends ServiceImpl<FileShareMapper, FileShare
         fileShare.setAccessCount(0);
         fileShare.setCreateTime(LocalDateTime.now());
         
-        // 保存分享记录
+        // 保存分享记录，清除该链接可能存在的不存在标记
         save(fileShare);
+        shareCacheService.evict(fileShare.getShareUrl());
+        shareExpiryService.schedule(fileShare);
         return fileShare;
     }
 
     @Override
     public boolean cancelShare(Long shareId, Long userId) {
+        FileShare existShare = getById(shareId);
+        if (existShare == null || !Objects.equals(existShare.getCreateUserId(), userId)) {
+            return false;
+        }
+
         LambdaQueryWrapper<FileShare> queryWrapper = new LambdaQueryWrapper<>();
         queryWrapper.eq(FileShare::getId, shareId)
                    .eq(FileShare::getCreateUserId, userId);
@@ -58,20 +76,17 @@ public class FileShareServiceImpl extends ServiceImpl<FileShareMapper, FileShare
         FileShare fileShare = new FileShare();
         fileShare.setStatus(FileConstants.SHARE_STATUS_CANCELED);
         
-        return update(fileShare, queryWrapper);
+        boolean updated = update(fileShare, queryWrapper);
+        if (updated) {
+            shareCacheService.evict(existShare.getShareUrl());
+            shareExpiryService.cancel(shareId);
+        }
+        return updated;
     }
 
     @Override
     public FileShare getShareInfo(String shareUrl) {
-        if (StringUtils.isBlank(shareUrl)) {
-            return null;
-        }
-        
-        LambdaQueryWrapper<FileShare> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(FileShare::getShareUrl, shareUrl)
-                   .eq(FileShare::getStatus, FileConstants.SHARE_STATUS_ACTIVE);
-        
-        return getOne(queryWrapper);
+        return shareCacheService.getActiveShare(shareUrl);
     }
 
     @Override
@@ -91,13 +106,8 @@ public class FileShareServiceImpl extends ServiceImpl<FileShareMapper, FileShare
             return null;
         }
         
-        // 检查是否过期
+        // 检查是否过期，状态由ShareExpiryService到期时更新
         if (isShareExpired(share)) {
-            // 更新分享状态为已过期
-            FileShare updateShare = new FileShare();
-            updateShare.setId(share.getId());
-            updateShare.setStatus(FileConstants.SHARE_STATUS_EXPIRED);
-            updateById(updateShare);
             return null;
         }
         
@@ -111,16 +121,12 @@ public class FileShareServiceImpl extends ServiceImpl<FileShareMapper, FileShare
 
     @Override
     public boolean incrementAccessCount(Long shareId) {
-        FileShare share = getById(shareId);
-        if (share == null) {
+        if (shareId == null) {
             return false;
         }
-        
-        FileShare updateShare = new FileShare();
-        updateShare.setId(shareId);
-        updateShare.setAccessCount(share.getAccessCount() + 1);
-        
-        return updateById(updateShare);
+        // 只在内存中累加，由AccessCounterService定期批量写入
+        accessCounterService.incrementShareAccessCount(shareId);
+        return true;
     }
 
     @Override
@@ -132,8 +138,9 @@ public class FileShareServiceImpl extends ServiceImpl<FileShareMapper, FileShare
         }
         
         // 重新设置过期时间
-        if (!Objects.equals(existShare.getExpireType(), fileShare.getExpireType()) 
-                || !Objects.equals(existShare.getExpireDays(), fileShare.getExpireDays())) {
+        boolean expireChanged = !Objects.equals(existShare.getExpireType(), fileShare.getExpireType())
+                || !Objects.equals(existShare.getExpireDays(), fileShare.getExpireDays());
+        if (expireChanged) {
             setExpireTime(fileShare);
         }
         
@@ -143,7 +150,16 @@ public class FileShareServiceImpl extends ServiceImpl<FileShareMapper, FileShare
         }
         
         fileShare.setUpdateTime(LocalDateTime.now());
-        return updateById(fileShare);
+        boolean updated = updateById(fileShare);
+        if (updated) {
+            shareCacheService.evict(existShare.getShareUrl());
+            if (expireChanged) {
+                existShare.setExpireType(fileShare.getExpireType());
+                existShare.setExpireTime(fileShare.getExpireTime());
+                shareExpiryService.schedule(existShare);
+            }
+        }
+        return updated;
     }
     
     /**
@@ -0,0 +1,292 @@
+package com.filemanager.service.impl;
+
+import cn.hutool.core.collection.ListUtil;
+import com.filemanager.constant.FileConstants;
+import com.filemanager.entity.FileFolder;
+import com.filemanager.entity.FileInfo;
+import com.filemanager.entity.FolderStat;
+import com.filemanager.mapper.FileFolderMapper;
+import com.filemanager.mapper.FileInfoMapper;
+import com.filemanager.mapper.FolderClosureMapper;
+import com.filemanager.service.FileNameIndexService;
+import com.filemanager.service.FolderService;
+import com.filemanager.service.FolderStatService;
+import com.filemanager.service.NameSuggestService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 文件夹服务实现
+ * 文件夹的修改与闭包表的维护在同一事务中完成；folderPath保存祖先ID路径（如/1/2/），
+ * 移动时整棵子树的路径用一条语句替换前缀
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FolderServiceImpl implements FolderService {
+
+    private static final String ROOT_PATH = "/";
+
+    private final FileFolderMapper fileFolderMapper;
+
+    private final FolderClosureMapper folderClosureMapper;
+
+    private final FileInfoMapper fileInfoMapper;
+
+    private final FileNameIndexService fileNameIndexService;
+
+    private final NameSuggestService nameSuggestService;
+
+    private final FolderStatService folderStatService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public FileFolder createFolder(String folderName, Long parentId, Long userId) {
+        if (StringUtils.isBlank(folderName)) {
+            throw new IllegalArgumentException("文件夹名称不能为空");
+        }
+        long parent = parentId == null ? FileConstants.FOLDER_ROOT_PARENT_ID : parentId;
+
+        return transactionTemplate.execute(status -> {
+            String folderPath = ROOT_PATH;
+            if (parent != FileConstants.FOLDER_ROOT_PARENT_ID) {
+                FileFolder parentFolder = getWritableFolder(parent, userId);
+                folderPath = childPath(parentFolder);
+            }
+
+            FileFolder folder = new FileFolder();
+            folder.setFolderName(folderName.trim());
+            folder.setParentId(parent);
+            folder.setFolderPath(folderPath);
+            folder.setCreateUserId(userId);
+            folder.setBelongType(0);
+            folder.setStatus(FileConstants.FOLDER_STATUS_NORMAL);
+            folder.setIsFavorite(0);
+            folder.setIsPublic(0);
+            folder.setCreateTime(LocalDateTime.now());
+            fileFolderMapper.insert(folder);
+            folderClosureMapper.insertFolder(folder.getId(), parent);
+            nameSuggestService.addFolder(folder);
+            return folder;
+        });
+    }
+
+    @Override
+    public boolean moveFolder(Long folderId, Long targetParentId, Long userId) {
+        long target = targetParentId == null ? FileConstants.FOLDER_ROOT_PARENT_ID : targetParentId;
+        if (Objects.equals(folderId, target)) {
+            throw new IllegalArgumentException("不能将文件夹移动到自身中");
+        }
+
+        Boolean moved = transactionTemplate.execute(status -> {
+            // 按主键顺序锁定源和目标
+            List<Long> lockIds = target == FileConstants.FOLDER_ROOT_PARENT_ID
+                    ? Collections.singletonList(folderId) : Arrays.asList(folderId, target);
+            fileFolderMapper.selectIdsForUpdate(lockIds);
+
+            FileFolder folder = getOwnedFolder(folderId, userId);
+            if (Objects.equals(folder.getParentId(), target)) {
+                return true;
+            }
+            String newPath = ROOT_PATH;
+            if (target != FileConstants.FOLDER_ROOT_PARENT_ID) {
+                FileFolder targetFolder = getWritableFolder(target, userId);
+                // 锁定目标的整条祖先链：交叉移动（A移入B的子孙、B移入A的子孙）时，
+                // 一方修改闭包表会与另一方锁定的祖先链冲突，只有一个能提交，不会形成环。
+                // 环的判断使用加锁读到的最新祖先链，不使用事务开始时的快照
+                List<Long> ancestorIds = folderClosureMapper.selectAncestorIdsForUpdate(target);
+                if (ancestorIds.contains(folderId)) {
+                    throw new IllegalArgumentException("不能将文件夹移动到其子文件夹中");
+                }
+                newPath = childPath(targetFolder);
+            }
+
+            folderStatService.moveFolder(folderId, folder.getParentId(), target);
+            fileFolderMapper.updateParent(folderId, target, userId);
+            fileFolderMapper.updateSubtreePath(folderId, StringUtils.defaultString(folder.getFolderPath(), ROOT_PATH), newPath);
+            folderClosureMapper.detachSubtree(folderId);
+            folderClosureMapper.attachSubtree(folderId, target);
+            return true;
+        });
+        return Boolean.TRUE.equals(moved);
+    }
+
+    @Override
+    public int deleteFolder(Long folderId, Long userId) {
+        List<Long> folderIds = new ArrayList<>();
+        List<FileInfo> files = transactionTemplate.execute(status -> {
+            fileFolderMapper.selectIdsForUpdate(Collections.singletonList(folderId));
+            getOwnedFolder(folderId, userId);
+
+            folderIds.addAll(folderClosureMapper.selectDescendantIds(folderId));
+            List<FileInfo> recycled = fileInfoMapper.selectSubtreeFiles(folderId, userId, FileConstants.FILE_STATUS_NORMAL);
+            fileInfoMapper.updateSubtreeStatus(folderId, userId, FileConstants.FILE_STATUS_NORMAL,
+                    FileConstants.FILE_STATUS_RECYCLE, LocalDateTime.now());
+            // 只扣除实际移入回收站的文件，子树中其他用户的文件仍为正常状态
+            folderStatService.removeFiles(recycled);
+            folderStatService.deleteFolder(folderId);
+            fileFolderMapper.deleteSubtree(folderId, userId);
+            return recycled;
+        });
+
+        files.stream().collect(Collectors.groupingBy(FileInfo::getCreateUserId,
+                Collectors.mapping(FileInfo::getId, Collectors.toList())))
+                .forEach((ownerId, fileIds) -> {
+                    fileNameIndexService.removeFiles(ownerId, fileIds);
+                    nameSuggestService.removeFiles(ownerId, fileIds);
+                });
+        folderIds.forEach(id -> nameSuggestService.removeFolder(userId, id));
+        log.info("删除文件夹 {}：共 {} 个文件夹，{} 个文件移入回收站", folderId, folderIds.size(), files.size());
+        return files.size();
+    }
+
+    @Override
+    public List<Long> getDescendantIds(Long folderId) {
+        return folderClosureMapper.selectDescendantIds(folderId);
+    }
+
+    @Override
+    public List<FileFolder> getAncestors(Long folderId, Long userId) {
+        getOwnedFolder(folderId, userId);
+        return folderClosureMapper.selectAncestors(folderId);
+    }
+
+    @Override
+    public long getFolderSize(Long folderId, Long userId) {
+        getOwnedFolder(folderId, userId);
+        return folderStatService.getStat(folderId).getTotalBytes();
+    }
+
+    @Override
+    public FolderStat getFolderStat(Long folderId, Long userId) {
+        getOwnedFolder(folderId, userId);
+        return folderStatService.getStat(folderId);
+    }
+
+    @Override
+    public int rebuildClosure() {
+        Map<Long, Long> parents = new HashMap<>();
+        for (FileFolder folder : fileFolderMapper.selectAllParentLinks()) {
+            parents.put(folder.getId(), folder.getParentId());
+        }
+
+        // 沿父级指针向上查找每个文件夹的祖先，已计算的祖先链复用
+        Map<Long, List<Long>> chains = new HashMap<>(parents.size() * 2);
+        List<long[]> rows = new ArrayList<>();
+        for (Long folderId : parents.keySet()) {
+            List<Long> chain = chainOf(folderId, parents, chains);
+            for (int depth = 0; depth < chain.size(); depth++) {
+                rows.add(new long[]{chain.get(depth), folderId, depth});
+            }
+        }
+
+        transactionTemplate.execute(status -> {
+            folderClosureMapper.deleteAll();
+            ListUtil.partition(rows, FileConstants.SQL_BATCH_SIZE).forEach(folderClosureMapper::insertBatch);
+            return null;
+        });
+        log.info("文件夹闭包表重建完成：{} 个文件夹，{} 行", parents.size(), rows.size());
+        return rows.size();
+    }
+
+    /**
+     * 计算文件夹的祖先链
+     *
+     * @param folderId 文件夹ID
+     * @param parents  文件夹ID到父级ID的映射
+     * @param chains   已计算的祖先链
+     * @return 祖先链，从自身（depth=0）到最顶层祖先
+     */
+    private List<Long> chainOf(Long folderId, Map<Long, Long> parents, Map<Long, List<Long>> chains) {
+        List<Long> pending = new ArrayList<>();
+        Set<Long> visited = new HashSet<>();
+        Long current = folderId;
+        List<Long> known = Collections.emptyList();
+        while (current != null && parents.containsKey(current)) {
+            List<Long> cached = chains.get(current);
+            if (cached != null) {
+                known = cached;
+                break;
+            }
+            if (!visited.add(current)) {
+                log.warn("文件夹父级关系存在环，从文件夹 {} 处截断", current);
+                break;
+            }
+            pending.add(current);
+            current = parents.get(current);
+        }
+
+        // 自上而下回填各级文件夹的祖先链
+        List<Long> chain = known;
+        for (int i = pending.size() - 1; i >= 0; i--) {
+            List<Long> next = new ArrayList<>(chain.size() + 1);
+            next.add(pending.get(i));
+            next.addAll(chain);
+            chains.put(pending.get(i), next);
+            chain = next;
+        }
+        return chains.getOrDefault(folderId, Collections.singletonList(folderId));
+    }
+
+    /**
+     * 获取用户自己的正常文件夹
+     *
+     * @param folderId 文件夹ID
+     * @param userId   用户ID
+     * @return 文件夹
+     */
+    private FileFolder getOwnedFolder(Long folderId, Long userId) {
+        FileFolder folder = fileFolderMapper.selectNormalFolder(folderId);
+        if (folder == null) {
+            throw new IllegalArgumentException("文件夹不存在");
+        }
+        if (!Objects.equals(folder.getCreateUserId(), userId)) {
+            throw new IllegalStateException("无权操作该文件夹");
+        }
+        return folder;
+    }
+
+    /**
+     * 获取用户可以放入内容的正常文件夹（自己的文件夹或公共文件夹）
+     *
+     * @param folderId 文件夹ID
+     * @param userId   用户ID
+     * @return 文件夹
+     */
+    private FileFolder getWritableFolder(Long folderId, Long userId) {
+        FileFolder folder = fileFolderMapper.selectNormalFolder(folderId);
+        if (folder == null) {
+            throw new IllegalArgumentException("目标文件夹不存在");
+        }
+        if (fileFolderMapper.countWritableFolder(folderId, userId) == 0) {
+            throw new IllegalStateException("无权操作目标文件夹");
+        }
+        return folder;
+    }
+
+    /**
+     * 计算子文件夹的路径
+     *
+     * @param parent 父文件夹
+     * @return 子文件夹路径
+     */
+    private String childPath(FileFolder parent) {
+        return StringUtils.defaultString(parent.getFolderPath(), ROOT_PATH) + parent.getId() + "/";
+    }
+}
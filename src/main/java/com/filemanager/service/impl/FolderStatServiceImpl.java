@@ -0,0 +1,221 @@
+package com.filemanager.service.impl;
+
+import cn.hutool.core.collection.ListUtil;
+import com.filemanager.constant.FileConstants;
+import com.filemanager.entity.FileInfo;
+import com.filemanager.entity.FolderStat;
+import com.filemanager.mapper.FileFolderMapper;
+import com.filemanager.mapper.FolderStatMapper;
+import com.filemanager.service.FolderStatService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 文件夹统计服务实现
+ * 文件变更先按文件夹汇总变化量，再用一条INSERT ... SELECT沿闭包表累加到文件夹及其全部祖先；
+ * 定时校验逐批锁定统计行后按文件表重新计算，锁定在先，计算使用的快照不会漏掉并发提交的变更
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FolderStatServiceImpl implements FolderStatService {
+
+    private final FolderStatMapper folderStatMapper;
+
+    private final FileFolderMapper fileFolderMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${file.folder-stat.verify-batch-size:200}")
+    private int verifyBatchSize;
+
+    @Override
+    public void addFiles(Collection<FileInfo> files) {
+        apply(files, 1, null);
+    }
+
+    @Override
+    public void removeFiles(Collection<FileInfo> files) {
+        apply(files, -1, null);
+    }
+
+    @Override
+    public void moveFiles(Collection<FileInfo> files, Long targetFolderId) {
+        apply(files, -1, targetFolderId);
+    }
+
+    @Override
+    public void moveFolder(Long folderId, Long oldParentId, Long newParentId) {
+        FolderStat stat = folderStatMapper.selectForUpdate(folderId);
+        if (stat == null || (stat.getTotalBytes() == 0 && stat.getTotalFiles() == 0)) {
+            return;
+        }
+        if (isFolder(oldParentId)) {
+            folderStatMapper.applyTotalDelta(oldParentId, -stat.getTotalBytes(), -stat.getTotalFiles());
+        }
+        if (isFolder(newParentId)) {
+            folderStatMapper.applyTotalDelta(newParentId, stat.getTotalBytes(), stat.getTotalFiles());
+        }
+    }
+
+    @Override
+    public void deleteFolder(Long folderId) {
+        folderStatMapper.deleteSubtree(folderId);
+    }
+
+    @Override
+    public FolderStat getStat(Long folderId) {
+        FolderStat stat = folderStatMapper.selectById(folderId);
+        return stat != null ? stat : emptyStat(folderId);
+    }
+
+    /**
+     * 定时校验文件夹统计
+     */
+    @Scheduled(initialDelayString = "${file.folder-stat.verify-initial-delay:60000}",
+            fixedDelayString = "${file.folder-stat.verify-interval:21600000}")
+    public void scheduledVerify() {
+        try {
+            verify();
+        } catch (Exception e) {
+            log.error("文件夹统计校验失败", e);
+        }
+    }
+
+    @Override
+    public int verify() {
+        int corrected = 0;
+        long lastId = 0;
+        while (true) {
+            List<Long> folderIds = fileFolderMapper.selectNormalIdBatch(lastId, verifyBatchSize);
+            if (folderIds.isEmpty()) {
+                break;
+            }
+            lastId = folderIds.get(folderIds.size() - 1);
+            Integer count = transactionTemplate.execute(status -> verifyBatch(folderIds));
+            corrected += count == null ? 0 : count;
+        }
+        if (corrected > 0) {
+            log.warn("文件夹统计校验完成，修正 {} 个文件夹", corrected);
+        }
+        return corrected;
+    }
+
+    /**
+     * 校验一批文件夹的统计
+     *
+     * @param folderIds 文件夹ID列表
+     * @return 修正的文件夹数
+     */
+    private int verifyBatch(List<Long> folderIds) {
+        Map<Long, FolderStat> current = folderStatMapper.selectBatchForUpdate(folderIds).stream()
+                .collect(Collectors.toMap(FolderStat::getFolderId, Function.identity()));
+        Map<Long, FolderStat> direct = folderStatMapper.countDirect(folderIds).stream()
+                .collect(Collectors.toMap(FolderStat::getFolderId, Function.identity()));
+        Map<Long, FolderStat> total = folderStatMapper.countTotal(folderIds).stream()
+                .collect(Collectors.toMap(FolderStat::getFolderId, Function.identity()));
+
+        int corrected = 0;
+        for (Long folderId : folderIds) {
+            FolderStat expected = emptyStat(folderId);
+            FolderStat directStat = direct.get(folderId);
+            if (directStat != null) {
+                expected.setDirectBytes(directStat.getDirectBytes());
+                expected.setDirectFiles(directStat.getDirectFiles());
+            }
+            FolderStat totalStat = total.get(folderId);
+            if (totalStat != null) {
+                expected.setTotalBytes(totalStat.getTotalBytes());
+                expected.setTotalFiles(totalStat.getTotalFiles());
+            }
+
+            FolderStat actual = current.getOrDefault(folderId, emptyStat(folderId));
+            if (!sameCounts(expected, actual)) {
+                log.info("修正文件夹 {} 的统计：{}/{} -> {}/{}", folderId,
+                        actual.getTotalBytes(), actual.getTotalFiles(), expected.getTotalBytes(), expected.getTotalFiles());
+                folderStatMapper.upsert(expected);
+                corrected++;
+            }
+        }
+        return corrected;
+    }
+
+    /**
+     * 按文件夹汇总文件变化量并累加到统计
+     *
+     * @param files          文件列表
+     * @param sign           原文件夹的方向：1-计入，-1-扣除
+     * @param targetFolderId 移动的目标文件夹，非移动时为null
+     */
+    private void apply(Collection<FileInfo> files, int sign, Long targetFolderId) {
+        if (files == null || files.isEmpty()) {
+            return;
+        }
+        // 按文件夹ID排序，与统计行的加锁顺序一致
+        Map<Long, long[]> deltas = new TreeMap<>();
+        for (FileInfo file : files) {
+            long size = file.getFileSize() == null ? 0 : file.getFileSize();
+            accumulate(deltas, file.getFolderId(), sign * size, sign);
+            if (targetFolderId != null) {
+                accumulate(deltas, targetFolderId, size, 1);
+            }
+        }
+
+        List<long[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((folderId, delta) -> {
+            if (delta[0] != 0 || delta[1] != 0) {
+                rows.add(new long[]{folderId, delta[0], delta[1]});
+            }
+        });
+        ListUtil.partition(rows, FileConstants.SQL_BATCH_SIZE).forEach(folderStatMapper::applyDeltas);
+    }
+
+    private void accumulate(Map<Long, long[]> deltas, Long folderId, long bytes, long files) {
+        if (!isFolder(folderId)) {
+            return;
+        }
+        long[] delta = deltas.computeIfAbsent(folderId, id -> new long[2]);
+        delta[0] += bytes;
+        delta[1] += files;
+    }
+
+    /**
+     * 根目录（0）下的文件不属于任何文件夹，不参与统计
+     *
+     * @param folderId 文件夹ID
+     * @return 是否为文件夹
+     */
+    private boolean isFolder(Long folderId) {
+        return folderId != null && !Objects.equals(folderId, FileConstants.FOLDER_ROOT_PARENT_ID);
+    }
+
+    private boolean sameCounts(FolderStat a, FolderStat b) {
+        return Objects.equals(a.getDirectBytes(), b.getDirectBytes())
+                && Objects.equals(a.getDirectFiles(), b.getDirectFiles())
+                && Objects.equals(a.getTotalBytes(), b.getTotalBytes())
+                && Objects.equals(a.getTotalFiles(), b.getTotalFiles());
+    }
+
+    private FolderStat emptyStat(Long folderId) {
+        FolderStat stat = new FolderStat();
+        stat.setFolderId(folderId);
+        stat.setDirectBytes(0L);
+        stat.setDirectFiles(0L);
+        stat.setTotalBytes(0L);
+        stat.setTotalFiles(0L);
+        return stat;
+    }
+}
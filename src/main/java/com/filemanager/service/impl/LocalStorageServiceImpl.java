@@ -1,20 +1,47 @@
 package com.filemanager.service.impl;
 
+import com.filemanager.config.StorageExecutorConfig;
+import com.filemanager.constant.FileConstants;
+import com.filemanager.service.StorageObject;
 import com.filemanager.service.StorageService;
+import com.filemanager.util.ConcurrentTaskUtils;
+import com.filemanager.util.DigestingWritableByteChannel;
+import com.filemanager.utils.FileUtils;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.annotation.PostConstruct;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 本地存储服务实现
@@ -35,6 +62,105 @@ public class LocalStorageServiceImpl implements StorageService {
     @Value("${server.port:8080}")
     private String serverPort;
 
+    /**
+     * 复制模式：copy-完整复制，hardlink-硬链接，reflink-写时复制
+     */
+    @Value("${file.storage.copy-mode:" + FileConstants.COPY_MODE_COPY + "}")
+    private String copyMode;
+
+    /**
+     * 目录布局：date-按日期分目录，hash-按哈希前缀分两级目录
+     */
+    @Value("${file.storage.layout:" + FileConstants.STORAGE_LAYOUT_DATE + "}")
+    private String layout;
+
+    /**
+     * 批量操作的最大并发数
+     */
+    @Value("${file.storage.batch-parallelism:4}")
+    private int batchParallelism;
+
+    @Autowired
+    @Qualifier(StorageExecutorConfig.STORAGE_IO_EXECUTOR)
+    private Executor storageIoExecutor;
+
+    /**
+     * 写入文件时的缓冲区大小
+     */
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * reflink复制的超时时间（秒）
+     */
+    private static final long REFLINK_TIMEOUT_SECONDS = 60;
+
+    /**
+     * 丢弃子进程输出（JDK 8没有Redirect.DISCARD）
+     */
+    private static final ProcessBuilder.Redirect DISCARD = ProcessBuilder.Redirect.to(new File("/dev/null"));
+
+    /**
+     * 存储目录所在文件系统是否支持reflink，启动时探测一次
+     */
+    private volatile boolean reflinkSupported;
+
+    /**
+     * 跨文件系统移动时临时文件的后缀
+     */
+    private static final String MOVING_SUFFIX = ".moving-";
+
+    /**
+     * 分片上传会话目录名称（位于上传根目录下）
+     */
+    private static final String SESSION_DIR = ".sessions";
+
+    /**
+     * 会话数据文件名称
+     */
+    private static final String SESSION_DATA_FILE = "data";
+
+    /**
+     * 复制模式为reflink时探测存储目录是否支持，不支持时直接使用完整复制，不再逐次尝试
+     */
+    @PostConstruct
+    public void probeReflink() {
+        if (!FileConstants.COPY_MODE_REFLINK.equals(copyMode)) {
+            return;
+        }
+        Path dir = Paths.get(uploadPath);
+        Path source = dir.resolve(".reflink-probe-" + UUID.randomUUID().toString().replace("-", ""));
+        Path target = dir.resolve(source.getFileName() + ".copy");
+        try {
+            Files.createDirectories(dir);
+            Files.write(source, new byte[]{0});
+            reflinkSupported = runReflink(source, target);
+        } catch (IOException e) {
+            log.warn("探测reflink支持失败: {}", e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(source);
+                Files.deleteIfExists(target);
+            } catch (IOException e) {
+                log.warn("删除reflink探测文件失败: {}", e.getMessage());
+            }
+        }
+        if (reflinkSupported) {
+            log.info("存储目录支持reflink复制: {}", uploadPath);
+        } else {
+            log.warn("存储目录不支持reflink复制，复制时使用完整复制: {}", uploadPath);
+        }
+    }
+
+    /**
+     * 获取分片上传会话的数据文件路径
+     *
+     * @param sessionId 会话ID
+     * @return 数据文件路径
+     */
+    private Path getSessionDataPath(String sessionId) {
+        return Paths.get(uploadPath, SESSION_DIR, sessionId, SESSION_DATA_FILE);
+    }
+
     /**
      * 获取文件完整存储路径
      *
@@ -77,6 +203,39 @@ public class LocalStorageServiceImpl implements StorageService {
         }
     }
 
+    @Override
+    public String generatePath(String fileName) {
+        if (FileConstants.STORAGE_LAYOUT_HASH.equals(layout)) {
+            return FileUtils.generateHashPath(fileName) + fileName;
+        }
+        return FileUtils.generateDatePath() + fileName;
+    }
+
+    @Override
+    public long uploadFile(InputStream inputStream, String path, MessageDigest digest) {
+        Path targetPath = Paths.get(getFullPath(path));
+        try {
+            Files.createDirectories(targetPath.getParent());
+            try (FileChannel fileChannel = FileChannel.open(targetPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                 ReadableByteChannel source = Channels.newChannel(inputStream)) {
+                DigestingWritableByteChannel target = new DigestingWritableByteChannel(fileChannel, digest);
+                ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+                while (source.read(buffer) != -1) {
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        target.write(buffer);
+                    }
+                    buffer.clear();
+                }
+                return target.getBytesWritten();
+            }
+        } catch (IOException e) {
+            log.error("上传文件失败", e);
+            throw new RuntimeException("上传文件失败", e);
+        }
+    }
+
     @Override
     public boolean deleteFile(String path) {
         try {
@@ -90,13 +249,18 @@ public class LocalStorageServiceImpl implements StorageService {
 
     @Override
     public boolean batchDeleteFiles(String[] paths) {
-        boolean allSuccess = true;
-        for (String path : paths) {
-            if (!deleteFile(path)) {
-                allSuccess = false;
+        if (StorageExecutorConfig.isStorageIoThread()) {
+            // 已在存储IO线程中（如AsyncStorageService提交的任务），直接依次删除，不等待同一线程池
+            boolean success = true;
+            for (String path : paths) {
+                success &= deleteFile(path);
             }
+            return success;
         }
-        return allSuccess;
+        // 各文件的删除互不依赖，在存储IO线程池中并发执行
+        Map<String, Boolean> results = ConcurrentTaskUtils.runAll(Arrays.asList(paths), batchParallelism,
+                storageIoExecutor, this::deleteFile).join();
+        return !results.containsValue(Boolean.FALSE);
     }
 
     @Override
@@ -139,7 +303,13 @@ public class LocalStorageServiceImpl implements StorageService {
                 targetDir.mkdirs();
             }
             
-            // 复制文件
+            // 按配置的复制模式复制文件，快速复制失败时退化为完整复制
+            if (FileConstants.COPY_MODE_HARDLINK.equals(copyMode) && createHardLink(sourceFile.toPath(), targetFile.toPath())) {
+                return true;
+            }
+            if (reflinkSupported && createReflink(sourceFile.toPath(), targetFile.toPath())) {
+                return true;
+            }
             Files.copy(sourceFile.toPath(), targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
             return true;
         } catch (IOException e) {
@@ -148,21 +318,170 @@ public class LocalStorageServiceImpl implements StorageService {
         }
     }
 
+    /**
+     * 以硬链接方式复制文件，时间和空间开销均为O(1)
+     * 存储中的文件写入后不再修改，删除任一链接不影响另一个
+     *
+     * @param source 源文件
+     * @param target 目标文件
+     * @return 是否成功
+     */
+    private boolean createHardLink(Path source, Path target) {
+        try {
+            Files.deleteIfExists(target);
+            Files.createLink(target, source);
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            log.warn("创建硬链接失败，改为完整复制: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 以写时复制（reflink）方式复制文件，只在启动时探测到支持后调用
+     *
+     * @param source 源文件
+     * @param target 目标文件
+     * @return 是否成功
+     */
+    private boolean createReflink(Path source, Path target) {
+        try {
+            if (runReflink(source, target)) {
+                return true;
+            }
+            log.warn("reflink复制失败，改为完整复制: {}", source);
+            return false;
+        } catch (IOException e) {
+            log.warn("无法执行reflink复制，改为完整复制: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 执行cp --reflink=always（JDK没有reflink接口）
+     * 文件系统不支持时cp直接失败，不会退化为普通复制；输出合并后丢弃，避免子进程因管道写满而阻塞
+     *
+     * @param source 源文件
+     * @param target 目标文件
+     * @return 是否成功
+     * @throws IOException 无法启动cp
+     */
+    private boolean runReflink(Path source, Path target) throws IOException {
+        Process process = new ProcessBuilder("cp", "--reflink=always", "-f",
+                source.toAbsolutePath().toString(), target.toAbsolutePath().toString())
+                .redirectErrorStream(true)
+                .redirectOutput(DISCARD)
+                .start();
+        try {
+            if (process.waitFor(REFLINK_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                return process.exitValue() == 0;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        process.destroyForcibly();
+        return false;
+    }
+
     @Override
-    public boolean moveFile(String sourcePath, String targetPath) {
+    public boolean copyFileNoReplace(String sourcePath, String targetPath) {
+        Path source = Paths.get(getFullPath(sourcePath));
+        Path target = Paths.get(getFullPath(targetPath));
+        if (!Files.isRegularFile(source)) {
+            return false;
+        }
+
         try {
-            // 先复制文件
-            if (copyFile(sourcePath, targetPath)) {
-                // 再删除源文件
-                return deleteFile(sourcePath);
+            if (Files.exists(target)) {
+                if (Files.isSameFile(source, target)) {
+                    return true;
+                }
+                log.warn("目标文件已存在，不覆盖: {}", targetPath);
+                return false;
+            }
+            Files.createDirectories(target.getParent());
+            try {
+                Files.createLink(target, source);
+                return true;
+            } catch (FileAlreadyExistsException e) {
+                throw e;
+            } catch (IOException | UnsupportedOperationException e) {
+                log.debug("创建硬链接失败，改为复制: {}", e.getMessage());
             }
+            // 不能创建硬链接时（如跨文件系统）先复制到临时文件并落盘，再以硬链接发布到目标位置，
+            // 目标已存在时创建链接失败，不会覆盖
+            Path tempFile = target.resolveSibling(target.getFileName() + MOVING_SUFFIX
+                    + UUID.randomUUID().toString().replace("-", ""));
+            try {
+                Files.copy(source, tempFile);
+                try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                    channel.force(true);
+                }
+                Files.createLink(target, tempFile);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            log.warn("目标文件已存在，不覆盖: {}", targetPath);
             return false;
-        } catch (Exception e) {
+        } catch (IOException e) {
+            log.error("复制文件失败: {} -> {}", sourcePath, targetPath, e);
+            return false;
+        }
+    }
+
+    @Override
+    public boolean moveFile(String sourcePath, String targetPath) {
+        Path source = Paths.get(getFullPath(sourcePath));
+        Path target = Paths.get(getFullPath(targetPath));
+        if (!Files.exists(source)) {
+            return false;
+        }
+
+        try {
+            Files.createDirectories(target.getParent());
+            // 同一文件系统内直接原子重命名，不复制数据
+            if (Files.getFileStore(source).equals(Files.getFileStore(target.getParent()))) {
+                try {
+                    Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+                    return true;
+                } catch (AtomicMoveNotSupportedException e) {
+                    log.warn("文件系统不支持原子移动，改为复制: {}", sourcePath);
+                }
+            }
+            moveAcrossFileStores(source, target);
+            return true;
+        } catch (IOException e) {
             log.error("移动文件失败", e);
             return false;
         }
     }
 
+    /**
+     * 跨文件系统移动文件
+     * 先复制到目标目录下的临时文件并落盘，再原子重命名为目标文件，最后删除源文件；
+     * 进程中途退出时目标位置不会出现不完整的文件，源文件保持不变
+     *
+     * @param source 源文件
+     * @param target 目标文件
+     * @throws IOException IO异常
+     */
+    private void moveAcrossFileStores(Path source, Path target) throws IOException {
+        Path tempFile = target.resolveSibling(target.getFileName() + MOVING_SUFFIX
+                + UUID.randomUUID().toString().replace("-", ""));
+        try {
+            Files.copy(source, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        Files.delete(source);
+    }
+
     @Override
     public boolean exists(String path) {
         File file = new File(getFullPath(path));
@@ -174,4 +493,208 @@ public class LocalStorageServiceImpl implements StorageService {
         File file = new File(getFullPath(path));
         return file.exists() ? file.length() : 0;
     }
+
+    @Override
+    public StorageObject getObject(String path) {
+        Path filePath = Paths.get(getFullPath(path));
+        if (!Files.isRegularFile(filePath)) {
+            return null;
+        }
+        try {
+            FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ);
+            try {
+                return new LocalStorageObject(filePath.toFile(), channel);
+            } catch (IOException | RuntimeException e) {
+                // 构造失败（如读取文件大小出错）时调用方拿不到对象，在此关闭通道
+                try {
+                    channel.close();
+                } catch (IOException closeException) {
+                    e.addSuppressed(closeException);
+                }
+                throw e;
+            }
+        } catch (IOException e) {
+            log.error("打开文件失败: {}", path, e);
+            throw new RuntimeException("打开文件失败", e);
+        }
+    }
+
+    @Override
+    public void createUploadSession(String sessionId, long totalSize) {
+        Path dataPath = getSessionDataPath(sessionId);
+        try {
+            Files.createDirectories(dataPath.getParent());
+            // 预先设置文件长度（稀疏文件），各分片按偏移量直接写入
+            try (RandomAccessFile file = new RandomAccessFile(dataPath.toFile(), "rw")) {
+                file.setLength(totalSize);
+            }
+        } catch (IOException e) {
+            log.error("创建上传会话失败: {}", sessionId, e);
+            throw new RuntimeException("创建上传会话失败", e);
+        }
+    }
+
+    @Override
+    public void writeUploadChunk(String sessionId, long position, InputStream inputStream, long length) {
+        Path dataPath = getSessionDataPath(sessionId);
+        if (!Files.isRegularFile(dataPath)) {
+            throw new IllegalStateException("上传会话不存在: " + sessionId);
+        }
+        try (FileChannel channel = FileChannel.open(dataPath, StandardOpenOption.WRITE)) {
+            ReadableByteChannel source = Channels.newChannel(inputStream);
+            long written = 0;
+            while (written < length) {
+                long transferred = channel.transferFrom(source, position + written, length - written);
+                if (transferred <= 0) {
+                    break;
+                }
+                written += transferred;
+            }
+            if (written != length) {
+                throw new IllegalStateException("分片数据不完整，期望" + length + "字节，实际" + written + "字节");
+            }
+        } catch (IOException e) {
+            log.error("写入分片失败: {}", sessionId, e);
+            throw new RuntimeException("写入分片失败", e);
+        }
+    }
+
+    @Override
+    public String completeUploadSession(String sessionId, String path) {
+        Path dataPath = getSessionDataPath(sessionId);
+        Path targetPath = Paths.get(getFullPath(path));
+        try {
+            Files.createDirectories(targetPath.getParent());
+            // 会话区域与上传目录位于同一文件系统，重命名即可完成合并
+            Files.move(dataPath, targetPath, StandardCopyOption.ATOMIC_MOVE);
+            deleteUploadSession(sessionId);
+            return getFileUrl(path);
+        } catch (IOException e) {
+            log.error("完成上传会话失败: {}", sessionId, e);
+            throw new RuntimeException("完成上传会话失败", e);
+        }
+    }
+
+    @Override
+    public boolean rollbackUploadSession(String sessionId, String path) {
+        Path dataPath = getSessionDataPath(sessionId);
+        try {
+            Files.createDirectories(dataPath.getParent());
+            Files.move(Paths.get(getFullPath(path)), dataPath, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            log.error("撤销完成上传会话失败: {}", sessionId, e);
+            return false;
+        }
+    }
+
+    @Override
+    public void digestUploadSession(String sessionId, MessageDigest digest) {
+        try (FileChannel channel = FileChannel.open(getSessionDataPath(sessionId), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        } catch (IOException e) {
+            log.error("读取上传会话数据失败: {}", sessionId, e);
+            throw new RuntimeException("读取上传会话数据失败", e);
+        }
+    }
+
+    @Override
+    public boolean deleteUploadSession(String sessionId) {
+        Path sessionPath = getSessionDataPath(sessionId).getParent();
+        try {
+            Files.deleteIfExists(sessionPath.resolve(SESSION_DATA_FILE));
+            Files.deleteIfExists(sessionPath);
+            return true;
+        } catch (IOException e) {
+            log.error("删除上传会话失败: {}", sessionId, e);
+            return false;
+        }
+    }
+
+    @Override
+    public List<String> listUploadSessions(long modifiedBeforeMs) {
+        Path sessionRoot = Paths.get(uploadPath, SESSION_DIR);
+        List<String> sessionIds = new ArrayList<>();
+        if (!Files.isDirectory(sessionRoot)) {
+            return sessionIds;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(sessionRoot)) {
+            for (Path sessionPath : stream) {
+                // 写入分片会更新数据文件的修改时间，目录和数据文件都早于指定时间才视为不活动
+                Path dataPath = sessionPath.resolve(SESSION_DATA_FILE);
+                long modified = Files.getLastModifiedTime(sessionPath).toMillis();
+                if (Files.exists(dataPath)) {
+                    modified = Math.max(modified, Files.getLastModifiedTime(dataPath).toMillis());
+                }
+                if (modified < modifiedBeforeMs) {
+                    sessionIds.add(sessionPath.getFileName().toString());
+                }
+            }
+        } catch (IOException e) {
+            log.error("列出上传会话失败: {}", sessionRoot, e);
+        }
+        return sessionIds;
+    }
+
+    /**
+     * 本地存储对象，基于FileChannel读取
+     */
+    private static class LocalStorageObject implements StorageObject {
+
+        private final File file;
+
+        private final FileChannel channel;
+
+        private final long length;
+
+        LocalStorageObject(File file, FileChannel channel) throws IOException {
+            this.file = file;
+            this.channel = channel;
+            this.length = channel.size();
+        }
+
+        @Override
+        public long getLength() {
+            return length;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return Channels.newInputStream(channel);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return channel.read(dst, position);
+        }
+
+        @Override
+        public File getLocalFile() {
+            return file;
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            // transferTo单次调用可能只传输部分数据，需循环直到完成
+            long total = 0;
+            while (total < count) {
+                long transferred = channel.transferTo(position + total, count - total, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                total += transferred;
+            }
+            return total;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
 }
\ No newline at end of file
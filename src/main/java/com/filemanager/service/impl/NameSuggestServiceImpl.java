@@ -0,0 +1,428 @@
+package com.filemanager.service.impl;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import com.filemanager.constant.FileConstants;
+import com.filemanager.dto.NameSuggestion;
+import com.filemanager.entity.FileFolder;
+import com.filemanager.entity.FileInfo;
+import com.filemanager.mapper.FileFolderMapper;
+import com.filemanager.mapper.FileInfoMapper;
+import com.filemanager.service.NameSuggestService;
+import com.filemanager.util.TransactionUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * 名称联想服务实现
+ * 前缀树的每个节点缓存该前缀下排名前K的名称：加入名称时沿路径合并到缓存中，
+ * 移除名称时只将路径上包含它的缓存标记为失效，下次联想到该前缀时再从子树重新计算。
+ * 前缀树只为最近联想过的用户保留，数量有上限，加载后超过存活时间重新从数据库加载，
+ * 未经过addFiles/removeFiles的文件变更最多在存活时间后反映出来
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NameSuggestServiceImpl implements NameSuggestService {
+
+    /**
+     * 名称类型 - 文件
+     */
+    private static final int TYPE_FILE = 1;
+
+    /**
+     * 名称类型 - 文件夹
+     */
+    private static final int TYPE_FOLDER = 2;
+
+    /**
+     * 排名：下载次数多的优先，其次是较新的
+     */
+    private static final Comparator<Entry> RANKING = Comparator.comparingLong((Entry entry) -> entry.downloads)
+            .thenComparingLong(entry -> entry.time)
+            .thenComparingLong(entry -> entry.id)
+            .reversed();
+
+    private final FileInfoMapper fileInfoMapper;
+
+    private final FileFolderMapper fileFolderMapper;
+
+    /**
+     * 每个前缀缓存的名称数，也是单次联想的最大结果数
+     */
+    @Value("${file.search.suggest.top-k:10}")
+    private int topK;
+
+    /**
+     * 保留前缀树的用户数
+     */
+    @Value("${file.search.suggest.cache-users:1000}")
+    private int cacheUsers;
+
+    /**
+     * 前缀树加载后的存活时间（毫秒）
+     */
+    @Value("${file.search.suggest.cache-ttl:600000}")
+    private long cacheTtl;
+
+    /**
+     * 各用户的前缀树
+     */
+    private LRUCache<Long, UserTrie> tries;
+
+    @PostConstruct
+    public void init() {
+        tries = CacheUtil.newLRUCache(cacheUsers, cacheTtl);
+    }
+
+    @Override
+    public List<NameSuggestion> suggest(String prefix, Long userId, int limit) {
+        if (StringUtils.isBlank(prefix) || userId == null) {
+            return Collections.emptyList();
+        }
+        // 结果数不超过每个前缀缓存的名称数，未指定或非法时返回全部缓存的名称
+        int size = limit <= 0 ? topK : Math.min(limit, topK);
+        // 不更新访问时间，存活时间从加载时开始计算
+        UserTrie trie = tries.get(userId, false, () -> new UserTrie(topK));
+        synchronized (trie) {
+            if (!trie.loaded) {
+                load(userId, trie);
+            }
+            List<Entry> entries = trie.top(prefix.trim().toLowerCase(Locale.ROOT));
+            List<NameSuggestion> result = new ArrayList<>(Math.min(size, entries.size()));
+            for (int i = 0; i < entries.size() && i < size; i++) {
+                Entry entry = entries.get(i);
+                result.add(new NameSuggestion(entry.id, entry.name, entry.type));
+            }
+            return result;
+        }
+    }
+
+    @Override
+    public void addFiles(Collection<FileInfo> files) {
+        if (files == null || files.isEmpty()) {
+            return;
+        }
+        List<FileInfo> snapshot = new ArrayList<>(files);
+        TransactionUtils.afterCommit(() -> {
+            for (FileInfo file : snapshot) {
+                if (file.getId() == null || file.getCreateUserId() == null || file.getOriginalName() == null) {
+                    continue;
+                }
+                long downloads = file.getDownloadCount() == null ? 0 : file.getDownloadCount();
+                update(file.getCreateUserId(), trie -> trie.put(
+                        new Entry(file.getId(), TYPE_FILE, file.getOriginalName(), downloads, toMillis(file.getCreateTime()))));
+            }
+        });
+    }
+
+    @Override
+    public void removeFiles(Long userId, Collection<Long> fileIds) {
+        if (userId == null || fileIds == null || fileIds.isEmpty()) {
+            return;
+        }
+        List<Long> snapshot = new ArrayList<>(fileIds);
+        TransactionUtils.afterCommit(() -> update(userId, trie -> snapshot.forEach(id -> trie.remove(TYPE_FILE, id))));
+    }
+
+    @Override
+    public void addFolder(FileFolder folder) {
+        if (folder == null || folder.getId() == null || folder.getCreateUserId() == null || folder.getFolderName() == null) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> update(folder.getCreateUserId(), trie -> trie.put(
+                new Entry(folder.getId(), TYPE_FOLDER, folder.getFolderName(), 0, toMillis(folder.getCreateTime())))));
+    }
+
+    @Override
+    public void removeFolder(Long userId, Long folderId) {
+        if (userId == null || folderId == null) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> update(userId, trie -> trie.remove(TYPE_FOLDER, folderId)));
+    }
+
+    /**
+     * 修改已加载的前缀树；尚未加载的用户会在首次联想时从数据库读取最新数据，无需修改
+     *
+     * @param userId 用户ID
+     * @param action 修改操作
+     */
+    private void update(Long userId, Consumer<UserTrie> action) {
+        UserTrie trie = tries.get(userId, false);
+        if (trie == null) {
+            return;
+        }
+        synchronized (trie) {
+            if (trie.loaded) {
+                action.accept(trie);
+            }
+        }
+    }
+
+    /**
+     * 从数据库加载用户的文件和文件夹名称（调用方持有前缀树的锁）
+     *
+     * @param userId 用户ID
+     * @param trie   前缀树
+     */
+    private void load(Long userId, UserTrie trie) {
+        long start = System.currentTimeMillis();
+        List<FileInfo> files = fileInfoMapper.selectSuggestFiles(userId, FileConstants.FILE_STATUS_NORMAL);
+        for (FileInfo file : files) {
+            if (file.getOriginalName() != null) {
+                long downloads = file.getDownloadCount() == null ? 0 : file.getDownloadCount();
+                trie.put(new Entry(file.getId(), TYPE_FILE, file.getOriginalName(), downloads, toMillis(file.getCreateTime())));
+            }
+        }
+        List<FileFolder> folders = fileFolderMapper.selectSuggestFolders(userId);
+        for (FileFolder folder : folders) {
+            if (folder.getFolderName() != null) {
+                trie.put(new Entry(folder.getId(), TYPE_FOLDER, folder.getFolderName(), 0, toMillis(folder.getCreateTime())));
+            }
+        }
+        trie.loaded = true;
+        log.info("加载用户{}的名称联想数据，名称数: {}，耗时: {}ms", userId, files.size() + folders.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time == null ? 0 : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * 联想候选名称
+     */
+    private static final class Entry {
+
+        private final long id;
+
+        private final int type;
+
+        private final String name;
+
+        private final String key;
+
+        private final long downloads;
+
+        private final long time;
+
+        Entry(long id, int type, String name, long downloads, long time) {
+            this.id = id;
+            this.type = type;
+            this.name = name;
+            this.key = name.toLowerCase(Locale.ROOT);
+            this.downloads = downloads;
+            this.time = time;
+        }
+    }
+
+    /**
+     * 前缀树节点，子节点以有序字符数组保存以节省内存
+     */
+    private static final class Node {
+
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private char[] keys = NO_KEYS;
+
+        private Node[] children = NO_CHILDREN;
+
+        /**
+         * 名称恰好在此结束的候选
+         */
+        private List<Entry> terminals;
+
+        /**
+         * 该前缀下排名前K的候选，null表示需要重新计算
+         */
+        private Entry[] top;
+
+        Node child(char c) {
+            int pos = Arrays.binarySearch(keys, c);
+            return pos >= 0 ? children[pos] : null;
+        }
+
+        Node getOrCreateChild(char c) {
+            int pos = Arrays.binarySearch(keys, c);
+            if (pos >= 0) {
+                return children[pos];
+            }
+            pos = -pos - 1;
+            Node node = new Node();
+            // 新节点只包含即将加入的名称，缓存从空开始合并
+            node.top = new Entry[0];
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, pos);
+            System.arraycopy(children, 0, newChildren, 0, pos);
+            newKeys[pos] = c;
+            newChildren[pos] = node;
+            System.arraycopy(keys, pos, newKeys, pos + 1, keys.length - pos);
+            System.arraycopy(children, pos, newChildren, pos + 1, children.length - pos);
+            keys = newKeys;
+            children = newChildren;
+            return node;
+        }
+
+        void removeChild(char c) {
+            int pos = Arrays.binarySearch(keys, c);
+            if (pos < 0) {
+                return;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, pos);
+            System.arraycopy(children, 0, newChildren, 0, pos);
+            System.arraycopy(keys, pos + 1, newKeys, pos, keys.length - pos - 1);
+            System.arraycopy(children, pos + 1, newChildren, pos, children.length - pos - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        boolean isEmpty() {
+            return keys.length == 0 && (terminals == null || terminals.isEmpty());
+        }
+    }
+
+    /**
+     * 单个用户的前缀树，所有方法由调用方在前缀树的锁内调用
+     */
+    private static final class UserTrie {
+
+        private final int topK;
+
+        private final Node root = new Node();
+
+        /**
+         * 按类型区分的候选，键为类型与ID的组合
+         */
+        private final Map<Long, Entry> entries = new HashMap<>();
+
+        private boolean loaded;
+
+        UserTrie(int topK) {
+            this.topK = topK;
+        }
+
+        void put(Entry entry) {
+            remove(entry.type, entry.id);
+            entries.put(entryKey(entry.type, entry.id), entry);
+
+            Node node = root;
+            for (int i = 0; i < entry.key.length(); i++) {
+                node = node.getOrCreateChild(entry.key.charAt(i));
+                if (node.top != null) {
+                    node.top = merge(node.top, entry);
+                }
+            }
+            if (node.terminals == null) {
+                node.terminals = new ArrayList<>(1);
+            }
+            node.terminals.add(entry);
+        }
+
+        void remove(int type, long id) {
+            Entry entry = entries.remove(entryKey(type, id));
+            if (entry == null) {
+                return;
+            }
+
+            Node[] path = new Node[entry.key.length() + 1];
+            path[0] = root;
+            for (int i = 0; i < entry.key.length(); i++) {
+                path[i + 1] = path[i].child(entry.key.charAt(i));
+            }
+            Node last = path[path.length - 1];
+            last.terminals.remove(entry);
+
+            // 缓存中含有被移除的名称时失效，空节点从父节点摘除
+            for (int i = path.length - 1; i > 0; i--) {
+                Node node = path[i];
+                if (node.top != null && Arrays.asList(node.top).contains(entry)) {
+                    node.top = null;
+                }
+                if (node.isEmpty()) {
+                    path[i - 1].removeChild(entry.key.charAt(i - 1));
+                }
+            }
+        }
+
+        List<Entry> top(String prefix) {
+            Node node = root;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.child(prefix.charAt(i));
+            }
+            if (node == null) {
+                return Collections.emptyList();
+            }
+            if (node.top == null) {
+                node.top = collectTop(node);
+            }
+            return Arrays.asList(node.top);
+        }
+
+        /**
+         * 将候选合并到已排序的缓存中，只保留前K个
+         */
+        private Entry[] merge(Entry[] top, Entry entry) {
+            if (top.length == topK && RANKING.compare(entry, top[top.length - 1]) >= 0) {
+                return top;
+            }
+            List<Entry> merged = new ArrayList<>(Arrays.asList(top));
+            int pos = Collections.binarySearch(merged, entry, RANKING);
+            merged.add(pos >= 0 ? pos : -pos - 1, entry);
+            if (merged.size() > topK) {
+                merged.remove(merged.size() - 1);
+            }
+            return merged.toArray(new Entry[0]);
+        }
+
+        /**
+         * 遍历子树重新计算前K个候选
+         */
+        private Entry[] collectTop(Node start) {
+            PriorityQueue<Entry> heap = new PriorityQueue<>(topK + 1, RANKING.reversed());
+            List<Node> stack = new ArrayList<>();
+            stack.add(start);
+            while (!stack.isEmpty()) {
+                Node node = stack.remove(stack.size() - 1);
+                if (node.terminals != null) {
+                    for (Entry entry : node.terminals) {
+                        heap.offer(entry);
+                        if (heap.size() > topK) {
+                            heap.poll();
+                        }
+                    }
+                }
+                stack.addAll(Arrays.asList(node.children));
+            }
+            Entry[] top = heap.toArray(new Entry[0]);
+            Arrays.sort(top, RANKING);
+            return top;
+        }
+
+        private static long entryKey(int type, long id) {
+            return type == TYPE_FOLDER ? -id : id;
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.filemanager.service.impl;
+
+import cn.hutool.core.collection.ListUtil;
+import com.filemanager.constant.FileConstants;
+import com.filemanager.entity.User;
+import com.filemanager.mapper.UserMapper;
+import com.filemanager.service.QuotaLedgerService;
+import com.filemanager.service.QuotaReservation;
+import com.filemanager.util.TransactionUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 存储空间账本服务实现
+ * 每个用户一个账户：已写回数据库的使用量、尚未写回的变化量（LongAdder，并发上传不争用同一个值）
+ * 和已预留的空间。预留时以CAS检查“已用 + 预留 + 本次”不超过上限；提交时先计入使用量再释放预留，
+ * 过程中短暂重复计算只会让检查更保守。写回时以相对增量批量更新sys_user，再读回最新值作为基数，
+ * 其他实例写回的变化也会在下次写回后反映出来。
+ * 进程异常退出会丢失尚未写回的变化，启动后和之后定期按文件记录重新计算使用量；
+ * 重新计算前先写回本实例的变化，跳过有未写回变化或进行中事务的用户；计算后再次检查，
+ * 计算期间又有变化的用户其结果可能与未写回的变化重复计算，恢复为计算前的值，留到下次。
+ * 其他实例尚未写回的变化仍可能造成一次偏差，在下次重新计算时修正
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class QuotaLedgerServiceImpl implements QuotaLedgerService {
+
+    private final UserMapper userMapper;
+
+    /**
+     * 各用户的账户
+     */
+    private final Map<Long, Account> accounts = new ConcurrentHashMap<>();
+
+    @Override
+    public QuotaReservation reserve(Long userId, long bytes) {
+        QuotaReservation reservation = new QuotaReservation(userId, Math.max(bytes, 0));
+        if (reservation.getBytes() == 0) {
+            return reservation;
+        }
+        Account account = getAccount(userId);
+        while (true) {
+            long reserved = account.reserved.get();
+            long required = account.used() + reserved + reservation.getBytes();
+            if (required < 0 || required > account.limit) {
+                throw new IllegalStateException("存储空间不足");
+            }
+            if (account.reserved.compareAndSet(reserved, reserved + reservation.getBytes())) {
+                return reservation;
+            }
+        }
+    }
+
+    @Override
+    public void commit(QuotaReservation reservation, long usedBytes) {
+        Account account = getAccount(reservation.getUserId());
+        account.inflight.incrementAndGet();
+        TransactionUtils.afterCompletion(committed -> {
+            if (committed && usedBytes != 0) {
+                account.record(usedBytes);
+            }
+            account.inflight.decrementAndGet();
+            cancel(reservation);
+        });
+    }
+
+    @Override
+    public void cancel(QuotaReservation reservation) {
+        if (reservation == null || reservation.getBytes() == 0 || !reservation.markReleased()) {
+            return;
+        }
+        Account account = accounts.get(reservation.getUserId());
+        if (account != null) {
+            account.reserved.addAndGet(-reservation.getBytes());
+        }
+    }
+
+    @Override
+    public void addUsage(Long userId, long bytes) {
+        if (userId == null || bytes == 0) {
+            return;
+        }
+        Account account = getAccount(userId);
+        account.inflight.incrementAndGet();
+        TransactionUtils.afterCompletion(committed -> {
+            if (committed) {
+                account.record(bytes);
+            }
+            account.inflight.decrementAndGet();
+        });
+    }
+
+    @Override
+    public long getUsed(Long userId) {
+        return getAccount(userId).used();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${file.quota.flush-interval:5000}")
+    public synchronized void flush() {
+        List<long[]> deltas = new ArrayList<>();
+        accounts.forEach((userId, account) -> {
+            // 不使用sumThenReset：与并发的add交错时会丢失计数
+            long delta = account.pending.sum();
+            if (delta != 0) {
+                account.pending.add(-delta);
+                account.base.addAndGet(delta);
+                deltas.add(new long[]{userId, delta});
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        for (List<long[]> chunk : ListUtil.partition(deltas, FileConstants.SQL_BATCH_SIZE)) {
+            try {
+                userMapper.addStorageUsedBatch(chunk);
+            } catch (RuntimeException e) {
+                // 写回失败的变化量放回待写回部分，下次重试
+                log.error("写回存储空间使用量失败，{} 个用户将在下次重试", chunk.size(), e);
+                for (long[] delta : chunk) {
+                    Account account = accounts.get(delta[0]);
+                    account.base.addAndGet(-delta[1]);
+                    account.pending.add(delta[1]);
+                }
+                continue;
+            }
+            refresh(chunk.stream().map(delta -> delta[0]).collect(Collectors.toList()));
+        }
+    }
+
+    /**
+     * 定时重新计算存储空间使用量，启动后首次执行用于修正异常退出丢失的变化
+     */
+    @Scheduled(initialDelayString = "${file.quota.reconcile-initial-delay:60000}",
+            fixedDelayString = "${file.quota.reconcile-interval:86400000}")
+    public void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.error("重新计算存储空间使用量失败", e);
+        }
+    }
+
+    @Override
+    public synchronized int reconcile() {
+        flush();
+        int corrected = 0;
+        long lastId = 0;
+        while (true) {
+            List<Long> userIds = userMapper.selectIdBatch(lastId, FileConstants.SQL_BATCH_SIZE);
+            if (userIds.isEmpty()) {
+                break;
+            }
+            lastId = userIds.get(userIds.size() - 1);
+
+            // 写回后又有变化或有进行中事务的用户，其文件记录与账户可能不一致，留到下次
+            Map<Long, Long> versions = new HashMap<>();
+            List<Long> idle = userIds.stream().filter(userId -> {
+                Account account = accounts.get(userId);
+                if (account == null) {
+                    versions.put(userId, -1L);
+                    return true;
+                }
+                if (account.inflight.get() != 0 || account.pending.sum() != 0) {
+                    return false;
+                }
+                versions.put(userId, account.changes.get());
+                return true;
+            }).collect(Collectors.toList());
+            if (idle.isEmpty()) {
+                continue;
+            }
+            Map<Long, Long> before = selectStorageUsed(idle);
+            corrected += userMapper.reconcileStorageUsedBatch(idle);
+            corrected -= undoChanged(idle, versions, before);
+            refresh(idle.stream().filter(accounts::containsKey).collect(Collectors.toList()));
+        }
+        if (corrected > 0) {
+            log.warn("重新计算存储空间使用量完成，修正 {} 个用户", corrected);
+        }
+        return corrected;
+    }
+
+    /**
+     * 将重新计算期间有变化的用户恢复为计算前的使用量
+     * 这些用户新提交的文件记录可能已计入重新计算的结果，同时又在未写回的变化中，写回后会重复计算
+     *
+     * @param userIds  重新计算的用户ID
+     * @param versions 计算前各账户的变化次数，计算前没有账户的为-1
+     * @param before   计算前的使用量
+     * @return 恢复后仍被修正的用户数（用于从修正数中扣除）
+     */
+    private int undoChanged(List<Long> userIds, Map<Long, Long> versions, Map<Long, Long> before) {
+        List<Long> changed = userIds.stream().filter(userId -> {
+            Account account = accounts.get(userId);
+            // 先读进行中事务数：事务结束时先记录变化再减少计数
+            return account != null
+                    && (account.inflight.get() != 0 || account.changes.get() != versions.get(userId));
+        }).collect(Collectors.toList());
+        if (changed.isEmpty()) {
+            return 0;
+        }
+        List<long[]> deltas = new ArrayList<>();
+        selectStorageUsed(changed).forEach((userId, used) -> {
+            long delta = before.getOrDefault(userId, used) - used;
+            if (delta != 0) {
+                deltas.add(new long[]{userId, delta});
+            }
+        });
+        if (!deltas.isEmpty()) {
+            userMapper.addStorageUsedBatch(deltas);
+        }
+        return deltas.size();
+    }
+
+    /**
+     * 查询用户在数据库中的使用量
+     *
+     * @param userIds 用户ID列表
+     * @return 用户ID到使用量的映射
+     */
+    private Map<Long, Long> selectStorageUsed(List<Long> userIds) {
+        Map<Long, Long> used = new HashMap<>();
+        for (User user : userMapper.selectStorageBatch(userIds)) {
+            used.put(user.getId(), user.getStorageUsed() == null ? 0 : user.getStorageUsed());
+        }
+        return used;
+    }
+
+    /**
+     * 停机前写回全部变化
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * 读回用户的最新使用量和上限作为基数，包含其他实例写回的变化
+     *
+     * @param userIds 用户ID列表
+     */
+    private void refresh(List<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        try {
+            for (User user : userMapper.selectStorageBatch(userIds)) {
+                Account account = accounts.get(user.getId());
+                if (account != null) {
+                    account.base.set(user.getStorageUsed() == null ? 0 : user.getStorageUsed());
+                    account.limit = limitOf(user);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("读取存储空间使用量失败", e);
+        }
+    }
+
+    /**
+     * 获取用户账户，首次访问时从数据库加载
+     *
+     * @param userId 用户ID
+     * @return 账户
+     */
+    private Account getAccount(Long userId) {
+        return accounts.computeIfAbsent(userId, id -> {
+            User user = userMapper.selectStorage(id);
+            if (user == null) {
+                throw new IllegalArgumentException("用户不存在: " + id);
+            }
+            return new Account(user.getStorageUsed() == null ? 0 : user.getStorageUsed(), limitOf(user));
+        });
+    }
+
+    private long limitOf(User user) {
+        Long limit = user.getStorageLimit();
+        return limit == null || limit <= 0 ? Long.MAX_VALUE : limit;
+    }
+
+    /**
+     * 用户账户
+     */
+    private static class Account {
+
+        /**
+         * 已写回数据库的使用量
+         */
+        private final AtomicLong base;
+
+        /**
+         * 尚未写回的使用量变化
+         */
+        private final LongAdder pending = new LongAdder();
+
+        /**
+         * 已预留的空间
+         */
+        private final AtomicLong reserved = new AtomicLong();
+
+        /**
+         * 已调用commit或addUsage但事务尚未结束的次数
+         */
+        private final AtomicInteger inflight = new AtomicInteger();
+
+        /**
+         * 记录变化的次数，重新计算据此判断期间是否有变化
+         */
+        private final AtomicLong changes = new AtomicLong();
+
+        /**
+         * 存储上限，未设置时不限制
+         */
+        private volatile long limit;
+
+        Account(long used, long limit) {
+            this.base = new AtomicLong(used);
+            this.limit = limit;
+        }
+
+        long used() {
+            return base.get() + pending.sum();
+        }
+
+        void record(long bytes) {
+            pending.add(bytes);
+            changes.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.filemanager.service.impl;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.filemanager.constant.FileConstants;
+import com.filemanager.entity.FileShare;
+import com.filemanager.mapper.FileShareMapper;
+import com.filemanager.service.ShareCacheService;
+import com.filemanager.util.TransactionUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 分享记录缓存服务实现
+ * 本地为容量有限的LRU缓存，每条记录有固定的存活时间，且不超过分享的过期时间；
+ * 开启Redis后作为第二级缓存，多个实例共享加载结果，Redis不可用时直接查询数据库。
+ * 同一链接并发未命中时只有一个请求查询数据库；加载期间发生失效的结果不写入缓存。
+ * 其他实例加载期间发生的失效无法通过版本判断，失效时在延迟后再删除一次Redis中的记录；
+ * 加载耗时超过该延迟时旧记录仍可能写回，Redis的存活时间不超过本地存活时间，旧数据最多保留ttl
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ShareCacheServiceImpl implements ShareCacheService {
+
+    private static final String REDIS_KEY_PREFIX = "file:share:";
+
+    /**
+     * Redis中表示分享链接不存在的值
+     */
+    private static final String REDIS_MISSING = "";
+
+    private final FileShareMapper fileShareMapper;
+
+    private final ObjectMapper objectMapper;
+
+    private final ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+
+    private final TaskScheduler taskScheduler;
+
+    @Value("${file.share.cache.capacity:10000}")
+    private int capacity;
+
+    @Value("${file.share.cache.ttl:60000}")
+    private long ttl;
+
+    @Value("${file.share.cache.missing-ttl:10000}")
+    private long missingTtl;
+
+    @Value("${file.share.cache.redis-enabled:false}")
+    private boolean redisEnabled;
+
+    @Value("${file.share.cache.redis-ttl:60000}")
+    private long redisTtl;
+
+    @Value("${file.share.cache.redis-delete-delay:1000}")
+    private long redisDeleteDelay;
+
+    private LRUCache<String, CachedShare> cache;
+
+    private StringRedisTemplate redisTemplate;
+
+    /**
+     * 正在加载的分享链接
+     */
+    private final Map<String, CompletableFuture<CachedShare>> loading = new ConcurrentHashMap<>();
+
+    /**
+     * 失效次数，加载前后不一致时说明加载期间发生了失效
+     */
+    private final AtomicLong evictions = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        cache = CacheUtil.newLRUCache(capacity);
+        if (redisEnabled) {
+            redisTemplate = redisTemplateProvider.getIfAvailable();
+            if (redisTemplate == null) {
+                log.warn("未配置Redis，分享记录只使用本地缓存");
+            }
+            if (redisTtl > ttl) {
+                log.warn("分享Redis缓存存活时间 {}ms 超过本地存活时间，调整为 {}ms", redisTtl, ttl);
+                redisTtl = ttl;
+            }
+        }
+    }
+
+    @Override
+    public FileShare getActiveShare(String shareUrl) {
+        if (StringUtils.isBlank(shareUrl)) {
+            return null;
+        }
+        CachedShare cached = cache.get(shareUrl, false);
+        if (cached == null) {
+            cached = loadOnce(shareUrl);
+        }
+        return cached.copy();
+    }
+
+    @Override
+    public void evict(String shareUrl) {
+        if (StringUtils.isBlank(shareUrl)) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> {
+            evictions.incrementAndGet();
+            cache.remove(shareUrl);
+            deleteFromRedis(Collections.singletonList(shareUrl), true);
+        });
+    }
+
+    @Override
+    public void evictAll(Collection<String> shareUrls) {
+        List<String> urls = shareUrls.stream().filter(StringUtils::isNotBlank).collect(Collectors.toList());
+        if (urls.isEmpty()) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> {
+            evictions.incrementAndGet();
+            urls.forEach(cache::remove);
+            deleteFromRedis(urls, true);
+        });
+    }
+
+    /**
+     * 删除Redis中的记录，并在延迟后再删除一次，清除其他实例在失效前读取、失效后写回的旧记录
+     *
+     * @param shareUrls 分享链接标识列表
+     * @param again     是否延迟后再删除一次
+     */
+    private void deleteFromRedis(List<String> shareUrls, boolean again) {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.delete(shareUrls.stream().map(url -> REDIS_KEY_PREFIX + url).collect(Collectors.toList()));
+        } catch (RuntimeException e) {
+            log.warn("删除分享缓存失败，共 {} 条", shareUrls.size(), e);
+        }
+        if (again) {
+            taskScheduler.schedule(() -> deleteFromRedis(shareUrls, false),
+                    Instant.now().plusMillis(redisDeleteDelay));
+        }
+    }
+
+    /**
+     * 加载分享记录，同一链接同时只有一个请求执行加载，其余等待其结果
+     *
+     * @param shareUrl 分享链接标识
+     * @return 缓存记录
+     */
+    private CachedShare loadOnce(String shareUrl) {
+        CompletableFuture<CachedShare> future = new CompletableFuture<>();
+        CompletableFuture<CachedShare> existing = loading.putIfAbsent(shareUrl, future);
+        if (existing != null) {
+            return existing.join();
+        }
+        try {
+            long version = evictions.get();
+            CachedShare loaded = load(shareUrl);
+            if (version == evictions.get()) {
+                long timeout = loaded.timeout(loaded.share == null ? missingTtl : ttl);
+                if (timeout > 0) {
+                    cache.put(shareUrl, loaded, timeout);
+                }
+                if (loaded.fromDatabase) {
+                    writeToRedis(shareUrl, loaded);
+                }
+            }
+            future.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(shareUrl, future);
+        }
+    }
+
+    /**
+     * 依次从Redis和数据库加载分享记录，从数据库加载的记录由调用方在确认加载期间未失效后写入Redis
+     *
+     * @param shareUrl 分享链接标识
+     * @return 缓存记录
+     */
+    private CachedShare load(String shareUrl) {
+        if (redisTemplate != null) {
+            try {
+                String value = redisTemplate.opsForValue().get(REDIS_KEY_PREFIX + shareUrl);
+                if (value != null) {
+                    FileShare share = REDIS_MISSING.equals(value) ? null : objectMapper.readValue(value, FileShare.class);
+                    return new CachedShare(share, false);
+                }
+            } catch (Exception e) {
+                log.warn("读取分享缓存失败: {}", shareUrl, e);
+            }
+        }
+
+        LambdaQueryWrapper<FileShare> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.eq(FileShare::getShareUrl, shareUrl)
+                   .eq(FileShare::getStatus, FileConstants.SHARE_STATUS_ACTIVE);
+        return new CachedShare(fileShareMapper.selectOne(queryWrapper), true);
+    }
+
+    /**
+     * 将从数据库加载的记录写入Redis
+     *
+     * @param shareUrl 分享链接标识
+     * @param loaded   缓存记录
+     */
+    private void writeToRedis(String shareUrl, CachedShare loaded) {
+        if (redisTemplate == null) {
+            return;
+        }
+        long timeout = loaded.timeout(loaded.share == null ? missingTtl : redisTtl);
+        if (timeout <= 0) {
+            return;
+        }
+        try {
+            String value = loaded.share == null ? REDIS_MISSING : objectMapper.writeValueAsString(loaded.share);
+            redisTemplate.opsForValue().set(REDIS_KEY_PREFIX + shareUrl, value, timeout, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.warn("写入分享缓存失败: {}", shareUrl, e);
+        }
+    }
+
+    /**
+     * 缓存的分享记录，share为null表示链接不存在或已失效
+     */
+    private static class CachedShare {
+
+        private final FileShare share;
+
+        /**
+         * 是否从数据库加载，只有从数据库加载的记录需要写入Redis
+         */
+        private final boolean fromDatabase;
+
+        CachedShare(FileShare share, boolean fromDatabase) {
+            this.share = share;
+            this.fromDatabase = fromDatabase;
+        }
+
+        /**
+         * 计算缓存存活时间，不超过分享的过期时间
+         *
+         * @param defaultTimeout 默认存活时间（毫秒）
+         * @return 存活时间（毫秒），已过期时不大于0
+         */
+        long timeout(long defaultTimeout) {
+            if (share == null || share.getExpireTime() == null
+                    || Objects.equals(share.getExpireType(), FileConstants.EXPIRE_TYPE_NEVER)) {
+                return defaultTimeout;
+            }
+            long remaining = Duration.between(LocalDateTime.now(), share.getExpireTime()).toMillis();
+            return Math.min(defaultTimeout, remaining);
+        }
+
+        /**
+         * 返回副本，调用方修改返回值不影响缓存
+         *
+         * @return 分享记录副本
+         */
+        FileShare copy() {
+            if (share == null) {
+                return null;
+            }
+            FileShare copy = new FileShare();
+            BeanUtils.copyProperties(share, copy);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.filemanager.service.impl;
+
+import cn.hutool.core.collection.ListUtil;
+import com.filemanager.constant.FileConstants;
+import com.filemanager.entity.FileShare;
+import com.filemanager.mapper.FileShareMapper;
+import com.filemanager.service.ShareCacheService;
+import com.filemanager.service.ShareExpiryService;
+import com.filemanager.util.TimingWheel;
+import com.filemanager.util.TransactionUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 分享过期服务实现
+ * 时间轮只保存分享ID，分享的到期时间和链接另存一份；到期弹出时与最新的到期时间比对，
+ * 过期时间被修改或分享被取消后旧的条目直接丢弃，不需要从时间轮中删除。
+ * 定时加载加载范围（load-window）内过期的有效分享，启动时先加载一次，重启后不会遗漏；
+ * 超出范围的分享在后续加载时进入时间轮。标记过期的UPDATE会再次检查状态和过期时间，
+ * 多个实例同时处理或其他实例修改了过期时间都不会误标记
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ShareExpiryServiceImpl implements ShareExpiryService {
+
+    private final FileShareMapper fileShareMapper;
+
+    private final ShareCacheService shareCacheService;
+
+    @Value("${file.share.expiry.tick:1000}")
+    private long tickMs;
+
+    @Value("${file.share.expiry.wheel-size:64}")
+    private int wheelSize;
+
+    @Value("${file.share.expiry.levels:3}")
+    private int levels;
+
+    @Value("${file.share.expiry.load-window:86400000}")
+    private long loadWindow;
+
+    private TimingWheel<Long> wheel;
+
+    /**
+     * 已安排过期的分享，以ID为键
+     */
+    private final Map<Long, Pending> pending = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        wheel = new TimingWheel<>(tickMs, wheelSize, levels, System.currentTimeMillis());
+        long capacity = wheel.getCapacityMs();
+        if (loadWindow > capacity) {
+            log.warn("分享过期加载范围 {}ms 超出时间轮容量，调整为 {}ms", loadWindow, capacity);
+            loadWindow = capacity;
+        }
+    }
+
+    @Override
+    public void schedule(FileShare share) {
+        if (share == null || share.getId() == null) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> {
+            if (FileConstants.EXPIRE_TYPE_NEVER.equals(share.getExpireType()) || share.getExpireTime() == null) {
+                remove(share.getId());
+            } else {
+                add(share.getId(), share.getShareUrl(), toMillis(share.getExpireTime()));
+            }
+        });
+    }
+
+    @Override
+    public void cancel(Long shareId) {
+        if (shareId != null) {
+            TransactionUtils.afterCommit(() -> remove(shareId));
+        }
+    }
+
+    /**
+     * 定时加载即将过期的分享，启动后立即执行一次
+     */
+    @Scheduled(fixedDelayString = "${file.share.expiry.reload-interval:3600000}")
+    public void scheduledReload() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.error("加载即将过期的分享失败", e);
+        }
+    }
+
+    @Override
+    public int reload() {
+        LocalDateTime before = LocalDateTime.now().plus(Duration.ofMillis(loadWindow));
+        LocalDateTime lastTime = null;
+        Long lastId = null;
+        int loaded = 0;
+        while (true) {
+            List<FileShare> shares = fileShareMapper.selectExpiringBatch(before, lastTime, lastId, FileConstants.SQL_BATCH_SIZE);
+            for (FileShare share : shares) {
+                add(share.getId(), share.getShareUrl(), toMillis(share.getExpireTime()));
+            }
+            loaded += shares.size();
+            if (shares.size() < FileConstants.SQL_BATCH_SIZE) {
+                break;
+            }
+            FileShare last = shares.get(shares.size() - 1);
+            lastTime = last.getExpireTime();
+            lastId = last.getId();
+        }
+        log.info("加载即将过期的分享 {} 个", loaded);
+        return loaded;
+    }
+
+    /**
+     * 推进时间轮，将到期的分享批量标记为已过期
+     * 定时任务线程池由spring.task.scheduling.pool.size配置为多个线程，不会排在耗时的定时任务之后
+     */
+    @Scheduled(fixedDelayString = "${file.share.expiry.tick:1000}")
+    public void tick() {
+        long now = System.currentTimeMillis();
+        List<Pending> expired = new ArrayList<>();
+        synchronized (this) {
+            for (Long shareId : wheel.advance(now)) {
+                Pending entry = pending.get(shareId);
+                if (entry == null || entry.deadlineMs / tickMs > now / tickMs) {
+                    // 已取消，或过期时间已推迟，由新的条目处理
+                    continue;
+                }
+                if (entry.deadlineMs > now) {
+                    // 同一刻度内尚未到达过期时间，下次推进时再处理
+                    wheel.add(shareId, entry.deadlineMs);
+                    continue;
+                }
+                pending.remove(shareId);
+                expired.add(entry);
+            }
+        }
+
+        for (List<Pending> chunk : ListUtil.partition(expired, FileConstants.SQL_BATCH_SIZE)) {
+            List<Long> ids = new ArrayList<>(chunk.size());
+            List<String> shareUrls = new ArrayList<>(chunk.size());
+            chunk.forEach(entry -> {
+                ids.add(entry.shareId);
+                shareUrls.add(entry.shareUrl);
+            });
+            try {
+                int updated = fileShareMapper.expireBatch(ids, LocalDateTime.now());
+                shareCacheService.evictAll(shareUrls);
+                log.info("分享过期：{} 个到期，{} 个标记为已过期", ids.size(), updated);
+            } catch (RuntimeException e) {
+                // 放回时间轮，下次推进时重试
+                log.error("标记分享过期失败，{} 个将在下次重试", ids.size(), e);
+                chunk.forEach(entry -> add(entry.shareId, entry.shareUrl, entry.deadlineMs));
+            }
+        }
+    }
+
+    /**
+     * 安排分享过期，超出时间轮容量的由后续加载处理
+     *
+     * @param shareId    分享ID
+     * @param shareUrl   分享链接标识
+     * @param deadlineMs 过期时间（毫秒时间戳）
+     */
+    private synchronized void add(Long shareId, String shareUrl, long deadlineMs) {
+        Pending existing = pending.get(shareId);
+        if (existing != null && existing.deadlineMs == deadlineMs) {
+            return;
+        }
+        if (wheel.add(shareId, deadlineMs)) {
+            pending.put(shareId, new Pending(shareId, shareUrl, deadlineMs));
+        } else {
+            pending.remove(shareId);
+        }
+    }
+
+    private synchronized void remove(Long shareId) {
+        pending.remove(shareId);
+    }
+
+    private long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * 已安排过期的分享
+     */
+    private static class Pending {
+
+        private final Long shareId;
+
+        private final String shareUrl;
+
+        private final long deadlineMs;
+
+        Pending(Long shareId, String shareUrl, long deadlineMs) {
+            this.shareId = shareId;
+            this.shareUrl = shareUrl;
+            this.deadlineMs = deadlineMs;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.filemanager.service.impl;
+
+import com.filemanager.constant.FileConstants;
+import com.filemanager.entity.FileInfo;
+import com.filemanager.mapper.FileBlobMapper;
+import com.filemanager.mapper.FileInfoMapper;
+import com.filemanager.service.AsyncStorageService;
+import com.filemanager.service.StorageLayoutMigrationService;
+import com.filemanager.service.StorageService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 存储目录布局迁移服务实现
+ * 先将物理文件复制（本地存储为硬链接）到新位置，再改写路径，提交后删除原文件：
+ * 迁移过程中原路径一直可读，下载不会因路径已变而找不到文件；新位置已存在其他文件时不覆盖，该文件跳过。
+ * 若在复制后、改写路径前中断，再次执行时新位置与原文件为同一文件，视为已复制，只补写路径
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StorageLayoutMigrationServiceImpl implements StorageLayoutMigrationService {
+
+    /**
+     * 内容存储目录，由FileBlobService管理，不参与迁移
+     */
+    private static final String BLOB_DIR = "blobs/";
+
+    private final StorageService storageService;
+
+    private final AsyncStorageService asyncStorageService;
+
+    private final FileInfoMapper fileInfoMapper;
+
+    private final FileBlobMapper fileBlobMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${file.storage.layout:" + FileConstants.STORAGE_LAYOUT_DATE + "}")
+    private String layout;
+
+    @Override
+    public int migrate(int batchSize) {
+        // 按日期分目录的路径取决于上传时间，无法由文件名推算，只支持迁移到哈希布局
+        if (!FileConstants.STORAGE_LAYOUT_HASH.equals(layout)) {
+            log.info("当前目录布局为{}，无需迁移", layout);
+            return 0;
+        }
+
+        int migrated = 0;
+        long lastId = 0;
+        while (true) {
+            List<FileInfo> batch = fileInfoMapper.selectFilePathBatch(lastId, batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            lastId = batch.get(batch.size() - 1).getId();
+
+            // 同一物理文件可能被多条记录引用，只迁移一次
+            Map<String, String> pathMapping = new LinkedHashMap<>();
+            for (FileInfo fileInfo : batch) {
+                String oldPath = fileInfo.getFilePath();
+                if (!isMigratable(fileInfo) || pathMapping.containsKey(oldPath)) {
+                    continue;
+                }
+                String newPath = storageService.generatePath(oldPath.substring(oldPath.lastIndexOf('/') + 1));
+                if (!Objects.equals(oldPath, newPath)) {
+                    pathMapping.put(oldPath, newPath);
+                }
+            }
+
+            // 各文件的复制互不依赖，并发执行
+            Map<String, Boolean> results = asyncStorageService.forEach(new ArrayList<>(pathMapping.keySet()),
+                    oldPath -> relocate(oldPath, pathMapping.get(oldPath))).join();
+            Map<String, String> relocated = new LinkedHashMap<>();
+            pathMapping.forEach((oldPath, newPath) -> {
+                if (Boolean.TRUE.equals(results.get(oldPath))) {
+                    relocated.put(oldPath, newPath);
+                }
+            });
+
+            if (!relocated.isEmpty()) {
+                transactionTemplate.execute(status -> {
+                    relocated.forEach((oldPath, newPath) -> {
+                        fileInfoMapper.updateFilePath(oldPath, newPath, storageService.getFileUrl(newPath));
+                        fileBlobMapper.updateBlobPath(oldPath, newPath);
+                    });
+                    return null;
+                });
+                // 路径已改写，原文件不再被引用
+                asyncStorageService.forEach(new ArrayList<>(relocated.keySet()), storageService::deleteFile).join();
+                migrated += relocated.size();
+            }
+            log.info("存储目录迁移进度：已处理至ID {}，已迁移 {} 个文件", lastId, migrated);
+        }
+        return migrated;
+    }
+
+    /**
+     * 判断文件记录是否需要参与迁移
+     *
+     * @param fileInfo 文件信息
+     * @return 是否需要迁移
+     */
+    private boolean isMigratable(FileInfo fileInfo) {
+        return Objects.equals(fileInfo.getStorageType(), storageService.getStorageType())
+                && fileInfo.getFilePath() != null
+                && !fileInfo.getFilePath().startsWith(BLOB_DIR);
+    }
+
+    /**
+     * 将物理文件复制到新路径，原文件保留到路径改写之后
+     *
+     * @param oldPath 原路径
+     * @param newPath 新路径
+     * @return 文件是否已位于新路径
+     */
+    private boolean relocate(String oldPath, String newPath) {
+        if (storageService.exists(oldPath)) {
+            return storageService.copyFileNoReplace(oldPath, newPath);
+        }
+        if (storageService.exists(newPath)) {
+            // 原文件已不存在而新位置存在（如旧版本迁移在移动文件后中断），只需补写路径
+            return true;
+        }
+        log.warn("迁移时未找到物理文件: {}", oldPath);
+        return false;
+    }
+}
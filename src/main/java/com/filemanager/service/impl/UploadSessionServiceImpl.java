@@ -0,0 +1,366 @@
+package com.filemanager.service.impl;
+
+import cn.hutool.core.collection.ListUtil;
+import com.filemanager.constant.FileConstants;
+import com.filemanager.dto.UploadSession;
+import com.filemanager.entity.FileInfo;
+import com.filemanager.entity.UploadSessionRecord;
+import com.filemanager.mapper.FileFolderMapper;
+import com.filemanager.mapper.UploadSessionMapper;
+import com.filemanager.service.ContentIndexService;
+import com.filemanager.service.FileInfoService;
+import com.filemanager.service.FileNameIndexService;
+import com.filemanager.service.FolderStatService;
+import com.filemanager.service.NameSuggestService;
+import com.filemanager.service.QuotaLedgerService;
+import com.filemanager.service.QuotaReservation;
+import com.filemanager.service.StorageService;
+import com.filemanager.service.UploadSessionService;
+import com.filemanager.utils.FileUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 分片上传会话服务实现
+ * 会话元数据和已接收的分片保存在数据库中，服务重启后客户端可查询进度并继续上传；
+ * 分片数据由StorageService按偏移量写入会话区域。会话按最后活动时间过期，
+ * 清理时同时扫描会话区域，删除没有会话记录的残留数据
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UploadSessionServiceImpl implements UploadSessionService {
+
+    /**
+     * 根目录ID
+     */
+    private static final long ROOT_FOLDER_ID = 0L;
+
+    private final StorageService storageService;
+
+    private final FileInfoService fileInfoService;
+
+    private final FileNameIndexService fileNameIndexService;
+
+    private final NameSuggestService nameSuggestService;
+
+    private final ContentIndexService contentIndexService;
+
+    private final FolderStatService folderStatService;
+
+    private final QuotaLedgerService quotaLedgerService;
+
+    private final UploadSessionMapper uploadSessionMapper;
+
+    private final FileFolderMapper fileFolderMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 会话占用的存储空间预留，以会话ID为键；预留只保存在内存中，重启后在会话下次被访问时重新预留
+     */
+    private final Map<String, QuotaReservation> reservations = new ConcurrentHashMap<>();
+
+    @Value("${file.upload.session.max-file-size:10737418240}")
+    private long maxFileSize;
+
+    @Value("${file.upload.session.min-chunk-size:1048576}")
+    private int minChunkSize;
+
+    @Value("${file.upload.session.max-chunk-size:33554432}")
+    private int maxChunkSize;
+
+    @Value("${file.upload.session.expire-hours:24}")
+    private int expireHours;
+
+    @Override
+    public UploadSession initSession(String fileName, long fileSize, int chunkSize, Long folderId, Long userId) {
+        if (StringUtils.isBlank(fileName)) {
+            throw new IllegalArgumentException("文件名不能为空");
+        }
+        if (fileSize <= 0 || fileSize > maxFileSize) {
+            throw new IllegalArgumentException("文件大小超出限制");
+        }
+        if (chunkSize < minChunkSize || chunkSize > maxChunkSize) {
+            throw new IllegalArgumentException("分片大小必须在" + minChunkSize + "到" + maxChunkSize + "字节之间");
+        }
+        if (!Objects.equals(folderId, ROOT_FOLDER_ID) && fileFolderMapper.countWritableFolder(folderId, userId) == 0) {
+            throw new IllegalArgumentException("目标文件夹不存在或无权限");
+        }
+
+        UploadSessionRecord record = new UploadSessionRecord();
+        record.setId(UUID.randomUUID().toString().replace("-", ""));
+        record.setFileName(fileName);
+        record.setFileSize(fileSize);
+        record.setChunkSize(chunkSize);
+        record.setTotalChunks((int) ((fileSize + chunkSize - 1) / chunkSize));
+        record.setFolderId(folderId);
+        record.setUserId(userId);
+        record.setCreateTime(LocalDateTime.now());
+        record.setUpdateTime(record.getCreateTime());
+
+        // 会话期间一直占用文件大小的空间，完成时转为使用量，取消或过期时释放
+        QuotaReservation reservation = quotaLedgerService.reserve(userId, fileSize);
+        try {
+            storageService.createUploadSession(record.getId(), fileSize);
+            try {
+                uploadSessionMapper.insert(record);
+            } catch (RuntimeException e) {
+                storageService.deleteUploadSession(record.getId());
+                throw e;
+            }
+        } catch (RuntimeException e) {
+            quotaLedgerService.cancel(reservation);
+            throw e;
+        }
+        reservations.put(record.getId(), reservation);
+        return toSession(record, Collections.emptyList());
+    }
+
+    @Override
+    public UploadSession uploadChunk(String sessionId, int chunkIndex, InputStream inputStream, long length, Long userId) {
+        UploadSessionRecord record = getRecord(sessionId, userId);
+        if (chunkIndex < 0 || chunkIndex >= record.getTotalChunks()) {
+            throw new IllegalArgumentException("分片序号无效: " + chunkIndex);
+        }
+
+        long position = (long) chunkIndex * record.getChunkSize();
+        long expectedLength = Math.min(record.getChunkSize(), record.getFileSize() - position);
+        if (length >= 0 && length != expectedLength) {
+            throw new IllegalArgumentException("分片大小应为" + expectedLength + "字节");
+        }
+
+        getReservation(record);
+        storageService.writeUploadChunk(sessionId, position, inputStream, expectedLength);
+        // 分片写入成功后才记录，记录失败时客户端重传该分片即可
+        uploadSessionMapper.insertChunk(sessionId, chunkIndex);
+        uploadSessionMapper.touch(sessionId);
+        return toSession(record, uploadSessionMapper.selectChunkIndexes(sessionId));
+    }
+
+    @Override
+    public UploadSession getSession(String sessionId, Long userId) {
+        UploadSessionRecord record = uploadSessionMapper.selectById(sessionId);
+        if (record == null || !Objects.equals(record.getUserId(), userId)) {
+            return null;
+        }
+        return toSession(record, uploadSessionMapper.selectChunkIndexes(sessionId));
+    }
+
+    @Override
+    public FileInfo completeSession(String sessionId, Long userId) {
+        UploadSessionRecord record = getRecord(sessionId, userId);
+        if (uploadSessionMapper.countChunks(sessionId) != record.getTotalChunks()) {
+            throw new IllegalStateException("分片尚未全部上传");
+        }
+        QuotaReservation reservation = getReservation(record);
+
+        // 记录文件MD5，使合并后的文件可以秒传和按内容共享
+        MessageDigest digest = FileUtils.createMD5Digest();
+        storageService.digestUploadSession(sessionId, digest);
+
+        String fileName = FileUtils.generateUniqueFileName(record.getFileName());
+        String filePath = storageService.generatePath(fileName);
+
+        String extension = FileUtils.getExtension(record.getFileName());
+        String mimeType = FileUtils.getMimeType(extension);
+        FileInfo fileInfo = new FileInfo();
+        fileInfo.setFileName(fileName);
+        fileInfo.setOriginalName(record.getFileName());
+        fileInfo.setFilePath(filePath);
+        fileInfo.setFileUrl(storageService.getFileUrl(filePath));
+        fileInfo.setFileExt(extension);
+        fileInfo.setFileSize(record.getFileSize());
+        fileInfo.setFileType(FileUtils.getFileTypeFromMimeType(mimeType));
+        fileInfo.setMimeType(mimeType);
+        fileInfo.setStorageType(storageService.getStorageType());
+        fileInfo.setFolderId(record.getFolderId());
+        fileInfo.setCreateUserId(userId);
+        fileInfo.setBelongType(0);
+        fileInfo.setFileMd5(FileUtils.bytesToHex(digest.digest()));
+        fileInfo.setStatus(FileConstants.FILE_STATUS_NORMAL);
+        fileInfo.setIsFavorite(0);
+        fileInfo.setIsShared(0);
+        fileInfo.setIsPublic(0);
+        fileInfo.setDownloadCount(0);
+        fileInfo.setPreviewCount(0);
+        fileInfo.setCreateTime(LocalDateTime.now());
+
+        // 数据文件在事务中移动，事务回滚（包括提交失败）时移回会话区域，会话记录和数据保持一致，客户端可重试
+        boolean[] claimed = new boolean[1];
+        boolean[] moved = new boolean[1];
+        try {
+            transactionTemplate.execute(status -> {
+                // 删除会话记录时锁定该行，并发的完成请求只有一个能删除成功，不会重复生成文件
+                if (uploadSessionMapper.deleteById(sessionId) == 0) {
+                    throw new IllegalStateException("上传会话已完成或已取消");
+                }
+                claimed[0] = true;
+                uploadSessionMapper.deleteChunks(sessionId);
+                storageService.completeUploadSession(sessionId, filePath);
+                moved[0] = true;
+                fileInfoService.save(fileInfo);
+                quotaLedgerService.commit(reservation, record.getFileSize());
+                folderStatService.addFiles(Collections.singletonList(fileInfo));
+                return null;
+            });
+        } catch (RuntimeException e) {
+            if (moved[0] && !storageService.rollbackUploadSession(sessionId, filePath)) {
+                log.error("上传会话数据未能移回，会话无法继续完成: {}", sessionId);
+            }
+            // 会话已由其他请求完成时预留归该请求使用；否则释放预留，会话下次被访问时重新预留
+            if (claimed[0]) {
+                reservations.remove(sessionId, reservation);
+                quotaLedgerService.cancel(reservation);
+            }
+            throw e;
+        }
+        reservations.remove(sessionId, reservation);
+
+        fileNameIndexService.addFiles(Collections.singletonList(fileInfo));
+        nameSuggestService.addFiles(Collections.singletonList(fileInfo));
+        contentIndexService.submitFiles(Collections.singletonList(fileInfo));
+        return fileInfo;
+    }
+
+    @Override
+    public boolean abortSession(String sessionId, Long userId) {
+        UploadSessionRecord record = uploadSessionMapper.selectById(sessionId);
+        if (record == null || !Objects.equals(record.getUserId(), userId)) {
+            return false;
+        }
+        removeSession(sessionId);
+        return storageService.deleteUploadSession(sessionId);
+    }
+
+    /**
+     * 定时清理过期的上传会话：最后活动时间超过有效期的会话，以及会话区域中没有会话记录的残留数据
+     */
+    @Scheduled(fixedDelayString = "${file.upload.session.clean-interval:3600000}")
+    public void cleanExpiredSessions() {
+        try {
+            LocalDateTime expireBefore = LocalDateTime.now().minusHours(expireHours);
+            int expired = cleanInactiveSessions(expireBefore);
+            int orphaned = cleanOrphanedSessions(expireBefore);
+            if (expired > 0 || orphaned > 0) {
+                log.info("清理上传会话：{} 个过期，{} 个残留", expired, orphaned);
+            }
+        } catch (Exception e) {
+            log.error("清理过期上传会话失败", e);
+        }
+    }
+
+    /**
+     * 删除最后活动时间早于指定时间的会话
+     *
+     * @param expireBefore 过期时间点
+     * @return 删除的会话数
+     */
+    private int cleanInactiveSessions(LocalDateTime expireBefore) {
+        int cleaned = 0;
+        while (true) {
+            List<UploadSessionRecord> records = uploadSessionMapper.selectInactive(expireBefore, FileConstants.SQL_BATCH_SIZE);
+            for (UploadSessionRecord record : records) {
+                removeSession(record.getId());
+                storageService.deleteUploadSession(record.getId());
+                log.info("清理过期上传会话: {}", record.getId());
+            }
+            cleaned += records.size();
+            if (records.size() < FileConstants.SQL_BATCH_SIZE) {
+                return cleaned;
+            }
+        }
+    }
+
+    /**
+     * 删除会话区域中没有会话记录的数据（如会话记录写入失败，或会话记录已被删除但数据删除失败）。
+     * 只处理修改时间早于过期时间点的数据，不会删除正在初始化、尚未写入会话记录的会话
+     *
+     * @param expireBefore 过期时间点
+     * @return 删除的会话数
+     */
+    private int cleanOrphanedSessions(LocalDateTime expireBefore) {
+        long modifiedBefore = expireBefore.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        int cleaned = 0;
+        for (List<String> chunk : ListUtil.partition(storageService.listUploadSessions(modifiedBefore),
+                FileConstants.SQL_BATCH_SIZE)) {
+            Set<String> existing = new HashSet<>(uploadSessionMapper.selectExistingIds(chunk));
+            for (String sessionId : chunk) {
+                if (!existing.contains(sessionId) && storageService.deleteUploadSession(sessionId)) {
+                    cleaned++;
+                }
+            }
+        }
+        return cleaned;
+    }
+
+    /**
+     * 删除会话记录并释放预留的空间
+     *
+     * @param sessionId 会话ID
+     */
+    private void removeSession(String sessionId) {
+        uploadSessionMapper.deleteById(sessionId);
+        uploadSessionMapper.deleteChunks(sessionId);
+        quotaLedgerService.cancel(reservations.remove(sessionId));
+    }
+
+    /**
+     * 获取属于当前用户的会话
+     *
+     * @param sessionId 会话ID
+     * @param userId    用户ID
+     * @return 会话记录
+     */
+    private UploadSessionRecord getRecord(String sessionId, Long userId) {
+        UploadSessionRecord record = uploadSessionMapper.selectById(sessionId);
+        if (record == null || !Objects.equals(record.getUserId(), userId)) {
+            throw new IllegalArgumentException("上传会话不存在或已过期");
+        }
+        return record;
+    }
+
+    /**
+     * 获取会话的空间预留，服务重启后首次访问时重新预留
+     *
+     * @param record 会话记录
+     * @return 预留
+     * @throws IllegalStateException 存储空间不足
+     */
+    private QuotaReservation getReservation(UploadSessionRecord record) {
+        return reservations.computeIfAbsent(record.getId(),
+                id -> quotaLedgerService.reserve(record.getUserId(), record.getFileSize()));
+    }
+
+    private UploadSession toSession(UploadSessionRecord record, List<Integer> uploadedChunks) {
+        UploadSession session = new UploadSession();
+        session.setSessionId(record.getId());
+        session.setFileName(record.getFileName());
+        session.setFileSize(record.getFileSize());
+        session.setChunkSize(record.getChunkSize());
+        session.setTotalChunks(record.getTotalChunks());
+        session.setUploadedChunks(uploadedChunks);
+        session.setFolderId(record.getFolderId());
+        session.setUserId(record.getUserId());
+        session.setCreateTime(record.getCreateTime());
+        return session;
+    }
+}
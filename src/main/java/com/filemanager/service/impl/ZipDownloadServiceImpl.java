@@ -0,0 +1,279 @@
+package com.filemanager.service.impl;
+
+import cn.hutool.core.collection.ListUtil;
+import com.filemanager.constant.FileConstants;
+import com.filemanager.entity.FileFolder;
+import com.filemanager.entity.FileInfo;
+import com.filemanager.entity.FileShare;
+import com.filemanager.mapper.FileFolderMapper;
+import com.filemanager.mapper.FileInfoMapper;
+import com.filemanager.service.StorageObject;
+import com.filemanager.service.StorageService;
+import com.filemanager.service.ZipDownloadService;
+import com.filemanager.util.FileTypeUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 打包下载服务实现
+ * 文件按ID游标分批从数据库读取，逐个从存储读取并写入ZipOutputStream，每个请求只占用一个复制缓冲区；
+ * 文件夹只保留ID到压缩包内路径的映射。图片、视频和压缩文件本身已压缩，以不压缩级别写入，
+ * 避免无效的压缩计算，其余文件正常压缩
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ZipDownloadServiceImpl implements ZipDownloadService {
+
+    /**
+     * 复制缓冲区大小
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final DateTimeFormatter ARCHIVE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private final FileInfoMapper fileInfoMapper;
+
+    private final FileFolderMapper fileFolderMapper;
+
+    private final StorageService storageService;
+
+    @Value("${file.download.zip.compression-level:6}")
+    private int compressionLevel;
+
+    @Override
+    public void downloadFolder(Long folderId, Long userId, HttpServletResponse response) throws IOException {
+        FileFolder folder = fileFolderMapper.selectNormalFolder(folderId);
+        if (folder == null) {
+            throw new IllegalArgumentException("文件夹不存在");
+        }
+        if (!Objects.equals(folder.getCreateUserId(), userId)
+                && !Objects.equals(folder.getBelongType(), 2) && !Objects.equals(folder.getIsPublic(), 1)) {
+            throw new IllegalStateException("无权下载该文件夹");
+        }
+        writeFolder(folder, userId, response);
+    }
+
+    @Override
+    public void downloadFiles(List<Long> fileIds, Long userId, HttpServletResponse response) throws IOException {
+        if (fileIds == null || fileIds.isEmpty()) {
+            throw new IllegalArgumentException("请选择要下载的文件");
+        }
+
+        // 压缩包在遇到第一个可下载的文件时才开始写入，全部不可下载时仍可返回错误
+        ZipOutputStream zip = null;
+        byte[] buffer = new byte[BUFFER_SIZE];
+        for (List<Long> chunk : ListUtil.partition(fileIds, FileConstants.SQL_BATCH_SIZE)) {
+            for (FileInfo file : fileInfoMapper.selectNormalFilesByIds(chunk)) {
+                if (!Objects.equals(file.getCreateUserId(), userId) && !Objects.equals(file.getIsPublic(), 1)) {
+                    continue;
+                }
+                if (zip == null) {
+                    zip = openArchive("files_" + LocalDateTime.now().format(ARCHIVE_TIME_FORMATTER), response);
+                }
+                writeFile(zip, "", file, buffer);
+            }
+        }
+        if (zip == null) {
+            throw new IllegalArgumentException("没有可下载的文件");
+        }
+        finishArchive(zip);
+    }
+
+    @Override
+    public void downloadShare(FileShare share, HttpServletResponse response) throws IOException {
+        if (!FileConstants.SHARE_TYPE_FOLDER.equals(share.getShareType())) {
+            throw new IllegalArgumentException("只能打包下载文件夹分享");
+        }
+        if (Objects.equals(share.getAllowDownload(), 0)) {
+            throw new IllegalStateException("该分享不允许下载");
+        }
+        FileFolder folder = fileFolderMapper.selectNormalFolder(share.getFolderId());
+        if (folder == null) {
+            throw new IllegalArgumentException("分享的文件夹不存在");
+        }
+        writeFolder(folder, null, response);
+    }
+
+    /**
+     * 将文件夹子树写入压缩包，压缩包内以该文件夹为顶层目录，空文件夹也会保留
+     *
+     * @param folder   文件夹
+     * @param userId   下载用户ID，只打包其本人的文件和公开文件；为null时打包全部文件
+     * @param response HTTP响应对象
+     * @throws IOException IO异常
+     */
+    private void writeFolder(FileFolder folder, Long userId, HttpServletResponse response) throws IOException {
+        ZipOutputStream zip = openArchive(folder.getFolderName(), response);
+
+        // 父级在前，逐个拼接出压缩包内的目录路径
+        Map<Long, String> directories = new HashMap<>();
+        for (FileFolder subFolder : fileFolderMapper.selectSubtreeFolders(folder.getId())) {
+            String parentPath = Objects.equals(subFolder.getId(), folder.getId())
+                    ? "" : directories.get(subFolder.getParentId());
+            if (parentPath == null) {
+                continue;
+            }
+            String path = putEntry(zip, parentPath + entryName(subFolder.getFolderName()) + "/",
+                    subFolder.getId(), null);
+            zip.closeEntry();
+            directories.put(subFolder.getId(), path);
+        }
+
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long lastId = 0;
+        while (true) {
+            List<FileInfo> files = fileInfoMapper.selectSubtreeFileBatch(folder.getId(), userId, lastId,
+                    FileConstants.SQL_BATCH_SIZE);
+            for (FileInfo file : files) {
+                String directory = directories.get(file.getFolderId());
+                if (directory != null) {
+                    writeFile(zip, directory, file, buffer);
+                }
+            }
+            if (files.size() < FileConstants.SQL_BATCH_SIZE) {
+                break;
+            }
+            lastId = files.get(files.size() - 1).getId();
+        }
+        finishArchive(zip);
+    }
+
+    /**
+     * 将一个文件写入压缩包，存储中不存在的文件跳过
+     *
+     * @param zip       压缩包输出流
+     * @param directory 压缩包内的目录路径，顶层为空字符串
+     * @param file      文件信息
+     * @param buffer    复制缓冲区
+     * @throws IOException IO异常
+     */
+    private void writeFile(ZipOutputStream zip, String directory, FileInfo file, byte[] buffer) throws IOException {
+        try (StorageObject object = storageService.getObject(file.getFilePath())) {
+            if (object == null) {
+                log.warn("打包下载时文件内容不存在，跳过: id={}, path={}", file.getId(), file.getFilePath());
+                return;
+            }
+            // 级别在写入条目前设置，对该条目生效
+            zip.setLevel(isCompressed(file.getOriginalName()) ? Deflater.NO_COMPRESSION : compressionLevel);
+            LocalDateTime time = file.getUpdateTime() != null ? file.getUpdateTime() : file.getCreateTime();
+            putEntry(zip, directory + entryName(file.getOriginalName()), file.getId(), time);
+            try (InputStream in = object.getInputStream()) {
+                int length;
+                while ((length = in.read(buffer)) != -1) {
+                    zip.write(buffer, 0, length);
+                }
+            }
+            zip.closeEntry();
+        }
+    }
+
+    /**
+     * 开始一个条目，同一目录下名称重复时在名称后追加ID，仍重复时继续追加直到名称可用
+     *
+     * @param zip  压缩包输出流
+     * @param name 条目名称，目录以/结尾
+     * @param id   文件或文件夹ID
+     * @param time 修改时间，可为null
+     * @return 实际使用的条目名称
+     * @throws IOException IO异常
+     */
+    private String putEntry(ZipOutputStream zip, String name, Long id, LocalDateTime time) throws IOException {
+        String entryName = name;
+        while (true) {
+            try {
+                zip.putNextEntry(newEntry(entryName, time));
+                return entryName;
+            } catch (ZipException e) {
+                // ZipOutputStream只在名称重复时抛出该异常，此时尚未写入任何内容
+                entryName = uniqueName(entryName, id);
+            }
+        }
+    }
+
+    private ZipEntry newEntry(String name, LocalDateTime time) {
+        ZipEntry entry = new ZipEntry(name);
+        if (time != null) {
+            entry.setTime(time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+        return entry;
+    }
+
+    /**
+     * 在名称（扩展名之前）追加ID，如a.txt变为a(12).txt、docs/变为docs(5)/
+     */
+    private String uniqueName(String name, Long id) {
+        boolean directory = name.endsWith("/");
+        String path = directory ? name.substring(0, name.length() - 1) : name;
+        int slash = path.lastIndexOf('/');
+        int dot = path.lastIndexOf('.');
+        String suffix = "(" + id + ")";
+        String unique = !directory && dot > slash + 1
+                ? path.substring(0, dot) + suffix + path.substring(dot) : path + suffix;
+        return directory ? unique + "/" : unique;
+    }
+
+    /**
+     * 将文件或文件夹名称转为压缩包内的单级名称，去除路径分隔符，防止解压到目标目录之外
+     */
+    private String entryName(String name) {
+        String entryName = StringUtils.defaultIfBlank(name, "unnamed").replace('/', '_').replace('\\', '_');
+        return ".".equals(entryName) || "..".equals(entryName) ? "_" : entryName;
+    }
+
+    /**
+     * 图片、视频和压缩文件本身已压缩，不再压缩
+     */
+    private boolean isCompressed(String fileName) {
+        return FileTypeUtils.isArchive(fileName) || FileTypeUtils.isVideo(fileName) || FileTypeUtils.isImage(fileName);
+    }
+
+    /**
+     * 设置响应头并创建压缩包输出流
+     *
+     * @param archiveName 压缩包名称（不含扩展名）
+     * @param response    HTTP响应对象
+     * @return 压缩包输出流
+     * @throws IOException IO异常
+     */
+    private ZipOutputStream openArchive(String archiveName, HttpServletResponse response) throws IOException {
+        String encodedFileName = URLEncoder.encode(entryName(archiveName) + ".zip", StandardCharsets.UTF_8.name())
+                .replaceAll("\\+", "%20");
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + encodedFileName + "\"");
+        return new ZipOutputStream(new BufferedOutputStream(response.getOutputStream(), BUFFER_SIZE), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 写入中央目录并刷新，响应流由容器关闭
+     *
+     * @param zip 压缩包输出流
+     * @throws IOException IO异常
+     */
+    private void finishArchive(ZipOutputStream zip) throws IOException {
+        zip.finish();
+        zip.flush();
+    }
+}
@@ -0,0 +1,29 @@
+package com.filemanager.task;
+
+import com.filemanager.service.FileNameIndexService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * 启动时加载文件名索引，索引不存在时从数据库重建
+ * 加载完成前搜索退回数据库查询
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FileNameIndexLoader implements ApplicationRunner {
+
+    private final FileNameIndexService fileNameIndexService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            fileNameIndexService.load();
+        } catch (Exception e) {
+            log.error("加载文件名索引失败，搜索将使用数据库查询", e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.filemanager.task;
+
+import com.filemanager.mapper.FolderClosureMapper;
+import com.filemanager.service.FolderService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * 启动时检查文件夹闭包表，为空时（升级前创建的数据）按父级关系初始化
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FolderClosureInitializer implements ApplicationRunner {
+
+    private final FolderClosureMapper folderClosureMapper;
+
+    private final FolderService folderService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            if (folderClosureMapper.countAll() == 0) {
+                log.info("文件夹闭包表为空，开始初始化");
+                folderService.rebuildClosure();
+            }
+        } catch (Exception e) {
+            log.error("初始化文件夹闭包表失败", e);
+        }
+    }
+}
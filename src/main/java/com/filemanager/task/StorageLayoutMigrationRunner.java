@@ -0,0 +1,33 @@
+package com.filemanager.task;
+
+import com.filemanager.service.StorageLayoutMigrationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 存储目录布局迁移任务
+ * 开启file.storage.layout-migration.enabled后在启动时执行一次
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "file.storage.layout-migration.enabled", havingValue = "true")
+public class StorageLayoutMigrationRunner implements ApplicationRunner {
+
+    private final StorageLayoutMigrationService storageLayoutMigrationService;
+
+    @Value("${file.storage.layout-migration.batch-size:500}")
+    private int batchSize;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("开始迁移存储目录布局");
+        int migrated = storageLayoutMigrationService.migrate(batchSize);
+        log.info("存储目录布局迁移完成，共迁移 {} 个文件", migrated);
+    }
+}
@@ -0,0 +1,74 @@
+package com.filemanager.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * 并发任务工具类
+ *
+ * @author filemanager
+ */
+@Slf4j
+public class ConcurrentTaskUtils {
+
+    private ConcurrentTaskUtils() {
+    }
+
+    /**
+     * 以有限的并发度对每个元素执行任务
+     * 启动parallelism个工作任务共同领取元素，同一批次最多占用parallelism个线程；
+     * 单个元素执行失败（返回false或抛出异常）不影响其他元素
+     *
+     * @param items       元素列表
+     * @param parallelism 最大并发数
+     * @param executor    执行任务的线程池
+     * @param task        任务，返回是否成功
+     * @param <T>         元素类型
+     * @return 每个元素的执行结果
+     */
+    public static <T> CompletableFuture<Map<T, Boolean>> runAll(List<T> items, int parallelism,
+                                                                Executor executor, Predicate<T> task) {
+        Map<T, Boolean> results = new ConcurrentHashMap<>(items.size());
+        if (items.isEmpty()) {
+            return CompletableFuture.completedFuture(results);
+        }
+
+        AtomicInteger next = new AtomicInteger();
+        int workerCount = Math.max(1, Math.min(parallelism, items.size()));
+        CompletableFuture<?>[] workers = new CompletableFuture<?>[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = CompletableFuture.runAsync(() -> {
+                int index;
+                while ((index = next.getAndIncrement()) < items.size()) {
+                    T item = items.get(index);
+                    results.put(item, runSafely(item, task));
+                }
+            }, executor);
+        }
+        return CompletableFuture.allOf(workers).thenApply(v -> results);
+    }
+
+    /**
+     * 执行单个任务，异常视为失败
+     *
+     * @param item 元素
+     * @param task 任务
+     * @param <T>  元素类型
+     * @return 是否成功
+     */
+    private static <T> boolean runSafely(T item, Predicate<T> task) {
+        try {
+            return task.test(item);
+        } catch (Exception e) {
+            log.error("任务执行失败: {}", item, e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.filemanager.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 计数缓冲
+ * 在内存中按ID累计计数增量，由调用方定期取出后批量写入数据库。
+ * 累加和取出都是对单个键的原子操作，取出与并发累加交错时不会丢失计数
+ *
+ * @author filemanager
+ */
+public class CounterBuffer {
+
+    private final Map<Long, Long> counts = new ConcurrentHashMap<>();
+
+    /**
+     * 累加计数
+     *
+     * @param id    ID
+     * @param delta 增量
+     */
+    public void add(Long id, long delta) {
+        if (id != null && delta != 0) {
+            counts.merge(id, delta, Long::sum);
+        }
+    }
+
+    /**
+     * 取出全部累计的增量并清空
+     *
+     * @return 增量列表，每行依次为ID、增量
+     */
+    public List<long[]> drain() {
+        List<long[]> deltas = new ArrayList<>(counts.size());
+        for (Long id : counts.keySet()) {
+            Long delta = counts.remove(id);
+            if (delta != null && delta != 0) {
+                deltas.add(new long[]{id, delta});
+            }
+        }
+        return deltas;
+    }
+
+    /**
+     * 放回未能写入的增量，与期间新的累加合并
+     *
+     * @param deltas 增量列表
+     */
+    public void restore(List<long[]> deltas) {
+        for (long[] delta : deltas) {
+            add(delta[0], delta[1]);
+        }
+    }
+
+    /**
+     * 是否没有待写入的增量
+     *
+     * @return 是否为空
+     */
+    public boolean isEmpty() {
+        return counts.isEmpty();
+    }
+}
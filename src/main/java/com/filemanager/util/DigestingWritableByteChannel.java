@@ -0,0 +1,67 @@
+package com.filemanager.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.security.MessageDigest;
+
+/**
+ * 摘要计算通道
+ * 包装目标写入通道，在写入的同时更新摘要并统计字节数，使上传内容只需读取一次
+ *
+ * @author filemanager
+ */
+public class DigestingWritableByteChannel implements WritableByteChannel {
+
+    /**
+     * 目标通道
+     */
+    private final WritableByteChannel target;
+
+    /**
+     * 摘要算法
+     */
+    private final MessageDigest digest;
+
+    /**
+     * 已写入的字节数
+     */
+    private long bytesWritten;
+
+    public DigestingWritableByteChannel(WritableByteChannel target, MessageDigest digest) {
+        this.target = target;
+        this.digest = digest;
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        // 只对目标通道实际接收的部分计算摘要
+        ByteBuffer view = src.duplicate();
+        int written = target.write(src);
+        if (written > 0) {
+            view.limit(view.position() + written);
+            digest.update(view);
+            bytesWritten += written;
+        }
+        return written;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return target.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        target.close();
+    }
+
+    /**
+     * 获取已写入的字节数
+     *
+     * @return 字节数
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+}
@@ -0,0 +1,122 @@
+package com.filemanager.util;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.xssf.extractor.XSSFEventBasedExcelExtractor;
+import org.apache.poi.xwpf.extractor.XWPFWordExtractor;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 文档文本提取工具类
+ * 支持纯文本、PDF、Word（docx）和Excel（xlsx）文档，提取结果按字符数截断
+ *
+ * @author filemanager
+ */
+public class DocumentTextExtractor {
+
+    private static final String MIME_PDF = "application/pdf";
+    private static final String MIME_DOCX = "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
+    private static final String MIME_XLSX = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+    /**
+     * 按纯文本读取的MIME类型
+     */
+    private static final Set<String> TEXT_MIME_TYPES = new HashSet<>(Arrays.asList(
+            "text/plain", "text/csv", "text/markdown"
+    ));
+
+    private DocumentTextExtractor() {
+    }
+
+    /**
+     * 判断文件是否支持提取文本
+     *
+     * @param fileName 文件名
+     * @return 是否支持
+     */
+    public static boolean isSupported(String fileName) {
+        if (FileTypeUtils.getFileType(fileName) != FileTypeUtils.FileType.DOCUMENT) {
+            return false;
+        }
+        String mimeType = FileMimeTypeUtils.getMimeTypeByFilename(fileName);
+        return TEXT_MIME_TYPES.contains(mimeType)
+                || MIME_PDF.equals(mimeType)
+                || MIME_DOCX.equals(mimeType)
+                || MIME_XLSX.equals(mimeType);
+    }
+
+    /**
+     * 提取文档文本
+     * PDF使用临时文件缓存解析数据，xlsx使用事件模式逐行读取，避免整个文档驻留内存
+     *
+     * @param inputStream 文档内容输入流，由调用方关闭
+     * @param fileName    文件名，用于判断文档类型
+     * @param maxChars    最大字符数，超出部分丢弃
+     * @return 文本内容，不支持的类型返回null
+     * @throws IOException IO异常
+     */
+    public static String extract(InputStream inputStream, String fileName, int maxChars) throws IOException {
+        String mimeType = FileMimeTypeUtils.getMimeTypeByFilename(fileName);
+        if (TEXT_MIME_TYPES.contains(mimeType)) {
+            return readText(inputStream, maxChars);
+        }
+        if (MIME_PDF.equals(mimeType)) {
+            try (PDDocument document = PDDocument.load(inputStream, MemoryUsageSetting.setupTempFileOnly())) {
+                return truncate(new PDFTextStripper().getText(document), maxChars);
+            }
+        }
+        if (MIME_DOCX.equals(mimeType)) {
+            try (XWPFWordExtractor extractor = new XWPFWordExtractor(new XWPFDocument(inputStream))) {
+                return truncate(extractor.getText(), maxChars);
+            }
+        }
+        if (MIME_XLSX.equals(mimeType)) {
+            try (OPCPackage pkg = OPCPackage.open(inputStream);
+                 XSSFEventBasedExcelExtractor extractor = new XSSFEventBasedExcelExtractor(pkg)) {
+                extractor.setIncludeSheetNames(true);
+                return truncate(extractor.getText(), maxChars);
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("解析Excel文档失败: " + fileName, e);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 按UTF-8读取纯文本，最多读取指定字符数
+     *
+     * @param inputStream 输入流
+     * @param maxChars    最大字符数
+     * @return 文本内容
+     * @throws IOException IO异常
+     */
+    private static String readText(InputStream inputStream, int maxChars) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        StringBuilder builder = new StringBuilder(Math.min(maxChars, 8192));
+        char[] buffer = new char[8192];
+        int read;
+        while (builder.length() < maxChars
+                && (read = reader.read(buffer, 0, Math.min(buffer.length, maxChars - builder.length()))) != -1) {
+            builder.append(buffer, 0, read);
+        }
+        return builder.toString();
+    }
+
+    private static String truncate(String text, int maxChars) {
+        return StringUtils.truncate(text, maxChars);
+    }
+}
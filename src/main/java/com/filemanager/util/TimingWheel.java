@@ -0,0 +1,204 @@
+package com.filemanager.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 分层时间轮
+ * 第0层每格为一个刻度，第n层每格为下一层转一圈的时长；到期时间距离当前越远，放入的层级越高，
+ * 时间推进到高层某一格的起点时，该格内的条目重新放入下面的层级，最终在第0层到期。
+ * 下面各层只放入与当前时间处于上一层同一格内的条目；最高层可以跨过一圈的边界，
+ * 只要条目所在的格在转满一圈之前不会再被经过，因此任意时刻都至少可以容纳 tickMs * wheelSize^levels 的时长。
+ * 添加和到期都是O(1)，与条目数量无关。非线程安全，由调用方加锁
+ *
+ * @param <T> 条目类型
+ * @author filemanager
+ */
+public class TimingWheel<T> {
+
+    private final long tickMs;
+
+    private final int wheelSize;
+
+    /**
+     * 各层的格子，buckets[层级][格子]
+     */
+    private final List<Entry<T>>[][] buckets;
+
+    /**
+     * 各层每格对应的刻度数
+     */
+    private final long[] spans;
+
+    /**
+     * 已添加但添加时即已到期的条目，下次推进时返回
+     */
+    private final List<T> overdue = new ArrayList<>();
+
+    /**
+     * 当前刻度
+     */
+    private long currentTick;
+
+    private int size;
+
+    /**
+     * 创建时间轮
+     *
+     * @param tickMs    刻度（毫秒）
+     * @param wheelSize 每层格数
+     * @param levels    层数，至少可容纳 tickMs * wheelSize^levels 的时长
+     * @param startMs   起始时间（毫秒时间戳）
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMs, int wheelSize, int levels, long startMs) {
+        if (tickMs <= 0 || wheelSize < 2 || levels < 1) {
+            throw new IllegalArgumentException("时间轮参数无效");
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.buckets = new List[levels][wheelSize];
+        this.spans = new long[levels + 1];
+        spans[0] = 1;
+        for (int level = 1; level <= levels; level++) {
+            spans[level] = Math.multiplyExact(spans[level - 1], wheelSize);
+        }
+        this.currentTick = startMs / tickMs;
+    }
+
+    /**
+     * 当前可容纳的最晚到期时间，与添加时的判断一致，超过该时间的条目无法添加
+     *
+     * @return 毫秒时间戳
+     */
+    public long getMaxDeadline() {
+        return (maxDeadlineTick() + 1) * tickMs - 1;
+    }
+
+    /**
+     * 任意时刻都可以容纳的时长：到期时间距当前刻度不超过该时长的条目一定可以添加
+     *
+     * @return 毫秒
+     */
+    public long getCapacityMs() {
+        return (spans[buckets.length] - 1) * tickMs;
+    }
+
+    /**
+     * 添加条目
+     *
+     * @param item       条目
+     * @param deadlineMs 到期时间（毫秒时间戳）
+     * @return 是否添加成功，到期时间超出可容纳时长时返回false
+     */
+    public boolean add(T item, long deadlineMs) {
+        long deadlineTick = deadlineMs / tickMs;
+        if (deadlineTick <= currentTick) {
+            overdue.add(item);
+            size++;
+            return true;
+        }
+        if (!place(new Entry<>(item, deadlineTick))) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * 推进到指定时间，返回期间到期的条目
+     *
+     * @param nowMs 当前时间（毫秒时间戳）
+     * @return 到期的条目
+     */
+    public List<T> advance(long nowMs) {
+        List<T> expired = new ArrayList<>();
+        long targetTick = nowMs / tickMs;
+        while (currentTick < targetTick) {
+            currentTick++;
+            // 到达高层格子的起点时，将该格条目放入下面的层级
+            for (int level = buckets.length - 1; level > 0; level--) {
+                if (currentTick % spans[level] == 0) {
+                    cascade(level, (int) ((currentTick / spans[level]) % wheelSize));
+                }
+            }
+            List<Entry<T>> bucket = takeBucket(0, (int) (currentTick % wheelSize));
+            if (bucket != null) {
+                bucket.forEach(entry -> expired.add(entry.item));
+            }
+        }
+        expired.addAll(overdue);
+        overdue.clear();
+        size -= expired.size();
+        return expired;
+    }
+
+    /**
+     * 条目数量
+     *
+     * @return 数量
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 最高层可容纳的最晚到期刻度：条目所在的格最多比当前格晚一圈，
+     * 晚一圈时与当前格是同一个格子，当前格已在进入时取出，下次经过该格时恰好到达条目所在的格
+     */
+    private long maxDeadlineTick() {
+        long topSpan = spans[buckets.length - 1];
+        return (currentTick / topSpan + wheelSize + 1) * topSpan - 1;
+    }
+
+    /**
+     * 将条目放入最低的可容纳层级：到期刻度与当前刻度只在该层及以下各层的位上不同，
+     * 最高层按maxDeadlineTick判断
+     */
+    private boolean place(Entry<T> entry) {
+        int top = buckets.length - 1;
+        for (int level = 0; level <= top; level++) {
+            boolean fits = level < top
+                    ? entry.deadlineTick / spans[level + 1] == currentTick / spans[level + 1]
+                    : entry.deadlineTick <= maxDeadlineTick();
+            if (fits) {
+                int index = (int) ((entry.deadlineTick / spans[level]) % wheelSize);
+                List<Entry<T>> bucket = buckets[level][index];
+                if (bucket == null) {
+                    bucket = new ArrayList<>();
+                    buckets[level][index] = bucket;
+                }
+                bucket.add(entry);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void cascade(int level, int index) {
+        List<Entry<T>> bucket = takeBucket(level, index);
+        if (bucket == null) {
+            return;
+        }
+        // 在取出第0层当前格之前执行，恰好在当前刻度到期的条目会随当前刻度返回
+        bucket.forEach(this::place);
+    }
+
+    private List<Entry<T>> takeBucket(int level, int index) {
+        List<Entry<T>> bucket = buckets[level][index];
+        buckets[level][index] = null;
+        return bucket;
+    }
+
+    private static class Entry<T> {
+
+        private final T item;
+
+        private final long deadlineTick;
+
+        Entry(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
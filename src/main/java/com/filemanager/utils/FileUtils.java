@@ -7,6 +7,7 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -72,8 +73,22 @@ public class FileUtils {
         return LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy/MM/dd/"));
     }
 
+    /**
+     * 生成按哈希前缀分散的存储路径
+     * 取文件名MD5的前两个字节作为两级目录，每级256个子目录，避免单个目录下文件过多
+     *
+     * @param fileName 文件名（通常为唯一文件名）
+     * @return 存储路径，格式：ab/cd/
+     */
+    public static String generateHashPath(String fileName) {
+        String hash = bytesToHex(createMD5Digest().digest(fileName.getBytes(StandardCharsets.UTF_8)));
+        return hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/";
+    }
+
     /**
      * 计算文件MD5值
+     * 会完整读取一次上传内容，上传时应优先使用StorageService.uploadFile(InputStream, String, MessageDigest)
+     * 在写入存储的同时计算MD5
      *
      * @param file 文件
      * @return MD5值（32位小写）
@@ -109,6 +124,19 @@ public class FileUtils {
         }
     }
 
+    /**
+     * 创建MD5摘要算法实例，用于在写入存储的同时计算文件MD5
+     *
+     * @return MD5摘要算法
+     */
+    public static MessageDigest createMD5Digest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("当前JVM不支持MD5算法", e);
+        }
+    }
+
     /**
      * 字节数组转十六进制字符串
      *
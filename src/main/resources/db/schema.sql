@@ -41,7 +41,7 @@ CREATE TABLE IF NOT EXISTS `sys_file_info` (
   `file_path` varchar(500) NOT NULL COMMENT '文件路径',
   `file_url` varchar(1000) DEFAULT NULL COMMENT '文件URL路径',
   `file_ext` varchar(20) DEFAULT NULL COMMENT '文件后缀名',
-  `file_size` bigint(20) DEFAULT 0 COMMENT '文件大小(字节)',
+  `file_size` bigint(20) NOT NULL DEFAULT 0 COMMENT '文件大小(字节)',
   `file_type` tinyint(4) DEFAULT 0 COMMENT '文件所属类型（0-普通文件，1-图片，2-文档，3-视频，4-音频，5-压缩包）',
   `mime_type` varchar(100) DEFAULT NULL COMMENT '文件MIME类型',
   `storage_type` tinyint(4) DEFAULT 0 COMMENT '存储类型（0-本地存储，1-阿里云OSS，2-腾讯云COS，3-七牛云，4-MinIO）',
@@ -62,12 +62,39 @@ CREATE TABLE IF NOT EXISTS `sys_file_info` (
   `create_time` datetime NOT NULL COMMENT '创建时间',
   `update_time` datetime DEFAULT NULL COMMENT '更新时间',
   PRIMARY KEY (`id`),
+  -- 子树查询（打包下载、文件夹统计、删除文件夹）经闭包表按folder_id连接，不带create_user_id，
+  -- 不能使用以create_user_id开头的组合索引；按create_user_id和status的查询由下面的组合索引前缀覆盖
   INDEX `idx_folder_id` (`folder_id`),
-  INDEX `idx_create_user_id` (`create_user_id`),
   INDEX `idx_file_md5` (`file_md5`),
-  INDEX `idx_status` (`status`)
+  -- 游标分页：按(排序字段, id)定位，InnoDB二级索引末尾自带主键id
+  -- 文件夹列表：排序字段之后附带列表项字段，列表查询只读索引（EXPLAIN Extra: Using index）
+  INDEX `idx_user_folder_status_time` (`create_user_id`, `folder_id`, `status`, `create_time`,
+    `original_name`, `file_ext`, `file_size`, `file_type`, `is_favorite`),
+  -- 按名称、大小排序的游标分页：索引只用于定位游标和避免filesort，每页回表次数不超过页大小；
+  -- 这两种排序使用较少，不附带列表字段，减少收藏、重命名等写入需要维护的索引宽度
+  INDEX `idx_user_folder_status_name` (`create_user_id`, `folder_id`, `status`, `original_name`),
+  INDEX `idx_user_folder_status_size` (`create_user_id`, `folder_id`, `status`, `file_size`),
+  -- 收藏列表、回收站列表的覆盖索引
+  INDEX `idx_user_favorite_status_time` (`create_user_id`, `is_favorite`, `status`, `create_time`,
+    `folder_id`, `original_name`, `file_ext`, `file_size`, `file_type`),
+  INDEX `idx_user_status_delete_time` (`create_user_id`, `status`, `delete_time`,
+    `folder_id`, `original_name`, `file_ext`, `file_size`, `file_type`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='文件信息表';
 
+-- 文件内容表（按内容摘要寻址，引用计数归零时回收物理文件）
+CREATE TABLE IF NOT EXISTS `sys_file_blob` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT COMMENT '内容ID',
+  `file_md5` varchar(32) NOT NULL COMMENT '文件MD5值',
+  `file_size` bigint(20) DEFAULT 0 COMMENT '文件大小(字节)',
+  `blob_path` varchar(500) NOT NULL COMMENT '物理存储路径',
+  `storage_type` tinyint(4) DEFAULT 0 COMMENT '存储类型（0-本地存储，1-阿里云OSS，2-腾讯云COS，3-七牛云，4-MinIO）',
+  `ref_count` int(11) DEFAULT 0 COMMENT '引用计数',
+  `create_time` datetime NOT NULL COMMENT '创建时间',
+  `update_time` datetime DEFAULT NULL COMMENT '更新时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_file_md5` (`file_md5`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='文件内容表';
+
 -- 文件夹表
 CREATE TABLE IF NOT EXISTS `sys_folder` (
   `id` bigint(20) NOT NULL AUTO_INCREMENT COMMENT '文件夹ID',
@@ -91,6 +118,48 @@ CREATE TABLE IF NOT EXISTS `sys_folder` (
   INDEX `idx_status` (`status`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='文件夹表';
 
+-- 文件夹闭包表：每个文件夹与其自身及全部祖先各一行，递归查询子树或祖先链只需一次索引查询
+CREATE TABLE IF NOT EXISTS `sys_folder_closure` (
+  `ancestor_id` bigint(20) NOT NULL COMMENT '祖先文件夹ID',
+  `descendant_id` bigint(20) NOT NULL COMMENT '后代文件夹ID',
+  `depth` int(11) NOT NULL COMMENT '层级距离（0表示自身）',
+  PRIMARY KEY (`ancestor_id`, `descendant_id`),
+  INDEX `idx_descendant_depth` (`descendant_id`, `depth`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='文件夹闭包表';
+
+-- 文件夹统计表：直接包含及子树中正常文件的大小和数量，随文件变更在同一事务中增量维护，并定期校验
+CREATE TABLE IF NOT EXISTS `sys_folder_stat` (
+  `folder_id` bigint(20) NOT NULL COMMENT '文件夹ID',
+  `direct_bytes` bigint(20) NOT NULL DEFAULT 0 COMMENT '直接包含的文件大小（字节）',
+  `direct_files` bigint(20) NOT NULL DEFAULT 0 COMMENT '直接包含的文件数',
+  `total_bytes` bigint(20) NOT NULL DEFAULT 0 COMMENT '子树中的文件大小（字节）',
+  `total_files` bigint(20) NOT NULL DEFAULT 0 COMMENT '子树中的文件数',
+  `update_time` datetime DEFAULT NULL COMMENT '更新时间',
+  PRIMARY KEY (`folder_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='文件夹统计表';
+
+-- 分片上传会话表
+CREATE TABLE IF NOT EXISTS `sys_upload_session` (
+  `id` varchar(32) NOT NULL COMMENT '会话ID',
+  `file_name` varchar(255) NOT NULL COMMENT '文件原始名称',
+  `file_size` bigint(20) NOT NULL COMMENT '文件大小（字节）',
+  `chunk_size` int(11) NOT NULL COMMENT '分片大小（字节）',
+  `total_chunks` int(11) NOT NULL COMMENT '分片总数',
+  `folder_id` bigint(20) DEFAULT NULL COMMENT '目标文件夹ID',
+  `user_id` bigint(20) NOT NULL COMMENT '创建用户ID',
+  `create_time` datetime DEFAULT NULL COMMENT '创建时间',
+  `update_time` datetime DEFAULT NULL COMMENT '最后活动时间',
+  PRIMARY KEY (`id`),
+  KEY `idx_update_time` (`update_time`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='分片上传会话表';
+
+-- 分片上传已接收分片表
+CREATE TABLE IF NOT EXISTS `sys_upload_chunk` (
+  `session_id` varchar(32) NOT NULL COMMENT '会话ID',
+  `chunk_index` int(11) NOT NULL COMMENT '分片序号',
+  PRIMARY KEY (`session_id`, `chunk_index`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='分片上传已接收分片表';
+
 -- 文件分享表
 CREATE TABLE IF NOT EXISTS `sys_file_share` (
   `id` bigint(20) NOT NULL AUTO_INCREMENT COMMENT '分享ID',
@@ -118,7 +187,8 @@ CREATE TABLE IF NOT EXISTS `sys_file_share` (
   INDEX `idx_file_id` (`file_id`),
   INDEX `idx_folder_id` (`folder_id`),
   INDEX `idx_create_user_id` (`create_user_id`),
-  INDEX `idx_status` (`status`)
+  INDEX `idx_status` (`status`),
+  INDEX `idx_status_expire_time` (`status`, `expire_time`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='文件分享表';
 
 -- 存储配置表
@@ -155,4 +225,6 @@ VALUES (1, 0, '本地存储', 'http://localhost:8080', '/upload', 0, 1, 1, '本
 
 -- 创建根目录文件夹
 INSERT INTO `sys_folder` (`id`, `folder_name`, `parent_id`, `folder_path`, `belong_type`, `create_user_id`, `status`, `create_time`) 
-VALUES (1, '根目录', 0, '/', 2, 1, 1, NOW());
\ No newline at end of file
+VALUES (1, '根目录', 0, '/', 2, 1, 1, NOW());
+
+INSERT INTO `sys_folder_closure` (`ancestor_id`, `descendant_id`, `depth`) VALUES (1, 1, 0);
@@ -0,0 +1,190 @@
+package com.filemanager.service.impl;
+
+import com.filemanager.entity.FileInfo;
+import com.filemanager.service.StorageObject;
+import com.filemanager.service.StorageService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 文件下载Range请求测试
+ */
+class FileDownloadServiceImplTest {
+
+    private static final int LENGTH = 100;
+
+    private static final String MD5 = "0123456789abcdef";
+
+    private final byte[] content = new byte[LENGTH];
+
+    private final FileDownloadServiceImpl service = new FileDownloadServiceImpl(storageService());
+
+    FileDownloadServiceImplTest() {
+        for (int i = 0; i < LENGTH; i++) {
+            content[i] = (byte) i;
+        }
+    }
+
+    @Test
+    void noRangeReturnsFullBody() throws IOException {
+        MockHttpServletResponse response = download(null);
+
+        assertFullBody(response);
+    }
+
+    @Test
+    void singleRangeReturnsPartialContent() throws IOException {
+        MockHttpServletResponse response = download("bytes=10-19");
+
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        assertEquals("bytes 10-19/" + LENGTH, response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(Arrays.copyOfRange(content, 10, 20), response.getContentAsByteArray());
+    }
+
+    @Test
+    void suffixRangeReturnsTail() throws IOException {
+        MockHttpServletResponse response = download("bytes=-5");
+
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        assertEquals("bytes 95-99/" + LENGTH, response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(Arrays.copyOfRange(content, 95, 100), response.getContentAsByteArray());
+    }
+
+    @Test
+    void multipleRangesReturnMultipart() throws IOException {
+        MockHttpServletResponse response = download("bytes=0-1,10-11");
+
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        assertTrue(response.getContentType().startsWith("multipart/byteranges"));
+    }
+
+    @Test
+    void invalidRangeReturnsFullBody() throws IOException {
+        for (String range : Arrays.asList("bytes=5-2", "items=0-1", "bytes=abc", "bytes=")) {
+            assertFullBody(download(range));
+        }
+    }
+
+    @Test
+    void unsatisfiableRangeReturns416() throws IOException {
+        for (String range : Arrays.asList("bytes=100-", "bytes=200-300")) {
+            MockHttpServletResponse response = download(range);
+
+            assertEquals(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatus());
+            assertEquals("bytes */" + LENGTH, response.getHeader(HttpHeaders.CONTENT_RANGE));
+            assertEquals(0, response.getContentAsByteArray().length);
+        }
+    }
+
+    @Test
+    void tooManyRangesReturnFullBody() throws IOException {
+        StringBuilder range = new StringBuilder("bytes=");
+        for (int i = 0; i < 17; i++) {
+            range.append(i == 0 ? "" : ",").append(i * 2).append('-').append(i * 2);
+        }
+
+        assertFullBody(download(range.toString()));
+    }
+
+    @Test
+    void overlappingRangesLargerThanFileReturnFullBody() throws IOException {
+        assertFullBody(download("bytes=0-99,0-99"));
+    }
+
+    @Test
+    void mismatchedIfRangeReturnsFullBody() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/download");
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-9");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"stale\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        service.download(fileInfo(), request, response);
+
+        assertFullBody(response);
+    }
+
+    private MockHttpServletResponse download(String range) throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/download");
+        if (range != null) {
+            request.addHeader(HttpHeaders.RANGE, range);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        service.download(fileInfo(), request, response);
+        return response;
+    }
+
+    private void assertFullBody(MockHttpServletResponse response) {
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals(LENGTH, response.getContentLengthLong());
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+
+    private static FileInfo fileInfo() {
+        FileInfo fileInfo = new FileInfo();
+        fileInfo.setId(1L);
+        fileInfo.setFilePath("test/data.bin");
+        fileInfo.setFileExt("bin");
+        fileInfo.setOriginalName("data.bin");
+        fileInfo.setFileMd5(MD5);
+        return fileInfo;
+    }
+
+    private StorageService storageService() {
+        return (StorageService) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{StorageService.class}, (proxy, method, args) -> {
+                    if ("getObject".equals(method.getName())) {
+                        return new MemoryObject(content);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * 内存中的存储对象
+     */
+    private static class MemoryObject implements StorageObject {
+
+        private final byte[] data;
+
+        MemoryObject(byte[] data) {
+            this.data = data;
+        }
+
+        @Override
+        public long getLength() {
+            return data.length;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(data);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) {
+            if (position >= data.length) {
+                return -1;
+            }
+            int length = (int) Math.min(dst.remaining(), data.length - position);
+            dst.put(data, (int) position, length);
+            return length;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
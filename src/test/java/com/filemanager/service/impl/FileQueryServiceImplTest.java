@@ -0,0 +1,170 @@
+package com.filemanager.service.impl;
+
+import com.filemanager.common.CursorPage;
+import com.filemanager.dto.FileCursorQuery;
+import com.filemanager.entity.FileInfo;
+import com.filemanager.mapper.FileInfoMapper;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 文件游标分页测试
+ */
+class FileQueryServiceImplTest {
+
+    /**
+     * 下一次查询返回的记录
+     */
+    private List<FileInfo> records = new ArrayList<>();
+
+    /**
+     * 最近一次查询传入的排序值
+     */
+    private Object cursorValue;
+
+    /**
+     * 最近一次查询传入的游标ID
+     */
+    private Long cursorId;
+
+    private final FileQueryServiceImpl service = new FileQueryServiceImpl(mapper());
+
+    @Test
+    void nullSortValueRoundTrip() {
+        records = Arrays.asList(file(3L, 300L), file(2L, null), file(1L, null));
+        CursorPage<FileInfo> page = service.cursorPage(query("fileSize", null));
+
+        assertTrue(page.getHasMore());
+        assertEquals(2, page.getRecords().size());
+        assertNotNull(page.getNextCursor());
+
+        records = new ArrayList<>();
+        service.cursorPage(query("fileSize", page.getNextCursor()));
+        assertEquals(Long.valueOf(2L), cursorId);
+        assertNull(cursorValue);
+    }
+
+    @Test
+    void numberSortValueRoundTrip() {
+        records = Arrays.asList(file(3L, 300L), file(2L, 200L), file(1L, 100L));
+        CursorPage<FileInfo> page = service.cursorPage(query("fileSize", null));
+
+        service.cursorPage(query("fileSize", page.getNextCursor()));
+        assertEquals(Long.valueOf(2L), cursorId);
+        assertEquals(200L, cursorValue);
+    }
+
+    @Test
+    void timeSortValueRoundTrip() {
+        LocalDateTime time = LocalDateTime.of(2024, 1, 2, 3, 4, 5, 6000000);
+        FileInfo first = file(8L, null);
+        first.setCreateTime(time.plusDays(1));
+        FileInfo second = file(7L, null);
+        second.setCreateTime(time);
+        records = Arrays.asList(first, second);
+        CursorPage<FileInfo> page = service.cursorPage(query("createTime", null, 1));
+
+        service.cursorPage(query("createTime", page.getNextCursor()));
+        assertEquals(Long.valueOf(7L), cursorId);
+        assertEquals(time, cursorValue);
+    }
+
+    @Test
+    void nullTimeSortValueRoundTrip() {
+        records = Arrays.asList(file(8L, null), file(7L, null));
+        CursorPage<FileInfo> page = service.cursorPage(query("createTime", null, 1));
+
+        service.cursorPage(query("createTime", page.getNextCursor()));
+        assertEquals(Long.valueOf(8L), cursorId);
+        assertNull(cursorValue);
+    }
+
+    @Test
+    void fileNameIsNeverTreatedAsNull() {
+        FileInfo first = file(5L, null);
+        first.setOriginalName("null");
+        records = Arrays.asList(first, file(4L, null));
+        CursorPage<FileInfo> page = service.cursorPage(query("fileName", null, 1));
+
+        service.cursorPage(query("fileName", page.getNextCursor()));
+        assertEquals(Long.valueOf(5L), cursorId);
+        assertEquals("null", cursorValue);
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        records = Arrays.asList(file(2L, 200L), file(1L, 100L));
+        CursorPage<FileInfo> page = service.cursorPage(query("fileSize", null));
+
+        assertFalse(page.getHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void badCursorIsRejected() {
+        List<String> cursors = Arrays.asList("!!!", encode("12"), encode("abc:100"), encode(":100"),
+                encode("1:abc"));
+        for (String cursor : cursors) {
+            assertThrows(IllegalArgumentException.class, () -> service.cursorPage(query("fileSize", cursor)),
+                    cursor);
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> service.cursorPage(query("createTime", encode("1:2024-13-01"))));
+    }
+
+    @Test
+    void unknownSortKeyIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> service.cursorPage(query("file_size", null)));
+    }
+
+    private FileInfoMapper mapper() {
+        return (FileInfoMapper) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{FileInfoMapper.class}, (proxy, method, args) -> {
+                    if ("selectFileCursorPage".equals(method.getName())) {
+                        cursorValue = args[4];
+                        cursorId = (Long) args[5];
+                        int limit = (Integer) args[6];
+                        return new ArrayList<>(records.subList(0, Math.min(limit, records.size())));
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static FileCursorQuery query(String sortBy, String cursor) {
+        return query(sortBy, cursor, 2);
+    }
+
+    private static FileCursorQuery query(String sortBy, String cursor, int size) {
+        FileCursorQuery query = new FileCursorQuery();
+        query.setSortBy(sortBy);
+        query.setCursor(cursor);
+        query.setSize(size);
+        return query;
+    }
+
+    private static FileInfo file(Long id, Long fileSize) {
+        FileInfo fileInfo = new FileInfo();
+        fileInfo.setId(id);
+        fileInfo.setFileSize(fileSize);
+        fileInfo.setOriginalName("file" + id);
+        return fileInfo;
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
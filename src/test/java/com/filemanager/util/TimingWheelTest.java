@@ -0,0 +1,99 @@
+package com.filemanager.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 分层时间轮测试
+ */
+class TimingWheelTest {
+
+    private static final long TICK_MS = 10;
+
+    private static final int WHEEL_SIZE = 4;
+
+    private static final int LEVELS = 3;
+
+    /**
+     * 最高层每圈的刻度数
+     */
+    private static final long ROUND_TICKS = 64;
+
+    @Test
+    void maxDeadlineMatchesAdd() {
+        // 覆盖一圈内的各个起点，包括最高层边界前后
+        for (long startTick = 0; startTick < 2 * ROUND_TICKS; startTick++) {
+            TimingWheel<Long> wheel = new TimingWheel<>(TICK_MS, WHEEL_SIZE, LEVELS, startTick * TICK_MS);
+            long maxDeadline = wheel.getMaxDeadline();
+            assertTrue(wheel.add(1L, maxDeadline), "startTick=" + startTick);
+            assertFalse(wheel.add(2L, maxDeadline + 1), "startTick=" + startTick);
+            assertTrue(maxDeadline - startTick * TICK_MS >= wheel.getCapacityMs(), "startTick=" + startTick);
+        }
+    }
+
+    @Test
+    void capacityIsAvailableBeforeTopLevelBoundary() {
+        // 当前刻度位于最高层一圈的最后一个刻度，到期时间跨过边界
+        long startTick = ROUND_TICKS - 1;
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK_MS, WHEEL_SIZE, LEVELS, startTick * TICK_MS);
+        long deadline = startTick * TICK_MS + wheel.getCapacityMs();
+        assertTrue(wheel.add(1L, deadline));
+        assertFiresAt(wheel, startTick, deadline / TICK_MS, 1L);
+    }
+
+    @Test
+    void entryAcrossTopLevelBoundaryFiresOnTime() {
+        long startTick = ROUND_TICKS - 3;
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK_MS, WHEEL_SIZE, LEVELS, startTick * TICK_MS);
+        long deadlineTick = ROUND_TICKS + 5;
+        assertTrue(wheel.add(1L, deadlineTick * TICK_MS));
+        assertFiresAt(wheel, startTick, deadlineTick, 1L);
+    }
+
+    @Test
+    void randomEntriesFireAtTheirDeadline() {
+        Random random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            long tick = random.nextInt((int) (3 * ROUND_TICKS));
+            TimingWheel<Long> wheel = new TimingWheel<>(TICK_MS, WHEEL_SIZE, LEVELS, tick * TICK_MS);
+            Map<Long, Long> deadlines = new HashMap<>();
+            long nextId = 0;
+            for (int step = 0; step < 4 * ROUND_TICKS; step++) {
+                // 推进过程中不断添加，覆盖各层和跨边界的情况
+                for (int i = 0; i < 3; i++) {
+                    long deadlineMs = tick * TICK_MS + (long) (random.nextDouble() * (wheel.getMaxDeadline() - tick * TICK_MS + 1));
+                    if (wheel.add(nextId, deadlineMs)) {
+                        deadlines.put(nextId, Math.max(deadlineMs / TICK_MS, tick + 1));
+                    }
+                    nextId++;
+                }
+                tick++;
+                for (Long id : wheel.advance(tick * TICK_MS)) {
+                    assertEquals(deadlines.remove(id), tick, "id=" + id);
+                }
+            }
+            assertEquals(deadlines.size(), wheel.size());
+        }
+    }
+
+    private void assertFiresAt(TimingWheel<Long> wheel, long startTick, long deadlineTick, Long item) {
+        List<Long> fired = new ArrayList<>();
+        for (long tick = startTick + 1; tick <= deadlineTick; tick++) {
+            fired = wheel.advance(tick * TICK_MS);
+            if (tick < deadlineTick) {
+                assertTrue(fired.isEmpty(), "提前到期: tick=" + tick);
+            }
+        }
+        assertEquals(1, fired.size());
+        assertEquals(item, fired.get(0));
+    }
+}